@@ -4,14 +4,24 @@ import com.hjss.enums.*;
 
 import com.hjss.exceptions.*;
 
+import com.hjss.jfr.ReportEvent;
+
+import com.hjss.management.SchoolMBeans;
+
+import com.hjss.metrics.Metrics;
+
 import com.hjss.menu.*;
 
 import com.hjss.model.*;
 
 import com.hjss.repository.*;
 
+import com.hjss.util.WeekPartitions;
+
+import javax.management.JMException;
 import java.text.DecimalFormat;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The App class represents the main application instance.
@@ -35,6 +45,11 @@ public class App {
      */
     private final String name;
 
+    /**
+     * Latency and rejection metrics of the booking engine and reports.
+     */
+    private final Metrics metrics;
+
     /**
      * Repository for managing operations related to learners.
      */
@@ -60,11 +75,26 @@ public class App {
      */
     private final ReviewRepository reviewRepository;
 
+    /**
+     * Monthly learner and coach reports, closed months are served from their summaries.
+     */
+    private final MonthlyReports monthlyReports;
+
+    /**
+     * Learners watching full lessons for a free seat.
+     */
+    private final VacancyWatch vacancyWatch;
+
     /**
      * The learner currently interacting with the application.
      */
     private Learner learner;
 
+    /**
+     * Number of logins since the application started.
+     */
+    private final AtomicLong logins = new AtomicLong();
+
     private final Scanner console;
 
 
@@ -74,12 +104,25 @@ public class App {
      */
     private App() {
         name = "Hatfield Junior Swimming School";
+        metrics = new Metrics();
         learnerRepository = new LearnerRepository();
         coachRepository = new CoachRepository();
         lessonRepository = new LessonRepository(coachRepository);
-        bookingRepository = new BookingRepository();
+        bookingRepository = new BookingRepository(metrics);
         reviewRepository = new ReviewRepository();
+        monthlyReports = new MonthlyReports(lessonRepository, bookingRepository, reviewRepository);
+        vacancyWatch = new VacancyWatch(lessonRepository, (lr, ls, vacancy) -> {
+            System.out.println();
+            System.out.println("\u001B[32mNotice: " + vacancy + " seat(s) free in lesson " + ls.getId() + " for " + lr.getName() + "\u001B[0m");
+        });
         console = new Scanner(System.in);
+
+        try {
+            // Expose live stats to JMX tools
+            SchoolMBeans.register(this, learnerRepository, coachRepository, lessonRepository, bookingRepository, reviewRepository);
+        } catch (JMException e) {
+            System.err.println("Warning: Management beans could not be registered: " + e.getMessage());
+        }
     }
 
     /**
@@ -182,6 +225,12 @@ public class App {
                 handleRegistration();
                 break;
 
+            // Case 7: Mark a whole lesson attended
+            case 7:
+                // Proceed to mark the lesson roster attended
+                handleMarkLessonAttended();
+                break;
+
             // Default: Exit the application
             default:
                 // Terminate the application
@@ -271,30 +320,53 @@ public class App {
      * displays the available lessons based on the selected method,
      * prompts the user to choose a lesson from the displayed list,
      * creates a booking for the selected lesson, and displays the booking itinerary.
+     * Rejected bookings are reported as outcomes and the user is prompted again, without recursion.
      */
     private void handleBookASwimmingLesson() {
-        // Prompt the user for the lesson to be booked
-        Lesson lesson = getLesson();
+        Booking booking;
+        BookingOutcome outcome;
 
-        if (lesson == null) return;
+        do {
+            // Prompt the user for the lesson to be booked
+            Lesson lesson = getLesson();
 
-        Booking booking;
+            if (lesson == null) return;
 
-        try {
             // Create a booking for the selected lesson
-            booking = bookingRepository.create(new Booking(getLearner(), lesson));
-        } catch (GradeMisMatchException | DuplicateBookingException | NoVacancyException e) {
-            System.out.println();
-            System.out.println("\u001B[31mError: " + e.getMessage() + "\u001B[0m");
+            booking = new Booking(getLearner(), lesson);
+            outcome = bookingRepository.tryCreate(booking);
 
-            // Recursively prompt the user to retry booking
-            handleBookASwimmingLesson();
-            return;
-        }
+            int waitlistChoice = outcome == BookingOutcome.NO_VACANCY ? new WaitlistMenu().execute() : 0;
+
+            if (waitlistChoice == 1) {
+                // Wait for a seat to be freed instead of choosing another lesson
+                outcome = bookingRepository.waitlist(booking);
+
+                if (outcome == BookingOutcome.WAITLISTED) {
+                    System.out.println();
+                    System.out.println("\u001B[32mSuccess: " + outcome.getMessage() + "\u001B[0m");
+                    return;
+                }
+            } else if (waitlistChoice == 3) {
+                // Be told once a seat is freed, without booking it yet
+                vacancyWatch.watch(getLearner(), lesson);
+
+                System.out.println();
+                System.out.println("\u001B[32mSuccess: You will be notified when a seat is free in this lesson\u001B[0m");
+                return;
+            }
+
+            if (!outcome.isBooked()) {
+                System.out.println();
+                System.out.println("\u001B[31mError: " + outcome.getMessage() + "\u001B[0m");
+            }
+
+            // Prompt the user to retry booking until it succeeds
+        } while (!outcome.isBooked());
 
         // Display a success message and the booking itinerary
         System.out.println();
-        System.out.println("\u001B[32mSuccess: Your Booking was completed successfully!\u001B[0m");
+        System.out.println("\u001B[32mSuccess: " + outcome.getMessage() + "\u001B[0m");
         System.out.println();
 
         System.out.println("Booking Itinerary: ");
@@ -386,13 +458,61 @@ public class App {
     }
 
     /**
-     * Displays a report for Hatfield Junior Swimming School learners for the month.
-     * Retrieves information about learners, their bookings, cancellations, and attendances,
+     * Handles marking every booking of a lesson as attended at once.
+     * Learners whose grade no longer matches the lesson have their bookings cancelled instead.
+     */
+    private void handleMarkLessonAttended() {
+        List<Lesson> lessons = lessonRepository.read();
+
+        // Create a set to store lesson IDs for validation
+        Set<Integer> lessonIds = new HashSet<>();
+
+        for (Lesson lesson : lessons) {
+            lessonIds.add(lesson.getId());
+        }
+
+        // Display the timetable menu for the user to select the lesson that took place
+        var timeTableMenu = new TimeTableMenu(lessonRepository.showTimeTable(lessons), lessonIds);
+        Lesson lesson = lessonRepository.readById(timeTableMenu.execute());
+
+        if (lesson == null) {
+            System.out.println();
+            System.out.println("No Lesson Found!");
+            return;
+        }
+
+        List<Booking> roster = bookingRepository.attendAll(lesson);
+
+        System.out.println();
+
+        if (roster.isEmpty()) {
+            System.out.println("\u001B[31mNo bookings to mark for this lesson!\u001B[0m");
+            return;
+        }
+
+        for (Booking booking : roster) {
+            if (booking.getAttendanceStatus()) {
+                System.out.println("\u001B[32mAttended: " + booking.getLearner().getName() + "\u001B[0m");
+            } else {
+                System.out.println("\u001B[31mCancelled: " + booking.getLearner().getName() + ", "
+                        + BookingOutcome.GRADE_MISMATCH.getMessage() + "\u001B[0m");
+            }
+        }
+    }
+
+    /**
+     * Displays a report for Hatfield Junior Swimming School learners for a month chosen by the user.
+     * Retrieves information about learners, their bookings, cancellations, and attendances in that month,
      * and prints out relevant statistics and details.
      */
     private void handleShowLearnerReport() {
+        int month = selectMonth();
+
+        long start = System.nanoTime();
+        ReportEvent event = ReportEvent.start();
+
         System.out.println();
-        System.out.println("****** Report For Hatfield Junior Swimming School Learners For The Month ******");
+        System.out.println("****** Report For Hatfield Junior Swimming School Learners For Month " + month + " ******");
 
 
         // Get all Learners
@@ -400,15 +520,13 @@ public class App {
 
         for (Learner lr : learners) {
             System.out.println();
-            // Get Learner bookings, cancelled bookings, and attended bookings
-            List<Booking> bookings = bookingRepository.read(lr);
-            List<Booking> canceledBookings = bookingRepository.read(lr, "cancelled");
-            List<Booking> attendedBookings = bookingRepository.read(lr, "attended");
+            // Get the Learner report row, with bookings, cancellations, and attendances
+            LearnerSummary row = monthlyReports.readLearner(lr, month);
 
             String stats = lr.toString() +
-                    "\nTotal Booking: " + bookings.size() +
-                    "\nTotal Attendance: " + attendedBookings.size() +
-                    "\nTotal Cancellations: " + canceledBookings.size();
+                    "\nTotal Booking: " + row.bookings() +
+                    "\nTotal Attendance: " + row.attendances() +
+                    "\nTotal Cancellations: " + row.cancellations();
 
             // Print student information and statistics
             System.out.println(stats);
@@ -416,45 +534,66 @@ public class App {
             // Print lessons booked by the learner
             System.out.println();
             System.out.println("Lessons booked by " + lr.getName() + ":");
-            if (bookings.isEmpty()) {
+            if (row.lessonIds().isEmpty()) {
                 System.out.println();
                 System.out.println("\u001B[31m" + lr.getName() + " has no lesson history\u001B[0m");
             } else {
                 // Lessons
-                for (Booking bk : bookings) {
-                    System.out.println(bk.getLesson());
+                for (int lessonId : row.lessonIds()) {
+                    System.out.println(lessonRepository.readById(lessonId));
                 }
             }
 
             System.out.println("--------------------------------------");
         }
+
+        metrics.record(Operation.LEARNER_REPORT, start);
+        event.complete(Operation.LEARNER_REPORT, month, learners.size());
     }
 
     /**
-     * Displays a report for coaches at Hatfield Junior Swimming School, including their names
-     * and average ratings based on reviews.
+     * Displays a report for coaches at Hatfield Junior Swimming School for a month chosen by the user,
+     * including their names and average ratings based on the reviews of that month's lessons.
      */
     private void handleShowCoachReport() {
+        int month = selectMonth();
+
+        long start = System.nanoTime();
+        ReportEvent event = ReportEvent.start();
+
         System.out.println();
 
         // Retrieve all coaches
         List<Coach> coaches = getAppCoaches();
 
         // Print header for the coaches review section
-        System.out.println("************** Coaches Review **************");
+        System.out.println("************** Coaches Review For Month " + month + " **************");
         System.out.println("----------------------------------------");
         for (Coach coach : coaches) {
-            // Retrieve reviews for the coach
-            List<Review> reviews = reviewRepository.read(coach);
-
-            // Calculate the average rating for the coach
-            float avgRating = reviewRepository.getAvgRating(reviews);
+            // Calculate the average rating for the coach from the reviews of the month
+            float avgRating = monthlyReports.readCoach(coach, month).getAvgRating();
 
             // Print coach name and average rating
             System.out.printf("| Name: %-7s | Average Rating: %.2f | %n", coach.getName(), avgRating);
 
             System.out.println("----------------------------------------");
         }
+
+        metrics.record(Operation.COACH_REPORT, start);
+        event.complete(Operation.COACH_REPORT, month, coaches.size());
+    }
+
+    /**
+     * Prompts the user for the month a report is run for.
+     * Every month before the latest month with lessons is over, so it is closed first and its report is a lookup.
+     *
+     * @return The chosen month, starting from 1.
+     */
+    private int selectMonth() {
+        int currentMonth = Math.max(1, WeekPartitions.monthOf(lessonRepository.getWeekCount()));
+        monthlyReports.closeBefore(currentMonth);
+
+        return new MonthMenu(currentMonth).execute();
     }
 
     /**
@@ -528,6 +667,46 @@ public class App {
         return lessonRepository.read(grade);
     }
 
+    /**
+     * Handles a combined lesson search.
+     * It prompts the user to select a day, a grade and a coach, and returns the lessons matching all of them
+     * that still have a vacancy.
+     *
+     * @return The list of matching lessons.
+     */
+    private List<Lesson> handleSearchLessons() {
+        // Option 0 skips a criterion
+        Day day = switch (new DayMenu(true).execute()) {
+            case 1 -> Day.MONDAY;
+            case 2 -> Day.WEDNESDAY;
+            case 3 -> Day.FRIDAY;
+            case 4 -> Day.SATURDAY;
+            default -> null;
+        };
+
+        Grade grade = switch (new GradeMenu(true).execute()) {
+            case 1 -> Grade.ONE;
+            case 2 -> Grade.TWO;
+            case 3 -> Grade.THREE;
+            case 4 -> Grade.FOUR;
+            case 5 -> Grade.FIVE;
+            default -> null;
+        };
+
+        int coachId = new CoachMenu(true).execute();
+        Coach coach = coachId == 0 ? null : coachRepository.readById(coachId);
+
+        int week = new WeekMenu(lessonRepository.getWeekCount()).execute();
+        boolean hasSpace = new SpaceMenu().execute() == 1;
+
+        // Retrieve lessons matching every criterion
+        LessonQuery query = LessonQuery.all().on(day).forGrade(grade).by(coach);
+        if (week != 0) query = query.inWeek(week);
+        if (hasSpace) query = query.withVacancy();
+
+        return lessonRepository.search(query);
+    }
+
     /**
      * Handles the process of cancelling a booking.
      * It retrieves the booking to be cancelled,
@@ -700,8 +879,8 @@ public class App {
      * @return The selected booking or null if no bookings are available.
      */
     private Booking getBooking() {
-        // Read all user bookings
-        List<Booking> bookings = bookingRepository.read(getLearner());
+        // Read the user bookings of the weeks still open
+        List<Booking> bookings = bookingRepository.readCurrent(getLearner());
 
         // Display message and Return when no booking is found.
         if (bookings.isEmpty()) {
@@ -746,12 +925,20 @@ public class App {
             case 1 -> handleBookByDay(); // Book by day
             case 2 -> handleBookByCoach(); // Book by coach
             case 3 -> handleBookByGrade(); // Book by grade
+            case 4 -> lessonRepository.readEligible(getLearner()); // Eligible lessons with a vacancy
+            case 5 -> handleSearchLessons(); // Combined search
             default -> null;
         };
 
         // Exit if no lessons are available
         if (lessons == null) System.exit(0);
 
+        if (lessons.isEmpty()) {
+            System.out.println();
+            System.out.println("\u001B[31mNo lessons available to book!\u001B[0m");
+            return null;
+        }
+
         // Display the timetable for the selected lessons
         String timeTable = lessonRepository.showTimeTable(lessons);
 
@@ -797,6 +984,15 @@ public class App {
         return coachRepository.read();
     }
 
+    /**
+     * Retrieves the latency and rejection metrics of the booking engine and reports.
+     *
+     * @return The application metrics.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Retrieves the currently logged-in learner.
      *
@@ -812,9 +1008,31 @@ public class App {
      * @param learner The learner to set as logged-in.
      */
     public void setLearner(Learner learner) {
+        if (learner != null) {
+            logins.incrementAndGet();
+        }
         this.learner = learner;
     }
 
+    /**
+     * Retrieves the number of learners currently logged in.
+     * The console serves one learner at a time, so this is either 0 or 1.
+     *
+     * @return The current session count.
+     */
+    public int getActiveSessionCount() {
+        return learner == null ? 0 : 1;
+    }
+
+    /**
+     * Retrieves the number of logins since the application started.
+     *
+     * @return The login count.
+     */
+    public long getLoginCount() {
+        return logins.get();
+    }
+
     /**
      * Formats a double number into a string padded with zeros to ensure two digits.
      *
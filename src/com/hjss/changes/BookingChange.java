@@ -0,0 +1,17 @@
+package com.hjss.changes;
+
+import com.hjss.enums.BookingEventType;
+
+import java.time.Instant;
+
+/**
+ * A booking was created, changed, cancelled or attended.
+ *
+ * @param type      The type of change.
+ * @param bookingId The ID of the booking.
+ * @param learnerId The ID of the learner.
+ * @param lessonId  The ID of the lesson of the booking after the change.
+ * @param time      The time of the change.
+ */
+public record BookingChange(BookingEventType type, int bookingId, int learnerId, int lessonId, Instant time) implements ChangeEvent {
+}
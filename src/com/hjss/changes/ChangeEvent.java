@@ -0,0 +1,23 @@
+package com.hjss.changes;
+
+import java.time.Instant;
+
+/**
+ * The ChangeEvent interface represents a change published by the {@link ChangePublisher} of the booking repository.
+ * Change events are immutable copies taken when the change happened, and refer to bookings and lessons by ID.
+ */
+public sealed interface ChangeEvent permits BookingChange, VacancyChange {
+    /**
+     * Gets the ID of the lesson the change is about.
+     *
+     * @return The lesson ID.
+     */
+    int lessonId();
+
+    /**
+     * Gets the time of the change.
+     *
+     * @return The change time.
+     */
+    Instant time();
+}
@@ -0,0 +1,158 @@
+package com.hjss.changes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ChangePublisher class streams booking and vacancy changes to any number of {@link Flow.Subscriber}s.
+ *
+ * <p>
+ * Publishing a change only adds it to a queue, and nothing at all happens while nobody is subscribed. A single drain
+ * task takes the queued changes in batches of up to {@code maxBatch}, so a burst of changes reaches the subscribers as
+ * a few lists instead of one signal per change. Every subscriber has its own bounded buffer. A batch that does not fit
+ * in the buffer of a slow subscriber is dropped for that subscriber and counted, so a slow subscriber never blocks
+ * the booking path or the other subscribers.
+ * </p>
+ */
+public class ChangePublisher implements Flow.Publisher<List<ChangeEvent>>, AutoCloseable {
+    /**
+     * Default largest number of changes in a batch.
+     */
+    public static final int DEFAULT_MAX_BATCH = 64;
+
+    private final SubmissionPublisher<List<ChangeEvent>> publisher;
+
+    private final Executor executor;
+
+    private final int maxBatch;
+
+    private final Queue<ChangeEvent> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Set while a drain task is scheduled or running.
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Constructs a ChangePublisher delivering on the common pool, with the default buffer and batch sizes.
+     */
+    public ChangePublisher() {
+        this(ForkJoinPool.commonPool(), Flow.defaultBufferSize(), DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Constructs a ChangePublisher.
+     *
+     * @param executor       The executor batches are built and delivered on.
+     * @param bufferCapacity The largest number of batches buffered for each subscriber.
+     * @param maxBatch       The largest number of changes in a batch.
+     */
+    public ChangePublisher(Executor executor, int bufferCapacity, int maxBatch) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        this.executor = executor;
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Subscribes to the stream of change batches.
+     *
+     * @param subscriber The subscriber.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<ChangeEvent>> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Checks if anyone is subscribed, so callers can skip building changes nobody receives.
+     *
+     * @return True if there is at least one subscriber, otherwise false.
+     */
+    public boolean hasSubscribers() {
+        return publisher.hasSubscribers();
+    }
+
+    /**
+     * Queues a change for the subscribers. Never blocks.
+     *
+     * @param change The change.
+     */
+    public void publish(ChangeEvent change) {
+        if (!publisher.hasSubscribers() || publisher.isClosed()) return;
+
+        pending.add(change);
+
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Retrieves the number of changes dropped for slow subscribers, counted once per subscriber.
+     *
+     * @return The number of dropped changes.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Completes every subscription once the queued batches are delivered.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+
+    /**
+     * Takes the queued changes in batches and offers them to the subscribers without waiting for buffer space.
+     */
+    private void drain() {
+        do {
+            List<ChangeEvent> batch = new ArrayList<>();
+
+            for (ChangeEvent change = pending.poll(); change != null; change = pending.poll()) {
+                batch.add(change);
+
+                if (batch.size() == maxBatch) {
+                    offer(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                offer(batch);
+            }
+
+            draining.set(false);
+
+            // A change queued after the last poll but before the flag was cleared is drained here
+        } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Offers a batch to every subscriber, dropping it for the subscribers whose buffer is full.
+     *
+     * @param batch The batch.
+     */
+    private void offer(List<ChangeEvent> batch) {
+        try {
+            publisher.offer(List.copyOf(batch), (subscriber, item) -> {
+                dropped.add(item.size());
+                return false;
+            });
+        } catch (IllegalStateException e) {
+            // Closed while draining, the batch has nobody left to go to
+        }
+    }
+}
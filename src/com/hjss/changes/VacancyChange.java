@@ -0,0 +1,13 @@
+package com.hjss.changes;
+
+import java.time.Instant;
+
+/**
+ * The number of free seats of a lesson changed, by a booking change or a seat hold.
+ *
+ * @param lessonId The ID of the lesson.
+ * @param vacancy  The number of free seats after the change.
+ * @param time     The time of the change.
+ */
+public record VacancyChange(int lessonId, int vacancy, Instant time) implements ChangeEvent {
+}
@@ -0,0 +1,11 @@
+package com.hjss.enums;
+
+/**
+ * The BookingEventType enum represents the changes a booking goes through, each recorded with the time it happened.
+ */
+public enum BookingEventType {
+    CREATED, // Booking stored
+    CHANGED, // Booking moved to another lesson
+    CANCELLED, // Booking cancelled, by the learner or by a grade mismatch on attendance
+    ATTENDED // Learner attended the lesson
+}
@@ -0,0 +1,45 @@
+package com.hjss.enums;
+
+/**
+ * The BookingOutcome enum represents the result of a booking attempt made through the result-returning booking API.
+ * Rejections carry the same message as the matching booking exception.
+ */
+public enum BookingOutcome {
+    BOOKED("Your Booking was completed successfully!"), // Booking stored
+    GRADE_MISMATCH("Lesson grade must match Learner's grade or one step higher"), // Learner cannot take the lesson grade
+    DUPLICATE_BOOKING("A Duplicate Booking Exist"), // Learner already booked the lesson
+    NO_VACANCY("No Vacancy"), // Lesson is full
+    TIME_CLASH("Learner already has a lesson at this time"), // Learner booked another lesson in the same slot
+    GROUP_REJECTED("Another booking for this lesson in the group was rejected"), // Bulk booking rolled back for the lesson
+    WAITLISTED("Lesson is full, you have been added to the waitlist"), // Learner waits for a seat to be freed
+    LIMIT_REACHED("You have reached the booking limit for this release"); // Lottery allocation per learner limit
+
+    private final String message; // The message shown to the learner
+
+    /**
+     * Constructs a BookingOutcome enum with the specified message.
+     *
+     * @param message The message shown to the learner.
+     */
+    BookingOutcome(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Gets the message shown to the learner.
+     *
+     * @return The outcome message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Checks if the booking was stored.
+     *
+     * @return True if the outcome is {@link #BOOKED}, otherwise false.
+     */
+    public boolean isBooked() {
+        return this == BOOKED;
+    }
+}
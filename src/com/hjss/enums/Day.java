@@ -1,6 +1,19 @@
 package com.hjss.enums;
 
+import java.time.DayOfWeek;
+
 /**
  * Days in the week that can have lessons
  */
-public enum Day {MONDAY, WEDNESDAY, FRIDAY, SATURDAY}
+public enum Day {
+    MONDAY, WEDNESDAY, FRIDAY, SATURDAY;
+
+    /**
+     * Gets the calendar day of the week matching the lesson day.
+     *
+     * @return The day of the week.
+     */
+    public DayOfWeek toDayOfWeek() {
+        return DayOfWeek.valueOf(name());
+    }
+}
@@ -0,0 +1,19 @@
+package com.hjss.enums;
+
+/**
+ * The Operation enum represents the booking engine operations and reports that are measured by the application.
+ */
+public enum Operation {
+    CREATE, // Book a lesson
+    BULK_CREATE, // Book many lessons at once
+    LOTTERY, // Allocate the seats of a release window by lottery
+    CHANGE, // Change a booking to another lesson
+    CANCEL, // Cancel a booking
+    ATTEND, // Attend a booked lesson
+    BULK_ATTEND, // Mark a whole lesson roster as attended
+    WAITLIST, // Join the waitlist of a full lesson
+    HOLD, // Hold a lesson seat while confirming
+    CONFIRM, // Confirm a held seat into a booking
+    LEARNER_REPORT, // Monthly learner report
+    COACH_REPORT // Monthly coach report
+}
@@ -1,25 +1,30 @@
 package com.hjss.enums;
 
+import java.time.LocalTime;
+
 /**
  * The Time enum represents different time slots in the Hatfield Junior Swimming School (HJSS).
  * Each time slot has a specific time range.
  */
 public enum Time {
-    TWO("2-3pm"), // Time slot from 2pm to 3pm
-    THREE("3-4pm"), // Time slot from 3pm to 4pm
-    FOUR("4-5pm"), // Time slot from 4pm to 5pm
-    FIVE("5-6pm"), // Time slot from 5pm to 6pm
-    SIX("6-7pm"); // Time slot from 6pm to 7pm
+    TWO("2-3pm", 14), // Time slot from 2pm to 3pm
+    THREE("3-4pm", 15), // Time slot from 3pm to 4pm
+    FOUR("4-5pm", 16), // Time slot from 4pm to 5pm
+    FIVE("5-6pm", 17), // Time slot from 5pm to 6pm
+    SIX("6-7pm", 18); // Time slot from 6pm to 7pm
 
     private final String value; // The value representing the time slot
+    private final int startHour; // The hour the time slot starts at, on the 24-hour clock
 
     /**
      * Constructs a Time enum with the specified time slot value.
      *
-     * @param value The value representing the time slot.
+     * @param value     The value representing the time slot.
+     * @param startHour The hour the time slot starts at, on the 24-hour clock.
      */
-    Time(String value) {
+    Time(String value, int startHour) {
         this.value = value;
+        this.startHour = startHour;
     }
 
     /**
@@ -30,4 +35,13 @@ public enum Time {
     public String getValue() {
         return value;
     }
+
+    /**
+     * Gets the time of day the time slot starts at.
+     *
+     * @return The start time.
+     */
+    public LocalTime getStart() {
+        return LocalTime.of(startHour, 0);
+    }
 }
@@ -0,0 +1,16 @@
+package com.hjss.eventlog;
+
+import com.hjss.enums.Grade;
+
+import java.time.Instant;
+
+/**
+ * A learner attended a booked lesson, and moved to the grade of the lesson.
+ *
+ * @param bookingId The ID of the booking.
+ * @param learnerId The ID of the learner.
+ * @param grade     The grade of the lesson, the learner's grade from now on.
+ * @param time      The time the lesson was attended.
+ */
+public record BookingAttended(int bookingId, int learnerId, Grade grade, Instant time) implements LogEvent {
+}
@@ -0,0 +1,12 @@
+package com.hjss.eventlog;
+
+import java.time.Instant;
+
+/**
+ * A booking was cancelled, by the learner or by a grade mismatch on attendance.
+ *
+ * @param bookingId The ID of the booking.
+ * @param time      The time the booking was cancelled.
+ */
+public record BookingCancelled(int bookingId, Instant time) implements LogEvent {
+}
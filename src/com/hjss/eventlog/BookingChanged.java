@@ -0,0 +1,13 @@
+package com.hjss.eventlog;
+
+import java.time.Instant;
+
+/**
+ * A booking moved to another lesson.
+ *
+ * @param bookingId The ID of the booking.
+ * @param lessonId  The ID of the new lesson.
+ * @param time      The time the booking moved.
+ */
+public record BookingChanged(int bookingId, int lessonId, Instant time) implements LogEvent {
+}
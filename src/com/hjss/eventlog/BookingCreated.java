@@ -0,0 +1,14 @@
+package com.hjss.eventlog;
+
+import java.time.Instant;
+
+/**
+ * A booking was stored.
+ *
+ * @param bookingId The ID of the booking.
+ * @param learnerId The ID of the learner who booked.
+ * @param lessonId  The ID of the lesson booked.
+ * @param time      The time the booking was stored.
+ */
+public record BookingCreated(int bookingId, int learnerId, int lessonId, Instant time) implements LogEvent {
+}
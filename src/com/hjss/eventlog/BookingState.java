@@ -0,0 +1,13 @@
+package com.hjss.eventlog;
+
+/**
+ * The BookingState record is the state of a booking rebuilt from the {@link EventLog}.
+ *
+ * @param bookingId The ID of the booking.
+ * @param learnerId The ID of the learner.
+ * @param lessonId  The ID of the lesson currently booked.
+ * @param cancelled True if the booking was cancelled.
+ * @param attended  True if the lesson was attended.
+ */
+public record BookingState(int bookingId, int learnerId, int lessonId, boolean cancelled, boolean attended) {
+}
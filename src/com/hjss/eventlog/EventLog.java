@@ -0,0 +1,157 @@
+package com.hjss.eventlog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The EventLog class is the append-only history of every booking and review change.
+ *
+ * <p>
+ * Events are numbered from 1 in the order they are appended. Every {@code snapshotInterval} events the log folds the
+ * events since the last snapshot into the snapshot {@link Projection} in place, so taking a snapshot costs the events
+ * of one interval rather than the whole state, and {@link #recover()} only has to apply the events after the latest
+ * snapshot, however long the log is. {@link #replay(int)} rebuilds the state from the first event in parallel,
+ * partitioning the events by booking, which is how the snapshots can be audited.
+ * </p>
+ */
+public class EventLog {
+    private final List<LogEvent> events = new ArrayList<>();
+
+    private final int snapshotInterval;
+
+    /**
+     * The state after the latest snapshot. Guarded by this log, and only handed out as a copy.
+     */
+    private Projection snapshot = new Projection();
+
+    /**
+     * Constructs an empty EventLog.
+     *
+     * @param snapshotInterval The number of events between two snapshots.
+     */
+    public EventLog(int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("snapshotInterval must be positive");
+        }
+
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Appends an event to the log, taking a snapshot when the interval is reached.
+     *
+     * @param event The event.
+     * @return The sequence number of the event.
+     */
+    public synchronized long append(LogEvent event) {
+        events.add(event);
+
+        if (events.size() % snapshotInterval == 0) {
+            fold(snapshot, events.size());
+        }
+
+        return events.size();
+    }
+
+    /**
+     * Retrieves the events appended after a sequence number.
+     *
+     * @param afterSequence The sequence number to read after, 0 for the whole log.
+     * @return The events in the order they were appended.
+     */
+    public synchronized List<LogEvent> read(long afterSequence) {
+        return new ArrayList<>(events.subList((int) Math.min(afterSequence, events.size()), events.size()));
+    }
+
+    /**
+     * Retrieves the number of events appended.
+     *
+     * @return The sequence number of the last event.
+     */
+    public synchronized long size() {
+        return events.size();
+    }
+
+    /**
+     * Retrieves the sequence number of the latest snapshot.
+     *
+     * @return The sequence number the snapshot was taken at, 0 before the first snapshot.
+     */
+    public synchronized long getSnapshotSequence() {
+        return snapshot.getSequence();
+    }
+
+    /**
+     * Rebuilds the current state from the latest snapshot and the events appended after it.
+     *
+     * @return The current state.
+     */
+    public synchronized Projection recover() {
+        return fold(snapshot.copy(), events.size());
+    }
+
+    /**
+     * Rebuilds the current state from the first event, replaying the bookings in parallel.
+     * The events of each booking are applied in order by the same worker, and the partial states are merged.
+     *
+     * @param parallelism The number of partitions replayed at once.
+     * @return The current state.
+     */
+    public Projection replay(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+
+        List<LogEvent> history = read(0);
+
+        // Positions of the events of each partition, in order, so each worker only visits its own events
+        int[] counts = new int[parallelism];
+        for (LogEvent event : history) {
+            counts[Math.floorMod(event.bookingId(), parallelism)]++;
+        }
+
+        int[][] positions = new int[parallelism][];
+        for (int partition = 0; partition < parallelism; partition++) {
+            positions[partition] = new int[counts[partition]];
+            counts[partition] = 0;
+        }
+
+        for (int i = 0; i < history.size(); i++) {
+            int partition = Math.floorMod(history.get(i).bookingId(), parallelism);
+            positions[partition][counts[partition]++] = i;
+        }
+
+        List<Projection> partitions = IntStream.range(0, parallelism).parallel()
+                .mapToObj(partition -> {
+                    Projection projection = new Projection();
+                    for (int i : positions[partition]) {
+                        projection.apply(i + 1, history.get(i));
+                    }
+                    return projection;
+                })
+                .toList();
+
+        Projection state = new Projection();
+        for (Projection partition : partitions) {
+            state.merge(partition);
+        }
+
+        return state;
+    }
+
+    /**
+     * Applies the events after the sequence of a projection, up to a sequence number. Must be called holding the lock.
+     *
+     * @param projection The projection to apply the events to.
+     * @param toSequence The sequence number of the last event to apply.
+     * @return The projection.
+     */
+    private Projection fold(Projection projection, long toSequence) {
+        for (long sequence = projection.getSequence() + 1; sequence <= toSequence; sequence++) {
+            projection.apply(sequence, events.get((int) sequence - 1));
+        }
+
+        return projection;
+    }
+}
@@ -0,0 +1,23 @@
+package com.hjss.eventlog;
+
+import java.time.Instant;
+
+/**
+ * The LogEvent interface represents a fact appended to the {@link EventLog}.
+ * Events refer to learners, lessons, coaches and bookings by ID, so the log can be replayed without the live objects.
+ */
+public sealed interface LogEvent permits BookingCreated, BookingChanged, BookingCancelled, BookingAttended, ReviewSubmitted {
+    /**
+     * Gets the ID of the booking the event is about.
+     *
+     * @return The booking ID.
+     */
+    int bookingId();
+
+    /**
+     * Gets the time the event happened.
+     *
+     * @return The event time.
+     */
+    Instant time();
+}
@@ -0,0 +1,210 @@
+package com.hjss.eventlog;
+
+import com.hjss.enums.Grade;
+import com.hjss.model.CoachSummary;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The Projection class is the booking state folded from the events of an {@link EventLog}: every booking, the number
+ * of seats taken in each lesson, the grade of each learner who attended a lesson and the ratings of each coach.
+ *
+ * <p>
+ * Projections of disjoint sets of bookings can be merged, which is how the log is replayed in parallel.
+ * The class is not thread safe, a projection is built by a single thread and only read afterwards.
+ * </p>
+ */
+public class Projection {
+    private final Map<Integer, BookingState> bookings;
+
+    /**
+     * Seats taken by active bookings, keyed by lesson ID.
+     */
+    private final Map<Integer, Integer> lessonSizes;
+
+    /**
+     * Grade of each learner who attended a lesson, keyed by learner ID, with the sequence that set it.
+     */
+    private final Map<Integer, GradeChange> grades;
+
+    private final Map<Integer, CoachSummary> coaches;
+
+    /**
+     * Sequence number of the last event applied.
+     */
+    private long sequence;
+
+    /**
+     * Constructs an empty Projection, the state before the first event.
+     */
+    public Projection() {
+        this(new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>(), 0);
+    }
+
+    /**
+     * Constructs a Projection over the given state.
+     *
+     * @param bookings    The bookings keyed by ID.
+     * @param lessonSizes The lesson sizes keyed by lesson ID.
+     * @param grades      The learner grades keyed by learner ID.
+     * @param coaches     The coach ratings keyed by coach ID.
+     * @param sequence    The sequence number of the last event applied.
+     */
+    private Projection(Map<Integer, BookingState> bookings, Map<Integer, Integer> lessonSizes,
+                       Map<Integer, GradeChange> grades, Map<Integer, CoachSummary> coaches, long sequence) {
+        this.bookings = bookings;
+        this.lessonSizes = lessonSizes;
+        this.grades = grades;
+        this.coaches = coaches;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Applies an event to the state.
+     *
+     * @param eventSequence The sequence number of the event in the log.
+     * @param event         The event.
+     */
+    public void apply(long eventSequence, LogEvent event) {
+        switch (event) {
+            case BookingCreated created -> {
+                bookings.put(created.bookingId(),
+                        new BookingState(created.bookingId(), created.learnerId(), created.lessonId(), false, false));
+                lessonSizes.merge(created.lessonId(), 1, Integer::sum);
+            }
+            case BookingChanged changed -> {
+                BookingState booking = bookings.get(changed.bookingId());
+                if (booking != null) {
+                    lessonSizes.merge(booking.lessonId(), -1, Integer::sum);
+                    lessonSizes.merge(changed.lessonId(), 1, Integer::sum);
+                    bookings.put(booking.bookingId(), new BookingState(booking.bookingId(), booking.learnerId(),
+                            changed.lessonId(), booking.cancelled(), booking.attended()));
+                }
+            }
+            case BookingCancelled cancelled -> {
+                BookingState booking = bookings.get(cancelled.bookingId());
+                if (booking != null && !booking.cancelled()) {
+                    lessonSizes.merge(booking.lessonId(), -1, Integer::sum);
+                    bookings.put(booking.bookingId(), new BookingState(booking.bookingId(), booking.learnerId(),
+                            booking.lessonId(), true, booking.attended()));
+                }
+            }
+            case BookingAttended attended -> {
+                BookingState booking = bookings.get(attended.bookingId());
+                if (booking != null) {
+                    bookings.put(booking.bookingId(), new BookingState(booking.bookingId(), booking.learnerId(),
+                            booking.lessonId(), booking.cancelled(), true));
+                }
+                grades.put(attended.learnerId(), new GradeChange(eventSequence, attended.grade()));
+            }
+            case ReviewSubmitted review -> {
+                CoachSummary coach = coaches.getOrDefault(review.coachId(), CoachSummary.empty(review.coachId()));
+                coaches.put(review.coachId(), new CoachSummary(review.coachId(), coach.reviews() + 1,
+                        coach.ratingTotal() + review.rating().getValue()));
+            }
+        }
+
+        sequence = Math.max(sequence, eventSequence);
+    }
+
+    /**
+     * Merges the projection of a disjoint set of bookings into this one.
+     * Lesson sizes and ratings are added up, and the latest grade of each learner wins.
+     *
+     * @param other The projection to merge.
+     * @return This projection.
+     */
+    public Projection merge(Projection other) {
+        bookings.putAll(other.bookings);
+        other.lessonSizes.forEach((lesson, size) -> lessonSizes.merge(lesson, size, Integer::sum));
+        other.grades.forEach((learner, grade) -> grades.merge(learner, grade,
+                (mine, theirs) -> mine.sequence() > theirs.sequence() ? mine : theirs));
+        other.coaches.forEach((coachId, coach) -> coaches.merge(coachId, coach,
+                (mine, theirs) -> new CoachSummary(coachId, mine.reviews() + theirs.reviews(),
+                        mine.ratingTotal() + theirs.ratingTotal())));
+        sequence = Math.max(sequence, other.sequence);
+
+        return this;
+    }
+
+    /**
+     * Copies the projection, so it can be kept as a snapshot while the copy moves on.
+     *
+     * @return An independent copy of the state.
+     */
+    public Projection copy() {
+        return new Projection(new HashMap<>(bookings), new HashMap<>(lessonSizes), new HashMap<>(grades),
+                new HashMap<>(coaches), sequence);
+    }
+
+    /**
+     * Retrieves the state of a booking.
+     *
+     * @param bookingId The ID of the booking.
+     * @return The booking state, or null if the booking was never created.
+     */
+    public BookingState getBooking(int bookingId) {
+        return bookings.get(bookingId);
+    }
+
+    /**
+     * Retrieves the state of every booking.
+     *
+     * @return The booking states.
+     */
+    public Collection<BookingState> getBookings() {
+        return Collections.unmodifiableCollection(bookings.values());
+    }
+
+    /**
+     * Retrieves the number of seats taken by active bookings of a lesson.
+     *
+     * @param lessonId The ID of the lesson.
+     * @return The lesson size.
+     */
+    public int getLessonSize(int lessonId) {
+        return lessonSizes.getOrDefault(lessonId, 0);
+    }
+
+    /**
+     * Retrieves the grade a learner reached by attending lessons.
+     *
+     * @param learnerId The ID of the learner.
+     * @return The grade of the last lesson attended, or null if the learner never attended one.
+     */
+    public Grade getLearnerGrade(int learnerId) {
+        GradeChange grade = grades.get(learnerId);
+        return grade == null ? null : grade.grade();
+    }
+
+    /**
+     * Retrieves the ratings of a coach.
+     *
+     * @param coachId The ID of the coach.
+     * @return The coach's rating summary.
+     */
+    public CoachSummary getCoach(int coachId) {
+        return coaches.getOrDefault(coachId, CoachSummary.empty(coachId));
+    }
+
+    /**
+     * Retrieves the sequence number of the last event applied.
+     *
+     * @return The sequence number, 0 if no event was applied.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * A learner grade and the sequence number of the event that set it.
+     *
+     * @param sequence The sequence number.
+     * @param grade    The grade.
+     */
+    private record GradeChange(long sequence, Grade grade) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.hjss.eventlog;
+
+import com.hjss.enums.Rating;
+
+import java.time.Instant;
+
+/**
+ * A learner reviewed an attended lesson.
+ *
+ * @param reviewId  The ID of the review.
+ * @param bookingId The ID of the reviewed booking.
+ * @param coachId   The ID of the coach of the lesson.
+ * @param rating    The rating given.
+ * @param feedback  The feedback given.
+ * @param time      The time the review was submitted.
+ */
+public record ReviewSubmitted(int reviewId, int bookingId, int coachId, Rating rating, String feedback, Instant time) implements LogEvent {
+}
@@ -1,7 +1,20 @@
 package com.hjss.exceptions;
 
 public class DuplicateBookingException extends Exception {
+    /**
+     * Shared instance without a stack trace, thrown on the hot booking path where the trace is never used.
+     */
+    public static final DuplicateBookingException STACKLESS = new DuplicateBookingException(false);
+
     public DuplicateBookingException() {
         super("A Duplicate Booking Exist");
     }
+
+    private DuplicateBookingException(boolean writableStackTrace) {
+        this("A Duplicate Booking Exist", writableStackTrace);
+    }
+
+    protected DuplicateBookingException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
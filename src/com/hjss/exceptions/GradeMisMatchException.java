@@ -1,7 +1,16 @@
 package com.hjss.exceptions;
 
 public class GradeMisMatchException extends Exception{
+    /**
+     * Shared instance without a stack trace, thrown on the hot booking path where the trace is never used.
+     */
+    public static final GradeMisMatchException STACKLESS = new GradeMisMatchException(false);
+
     public GradeMisMatchException() {
         super("Lesson grade must match Learner's grade or one step higher");
     }
+
+    private GradeMisMatchException(boolean writableStackTrace) {
+        super("Lesson grade must match Learner's grade or one step higher", null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,7 @@
+package com.hjss.exceptions;
+
+public class HoldExpiredException extends Exception {
+    public HoldExpiredException() {
+        super("This seat hold has expired or was released");
+    }
+}
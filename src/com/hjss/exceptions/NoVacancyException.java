@@ -1,7 +1,16 @@
 package com.hjss.exceptions;
 
 public class NoVacancyException extends Exception {
+    /**
+     * Shared instance without a stack trace, thrown on the hot booking path where the trace is never used.
+     */
+    public static final NoVacancyException STACKLESS = new NoVacancyException(false);
+
     public NoVacancyException() {
         super("No Vacancy");
     }
+
+    private NoVacancyException(boolean writableStackTrace) {
+        super("No Vacancy", null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,30 @@
+package com.hjss.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the booking engine sheds a request because too many requests for the same lessons are in flight.
+ * It is unchecked, like {@link java.util.concurrent.RejectedExecutionException}, because any booking operation can be
+ * shed and the caller's only remedy is to retry later.
+ */
+public class OverloadedException extends RuntimeException {
+    /**
+     * How long the caller should wait before retrying.
+     */
+    private final Duration retryAfter;
+
+    public OverloadedException(Duration retryAfter) {
+        // Shed requests are frequent during a rush, so no stack trace is filled
+        super("The booking engine is busy, please retry in " + retryAfter.toMillis() + "ms", null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Retrieves how long the caller should wait before retrying.
+     *
+     * @return The retry-after hint.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hjss.exceptions;
+
+/**
+ * Thrown when a learner books a lesson at the same week, day and time as a lesson they already booked.
+ * A clash is a duplicate booking of the learner's time, so it is caught wherever duplicate bookings are.
+ */
+public class TimeSlotClashException extends DuplicateBookingException {
+    /**
+     * Shared instance without a stack trace, thrown on the hot booking path where the trace is never used.
+     */
+    public static final TimeSlotClashException STACKLESS = new TimeSlotClashException(false);
+
+    public TimeSlotClashException() {
+        this(true);
+    }
+
+    private TimeSlotClashException(boolean writableStackTrace) {
+        super("Learner already has a lesson at this time", writableStackTrace);
+    }
+}
@@ -0,0 +1,67 @@
+package com.hjss.jfr;
+
+import com.hjss.enums.Operation;
+import com.hjss.model.Learner;
+import com.hjss.model.Lesson;
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted for every booking create, change, cancel and attend.
+ *
+ * <p>
+ * Only operations slower than the threshold are committed (1 ms unless overridden by the recording settings),
+ * and stack traces are off, so the event can stay enabled in a continuous recording.
+ * When the event is disabled, begin and commit are no-ops and the fields are never filled in.
+ * </p>
+ */
+@Name("com.hjss.BookingOperation")
+@Label("Booking Operation")
+@Category({"HJSS", "Booking"})
+@Description("A booking engine operation and its outcome")
+@Threshold("1 ms")
+@StackTrace(false)
+public class BookingOperationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Lesson ID")
+    int lessonId;
+
+    @Label("Learner ID")
+    int learnerId;
+
+    @Label("Outcome")
+    @Description("SUCCESS, or the simple name of the exception the operation was rejected with")
+    String outcome;
+
+    /**
+     * Creates the event and starts timing it.
+     *
+     * @return The started event.
+     */
+    public static BookingOperationEvent start() {
+        BookingOperationEvent event = new BookingOperationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing the event and commits it if it is enabled and over the threshold.
+     *
+     * @param operation The operation that ran.
+     * @param learner   The learner of the booking.
+     * @param lesson    The lesson booked, or the new lesson of a change.
+     * @param failure   The exception the operation was rejected with, or null on success.
+     */
+    public void complete(Operation operation, Learner learner, Lesson lesson, Exception failure) {
+        end();
+
+        if (shouldCommit()) {
+            this.operation = operation.name();
+            this.lessonId = lesson == null ? 0 : lesson.getId();
+            this.learnerId = learner == null ? 0 : learner.getId();
+            this.outcome = Outcomes.of(failure);
+            commit();
+        }
+    }
+}
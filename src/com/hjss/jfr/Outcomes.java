@@ -0,0 +1,21 @@
+package com.hjss.jfr;
+
+/**
+ * Maps operation results to the outcome recorded in Flight Recorder events.
+ */
+final class Outcomes {
+    static final String SUCCESS = "SUCCESS";
+
+    private Outcomes() {
+    }
+
+    /**
+     * Describes the outcome of an operation.
+     *
+     * @param failure The exception the operation failed with, or null on success.
+     * @return SUCCESS, or the simple name of the exception.
+     */
+    static String of(Exception failure) {
+        return failure == null ? SUCCESS : failure.getClass().getSimpleName();
+    }
+}
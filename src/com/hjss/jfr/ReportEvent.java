@@ -0,0 +1,56 @@
+package com.hjss.jfr;
+
+import com.hjss.enums.Operation;
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted for every learner or coach report run.
+ * Only runs slower than the threshold are committed (10 ms unless overridden by the recording settings).
+ */
+@Name("com.hjss.Report")
+@Label("Report")
+@Category({"HJSS", "Reports"})
+@Description("A monthly learner or coach report run")
+@Threshold("10 ms")
+@StackTrace(false)
+public class ReportEvent extends Event {
+    @Label("Report")
+    String report;
+
+    @Label("Month")
+    @Description("School month the report covers, starting from 1")
+    int month;
+
+    @Label("Rows")
+    @Description("Number of learners or coaches in the report")
+    int rows;
+
+    /**
+     * Creates the event and starts timing it.
+     *
+     * @return The started event.
+     */
+    public static ReportEvent start() {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing the event and commits it if it is enabled and over the threshold.
+     *
+     * @param report The report that ran.
+     * @param month  The month the report covers.
+     * @param rows   The number of learners or coaches in the report.
+     */
+    public void complete(Operation report, int month, int rows) {
+        end();
+
+        if (shouldCommit()) {
+            this.report = report.name();
+            this.month = month;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
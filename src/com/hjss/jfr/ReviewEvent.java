@@ -0,0 +1,57 @@
+package com.hjss.jfr;
+
+import com.hjss.model.Review;
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted when a review is stored.
+ * Only reviews slower than the threshold are committed (1 ms unless overridden by the recording settings).
+ */
+@Name("com.hjss.Review")
+@Label("Review")
+@Category({"HJSS", "Booking"})
+@Description("A lesson review being stored")
+@Threshold("1 ms")
+@StackTrace(false)
+public class ReviewEvent extends Event {
+    @Label("Lesson ID")
+    int lessonId;
+
+    @Label("Learner ID")
+    int learnerId;
+
+    @Label("Rating")
+    int rating;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Creates the event and starts timing it.
+     *
+     * @return The started event.
+     */
+    public static ReviewEvent start() {
+        ReviewEvent event = new ReviewEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing the event and commits it if it is enabled and over the threshold.
+     *
+     * @param review  The review being stored.
+     * @param failure The exception the review failed with, or null on success.
+     */
+    public void complete(Review review, Exception failure) {
+        end();
+
+        if (shouldCommit()) {
+            this.lessonId = review.getBooking().getLesson().getId();
+            this.learnerId = review.getBooking().getLearner().getId();
+            this.rating = review.getRating().getValue();
+            this.outcome = Outcomes.of(failure);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.hjss.management;
+
+import com.hjss.repository.AdmissionControl;
+
+/**
+ * The AdmissionStats class exposes the queue depth and shed counts of the booking admission control over JMX.
+ */
+public class AdmissionStats implements AdmissionStatsMXBean {
+    private final AdmissionControl admission;
+
+    /**
+     * Constructs an AdmissionStats for the given admission control.
+     *
+     * @param admission The admission control of the booking engine.
+     */
+    public AdmissionStats(AdmissionControl admission) {
+        this.admission = admission;
+    }
+
+    /**
+     * Retrieves the number of booking requests waiting for a permit.
+     *
+     * @return The queue depth.
+     */
+    @Override
+    public int getQueueDepth() {
+        return admission.getQueueDepth();
+    }
+
+    /**
+     * Retrieves the number of admitted booking requests still running.
+     *
+     * @return The number of requests in flight.
+     */
+    @Override
+    public long getInFlight() {
+        return admission.getInFlight();
+    }
+
+    /**
+     * Retrieves the number of admitted booking requests since the application started.
+     *
+     * @return The admitted count.
+     */
+    @Override
+    public long getAdmittedCount() {
+        return admission.getAdmittedCount();
+    }
+
+    /**
+     * Retrieves the number of shed booking requests since the application started.
+     *
+     * @return The shed count.
+     */
+    @Override
+    public long getShedCount() {
+        return admission.getShedCount();
+    }
+}
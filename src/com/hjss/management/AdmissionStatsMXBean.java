@@ -0,0 +1,34 @@
+package com.hjss.management;
+
+/**
+ * Management interface exposing the admission control of the booking engine.
+ */
+public interface AdmissionStatsMXBean {
+    /**
+     * Retrieves the number of booking requests waiting for a permit.
+     *
+     * @return The queue depth.
+     */
+    int getQueueDepth();
+
+    /**
+     * Retrieves the number of admitted booking requests still running.
+     *
+     * @return The number of requests in flight.
+     */
+    long getInFlight();
+
+    /**
+     * Retrieves the number of admitted booking requests since the application started.
+     *
+     * @return The admitted count.
+     */
+    long getAdmittedCount();
+
+    /**
+     * Retrieves the number of shed booking requests since the application started.
+     *
+     * @return The shed count.
+     */
+    long getShedCount();
+}
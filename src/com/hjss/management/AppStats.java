@@ -0,0 +1,49 @@
+package com.hjss.management;
+
+import com.hjss.App;
+
+/**
+ * The AppStats class exposes the state of the running {@link App} over JMX.
+ */
+public class AppStats implements AppStatsMXBean {
+    private final App app;
+
+    /**
+     * Constructs an AppStats for the given application.
+     *
+     * @param app The application to expose.
+     */
+    public AppStats(App app) {
+        this.app = app;
+    }
+
+    /**
+     * Retrieves the name of the application.
+     *
+     * @return The application name.
+     */
+    @Override
+    public String getName() {
+        return app.getName();
+    }
+
+    /**
+     * Retrieves the number of learners currently logged in.
+     *
+     * @return The current session count.
+     */
+    @Override
+    public int getActiveSessions() {
+        return app.getActiveSessionCount();
+    }
+
+    /**
+     * Retrieves the number of logins since the application started.
+     *
+     * @return The login count.
+     */
+    @Override
+    public long getTotalLogins() {
+        return app.getLoginCount();
+    }
+}
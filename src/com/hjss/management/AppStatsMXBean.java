@@ -0,0 +1,27 @@
+package com.hjss.management;
+
+/**
+ * Management interface exposing the state of the running application.
+ */
+public interface AppStatsMXBean {
+    /**
+     * Retrieves the name of the application.
+     *
+     * @return The application name.
+     */
+    String getName();
+
+    /**
+     * Retrieves the number of learners currently logged in.
+     *
+     * @return The current session count.
+     */
+    int getActiveSessions();
+
+    /**
+     * Retrieves the number of logins since the application started.
+     *
+     * @return The login count.
+     */
+    long getTotalLogins();
+}
@@ -0,0 +1,176 @@
+package com.hjss.management;
+
+import com.hjss.enums.Operation;
+import com.hjss.metrics.Metrics;
+import com.hjss.model.Lesson;
+import com.hjss.repository.BookingRepository;
+import com.hjss.repository.LessonRepository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * The BookingEngineStats class exposes the live state of the booking engine over JMX.
+ *
+ * <p>
+ * Every attribute is read from counters maintained by the repositories and the booking {@link Metrics},
+ * so reading them never scans the lessons or bookings.
+ * Rates are computed over the interval since the previous reading, and kept for at least a second
+ * so that tools polling quickly still see meaningful values.
+ * </p>
+ */
+public class BookingEngineStats implements BookingEngineStatsMXBean {
+    /**
+     * Maximum number of learners in a lesson.
+     */
+    private static final int SEATS = 4;
+
+    private static final long MIN_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final LessonRepository lessonRepository;
+
+    private final BookingRepository bookingRepository;
+
+    private final Metrics metrics;
+
+    private final Rates operationRates = new Rates();
+
+    private final Rates rejectionRates = new Rates();
+
+    /**
+     * Constructs a BookingEngineStats for the given repositories.
+     *
+     * @param lessonRepository  The repository holding the lessons.
+     * @param bookingRepository The repository holding the bookings and their metrics.
+     */
+    public BookingEngineStats(LessonRepository lessonRepository, BookingRepository bookingRepository) {
+        this.lessonRepository = lessonRepository;
+        this.bookingRepository = bookingRepository;
+        this.metrics = bookingRepository.getMetrics();
+    }
+
+    /**
+     * Retrieves the number of lesson seats taken by bookings that are not cancelled.
+     *
+     * @return The booked seat count.
+     */
+    @Override
+    public int getBookedSeats() {
+        return bookingRepository.getBookedSeats();
+    }
+
+    /**
+     * Retrieves the number of seats across all lessons.
+     *
+     * @return The seat capacity.
+     */
+    @Override
+    public int getCapacity() {
+        return lessonRepository.read().size() * SEATS;
+    }
+
+    /**
+     * Retrieves the fraction of all lesson seats that are booked.
+     *
+     * @return The fill ratio, between 0 and 1.
+     */
+    @Override
+    public double getFillRatio() {
+        int capacity = getCapacity();
+        return capacity == 0 ? 0 : (double) getBookedSeats() / capacity;
+    }
+
+    /**
+     * Retrieves the fraction of a lesson's seats that are booked.
+     *
+     * @param lessonId The lesson ID.
+     * @return The fill ratio between 0 and 1, or -1 if the lesson does not exist.
+     */
+    @Override
+    public double getLessonFillRatio(int lessonId) {
+        Lesson lesson = lessonRepository.readById(lessonId);
+        return lesson == null ? -1 : (double) lesson.getSize() / SEATS;
+    }
+
+    /**
+     * Retrieves how many times each operation has run.
+     *
+     * @return The operation counts keyed by operation name.
+     */
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            counts.put(operation.name(), metrics.getCount(operation));
+        }
+        return counts;
+    }
+
+    /**
+     * Retrieves how many times per second each operation ran since the previous reading.
+     *
+     * @return The operation rates keyed by operation name.
+     */
+    @Override
+    public Map<String, Double> getOperationRates() {
+        return operationRates.update(metrics::getCount);
+    }
+
+    /**
+     * Retrieves how many operations each exception type has rejected.
+     *
+     * @return The rejection counts keyed by exception name.
+     */
+    @Override
+    public Map<String, Long> getRejectionCounts() {
+        return metrics.getRejections();
+    }
+
+    /**
+     * Retrieves how many times per second each operation was rejected since the previous reading.
+     *
+     * @return The rejection rates keyed by operation name.
+     */
+    @Override
+    public Map<String, Double> getRejectionRates() {
+        return rejectionRates.update(metrics::getRejected);
+    }
+
+    /**
+     * Per-operation rates computed from the counter values of the previous reading.
+     */
+    private static final class Rates {
+        private final long[] last = new long[Operation.values().length];
+
+        private final double[] rates = new double[Operation.values().length];
+
+        private long lastNanos = System.nanoTime();
+
+        /**
+         * Recomputes the rates if at least a second has passed since the last update.
+         *
+         * @param counter Reads the current counter value of an operation.
+         * @return The rates keyed by operation name.
+         */
+        synchronized Map<String, Double> update(ToLongFunction<Operation> counter) {
+            long now = System.nanoTime();
+            long elapsed = now - lastNanos;
+
+            if (elapsed >= MIN_INTERVAL_NANOS) {
+                for (Operation operation : Operation.values()) {
+                    long count = counter.applyAsLong(operation);
+                    rates[operation.ordinal()] = (count - last[operation.ordinal()]) * 1e9 / elapsed;
+                    last[operation.ordinal()] = count;
+                }
+                lastNanos = now;
+            }
+
+            Map<String, Double> result = new LinkedHashMap<>();
+            for (Operation operation : Operation.values()) {
+                result.put(operation.name(), rates[operation.ordinal()]);
+            }
+            return result;
+        }
+    }
+}
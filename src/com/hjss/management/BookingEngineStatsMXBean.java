@@ -0,0 +1,65 @@
+package com.hjss.management;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing the live state of the booking engine.
+ */
+public interface BookingEngineStatsMXBean {
+    /**
+     * Retrieves the number of lesson seats taken by bookings that are not cancelled.
+     *
+     * @return The booked seat count.
+     */
+    int getBookedSeats();
+
+    /**
+     * Retrieves the number of seats across all lessons.
+     *
+     * @return The seat capacity.
+     */
+    int getCapacity();
+
+    /**
+     * Retrieves the fraction of all lesson seats that are booked.
+     *
+     * @return The fill ratio, between 0 and 1.
+     */
+    double getFillRatio();
+
+    /**
+     * Retrieves the fraction of a lesson's seats that are booked.
+     *
+     * @param lessonId The lesson ID.
+     * @return The fill ratio between 0 and 1, or -1 if the lesson does not exist.
+     */
+    double getLessonFillRatio(int lessonId);
+
+    /**
+     * Retrieves how many times each operation has run.
+     *
+     * @return The operation counts keyed by operation name.
+     */
+    Map<String, Long> getOperationCounts();
+
+    /**
+     * Retrieves how many times per second each operation ran since the previous reading.
+     *
+     * @return The operation rates keyed by operation name.
+     */
+    Map<String, Double> getOperationRates();
+
+    /**
+     * Retrieves how many operations each exception type has rejected.
+     *
+     * @return The rejection counts keyed by exception name.
+     */
+    Map<String, Long> getRejectionCounts();
+
+    /**
+     * Retrieves how many times per second each operation was rejected since the previous reading.
+     *
+     * @return The rejection rates keyed by operation name.
+     */
+    Map<String, Double> getRejectionRates();
+}
@@ -0,0 +1,30 @@
+package com.hjss.management;
+
+import java.util.function.IntSupplier;
+
+/**
+ * The RepositoryStats class exposes the size of a repository over JMX.
+ * The size is read from a count the repository maintains, so no entity is visited or copied.
+ */
+public class RepositoryStats implements RepositoryStatsMXBean {
+    private final IntSupplier size;
+
+    /**
+     * Constructs a RepositoryStats reading the repository size from the given supplier.
+     *
+     * @param size Supplies the current repository size.
+     */
+    public RepositoryStats(IntSupplier size) {
+        this.size = size;
+    }
+
+    /**
+     * Retrieves the number of entities stored in the repository.
+     *
+     * @return The repository size.
+     */
+    @Override
+    public int getSize() {
+        return size.getAsInt();
+    }
+}
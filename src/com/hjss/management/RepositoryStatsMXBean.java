@@ -0,0 +1,13 @@
+package com.hjss.management;
+
+/**
+ * Management interface exposing the size of one application repository.
+ */
+public interface RepositoryStatsMXBean {
+    /**
+     * Retrieves the number of entities stored in the repository.
+     *
+     * @return The repository size.
+     */
+    int getSize();
+}
@@ -0,0 +1,77 @@
+package com.hjss.management;
+
+import com.hjss.App;
+import com.hjss.repository.*;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * The SchoolMBeans class registers the application MBeans with the platform MBean server,
+ * so the running school can be inspected with standard JMX tools such as JConsole or VisualVM.
+ *
+ * <p>
+ * MBeans are registered under the {@code com.hjss} domain:
+ * <ul>
+ *     <li>{@code com.hjss:type=App} - application name and sessions.</li>
+ *     <li>{@code com.hjss:type=BookingEngine} - booked seats, fill ratios, operation and rejection rates.</li>
+ *     <li>{@code com.hjss:type=Admission} - booking requests in flight, queued and shed.</li>
+ *     <li>{@code com.hjss:type=Repository,name=...} - the size of each repository.</li>
+ * </ul>
+ * </p>
+ */
+public class SchoolMBeans {
+    private static final String DOMAIN = "com.hjss";
+
+    /**
+     * Prevents instantiation; the class only holds the registration logic.
+     */
+    private SchoolMBeans() {
+    }
+
+    /**
+     * Registers the MBeans of an application and its repositories.
+     * MBeans that are already registered, e.g. by an earlier application instance, are replaced.
+     *
+     * @param app               The application.
+     * @param learnerRepository The learner repository.
+     * @param coachRepository   The coach repository.
+     * @param lessonRepository  The lesson repository.
+     * @param bookingRepository The booking repository.
+     * @param reviewRepository  The review repository.
+     * @throws JMException If an MBean cannot be registered.
+     */
+    public static void register(App app, LearnerRepository learnerRepository, CoachRepository coachRepository,
+                                LessonRepository lessonRepository, BookingRepository bookingRepository,
+                                ReviewRepository reviewRepository) throws JMException {
+        register("type=App", new AppStats(app));
+        register("type=BookingEngine", new BookingEngineStats(lessonRepository, bookingRepository));
+        register("type=Admission", new AdmissionStats(bookingRepository.getAdmission()));
+
+        register("type=Repository,name=Learners", new RepositoryStats(() -> learnerRepository.read().size()));
+        register("type=Repository,name=Coaches", new RepositoryStats(() -> coachRepository.read().size()));
+        register("type=Repository,name=Lessons", new RepositoryStats(() -> lessonRepository.read().size()));
+        register("type=Repository,name=Bookings", new RepositoryStats(bookingRepository::getSize));
+        register("type=Repository,name=Reviews", new RepositoryStats(reviewRepository::getSize));
+    }
+
+    /**
+     * Registers one MBean, replacing any MBean already registered under the same name.
+     *
+     * @param properties The key properties of the MBean name.
+     * @param mbean      The MBean.
+     * @throws JMException If the MBean cannot be registered.
+     */
+    private static void register(String properties, Object mbean) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+
+        server.registerMBean(mbean, name);
+    }
+}
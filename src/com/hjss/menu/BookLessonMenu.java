@@ -15,6 +15,8 @@ public class BookLessonMenu extends Menu {
         System.out.println("[1]: By Day");
         System.out.println("[2]: By Coach");
         System.out.println("[3]: By Grade");
+        System.out.println("[4]: Lessons I Can Book");
+        System.out.println("[5]: Search By Day, Grade And Coach");
     }
 
     /**
@@ -25,6 +27,6 @@ public class BookLessonMenu extends Menu {
      */
     @Override
     protected boolean isValidOption(int input) {
-        return input >= 1 && input <= 3;
+        return input >= 1 && input <= 5;
     }
 }
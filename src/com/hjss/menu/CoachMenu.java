@@ -11,8 +11,19 @@ import java.util.Set;
 public class CoachMenu extends Menu {
     private final List<Coach> coaches;
     private final Set<Integer> coachIds;
+    private final boolean anyOption; // Whether the user may skip the choice
 
     public CoachMenu() {
+        this(false);
+    }
+
+    /**
+     * Constructs a menu of the app's coaches that may offer to skip the choice.
+     *
+     * @param anyOption True to offer [0]: Any.
+     */
+    public CoachMenu(boolean anyOption) {
+        this.anyOption = anyOption;
         App app = App.getInstance();
         coaches = app.getAppCoaches();
 
@@ -31,6 +42,7 @@ public class CoachMenu extends Menu {
     protected void print() {
         System.out.println();
         System.out.println("************** Choose Coach **************");
+        if (anyOption) System.out.println("[00]: Any");
         for (Coach coach : coaches) {
             System.out.println("[" + App.padToTwoDigits(coach.getId()) + "]: " + coach.getName());
         }
@@ -44,6 +56,6 @@ public class CoachMenu extends Menu {
      */
     @Override
     protected boolean isValidOption(int input) {
-        return coachIds.contains(input);
+        return (anyOption && input == 0) || coachIds.contains(input);
     }
 }
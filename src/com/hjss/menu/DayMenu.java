@@ -4,6 +4,24 @@ package com.hjss.menu;
  * Menu to choose how the user views the timetable by day
  */
 public class DayMenu extends Menu{
+    private final boolean anyOption; // Whether the user may skip the choice
+
+    /**
+     * Constructs a menu the user must choose from.
+     */
+    public DayMenu() {
+        this(false);
+    }
+
+    /**
+     * Constructs a menu that may offer to skip the choice.
+     *
+     * @param anyOption True to offer [0]: Any.
+     */
+    public DayMenu(boolean anyOption) {
+        this.anyOption = anyOption;
+    }
+
     /**
      * Displays the options to the user.
      */
@@ -11,6 +29,7 @@ public class DayMenu extends Menu{
     protected void print() {
         System.out.println();
         System.out.println("************** Choose Day **************");
+        if (anyOption) System.out.println("[0]: Any");
         System.out.println("[1]: Monday");
         System.out.println("[2]: Wednesday");
         System.out.println("[3]: Friday");
@@ -25,6 +44,6 @@ public class DayMenu extends Menu{
      */
     @Override
     protected boolean isValidOption(int input) {
-        return input >= 1 && input <= 4;
+        return (anyOption && input == 0) || (input >= 1 && input <= 4);
     }
 }
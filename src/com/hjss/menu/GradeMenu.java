@@ -4,6 +4,24 @@ package com.hjss.menu;
  * Menu to choose grade
  */
 public class GradeMenu extends Menu{
+    private final boolean anyOption; // Whether the user may skip the choice
+
+    /**
+     * Constructs a menu the user must choose from.
+     */
+    public GradeMenu() {
+        this(false);
+    }
+
+    /**
+     * Constructs a menu that may offer to skip the choice.
+     *
+     * @param anyOption True to offer [0]: Any.
+     */
+    public GradeMenu(boolean anyOption) {
+        this.anyOption = anyOption;
+    }
+
     /**
      * Displays the options to the user.
      */
@@ -11,6 +29,7 @@ public class GradeMenu extends Menu{
     protected void print() {
         System.out.println();
         System.out.println("************** Choose Grade **************");
+        if (anyOption) System.out.println("[0]: Any");
         System.out.println("[1]: One");
         System.out.println("[2]: Two");
         System.out.println("[3]: Three");
@@ -26,6 +45,6 @@ public class GradeMenu extends Menu{
      */
     @Override
     protected boolean isValidOption(int input) {
-        return input >= 1 && input <= 5;
+        return (anyOption && input == 0) || (input >= 1 && input <= 5);
     }
 }
@@ -17,6 +17,7 @@ public class MainMenu extends Menu {
         System.out.println("[4]: Monthly learner report");
         System.out.println("[5]: Monthly coach report");
         System.out.println("[6]: Register a new learner");
+        System.out.println("[7]: Mark a lesson attended");
         System.out.println("[0]: Exit");
     }
 
@@ -28,6 +29,6 @@ public class MainMenu extends Menu {
      */
     @Override
     protected boolean isValidOption(int input) {
-        return input >= 0 && input <= 6;
+        return input >= 0 && input <= 7;
     }
 }
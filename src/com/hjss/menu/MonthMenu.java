@@ -0,0 +1,44 @@
+package com.hjss.menu;
+
+import com.hjss.util.WeekPartitions;
+
+/**
+ * Menu to choose the school month a report is run for
+ */
+public class MonthMenu extends Menu {
+    private final int months; // Number of months with lessons
+
+    /**
+     * Constructs a MonthMenu offering every month up to the given one.
+     *
+     * @param months The number of months with lessons, at least 1.
+     */
+    public MonthMenu(int months) {
+        this.months = Math.max(1, months);
+    }
+
+    /**
+     * Displays the options to the user.
+     */
+    @Override
+    protected void print() {
+        System.out.println();
+        System.out.println("************** Choose Month **************");
+        for (int month = 1; month <= months; month++) {
+            int firstWeek = WeekPartitions.firstWeekOf(month);
+            int lastWeek = WeekPartitions.firstWeekOf(month + 1) - 1;
+            System.out.println("[" + month + "]: Month " + month + " (weeks " + firstWeek + "-" + lastWeek + ")");
+        }
+    }
+
+    /**
+     * Checks if the input is a valid option.
+     *
+     * @param input The input to validate.
+     * @return True if the input is valid, otherwise false.
+     */
+    @Override
+    protected boolean isValidOption(int input) {
+        return input >= 1 && input <= months;
+    }
+}
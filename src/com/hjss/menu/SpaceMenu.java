@@ -0,0 +1,28 @@
+package com.hjss.menu;
+
+/**
+ * Menu to choose whether a search only returns lessons with space
+ */
+public class SpaceMenu extends Menu {
+    /**
+     * Displays the options to the user.
+     */
+    @Override
+    protected void print() {
+        System.out.println();
+        System.out.println("************** Choose Space **************");
+        System.out.println("[1]: Only lessons with space");
+        System.out.println("[2]: All lessons");
+    }
+
+    /**
+     * Checks if the input is a valid option.
+     *
+     * @param input The input to validate.
+     * @return True if the input is valid, otherwise false.
+     */
+    @Override
+    protected boolean isValidOption(int input) {
+        return input >= 1 && input <= 2;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hjss.menu;
+
+/**
+ * Menu to choose to join the waitlist of a full lesson, to be notified when it frees up, or to choose another lesson
+ */
+public class WaitlistMenu extends Menu {
+    /**
+     * Displays the options to the user.
+     */
+    @Override
+    protected void print() {
+        System.out.println();
+        System.out.println("************** Lesson Is Full **************");
+        System.out.println("[1]: Join Waitlist");
+        System.out.println("[2]: Choose Another Lesson");
+        System.out.println("[3]: Notify Me When A Seat Frees Up");
+    }
+
+    /**
+     * Checks if the input is a valid option.
+     *
+     * @param input The input to validate.
+     * @return True if the input is valid, otherwise false.
+     */
+    @Override
+    protected boolean isValidOption(int input) {
+        return input >= 1 && input <= 3;
+    }
+}
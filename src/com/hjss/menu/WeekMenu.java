@@ -0,0 +1,39 @@
+package com.hjss.menu;
+
+/**
+ * Menu to choose the week lessons are searched in
+ */
+public class WeekMenu extends Menu {
+    private final int weeks; // Number of weeks with lessons
+
+    /**
+     * Constructs a WeekMenu offering every week up to the given one, or any week.
+     *
+     * @param weeks The number of weeks with lessons.
+     */
+    public WeekMenu(int weeks) {
+        this.weeks = Math.max(0, weeks);
+    }
+
+    /**
+     * Displays the options to the user.
+     */
+    @Override
+    protected void print() {
+        System.out.println();
+        System.out.println("************** Choose Week **************");
+        System.out.println("[0]: Any");
+        System.out.println("[1-" + weeks + "]: Week number");
+    }
+
+    /**
+     * Checks if the input is a valid option.
+     *
+     * @param input The input to validate.
+     * @return True if the input is valid, otherwise false.
+     */
+    @Override
+    protected boolean isValidOption(int input) {
+        return input >= 0 && input <= weeks;
+    }
+}
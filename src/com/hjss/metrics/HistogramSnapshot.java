@@ -0,0 +1,96 @@
+package com.hjss.metrics;
+
+/**
+ * The HistogramSnapshot class is an immutable copy of the counts of a {@link LatencyHistogram}.
+ * Percentiles are reported as the highest value of the bucket they fall in.
+ */
+public class HistogramSnapshot {
+    private final long[] counts;
+
+    private final long count;
+
+    /**
+     * Constructs a HistogramSnapshot from merged bucket counts.
+     *
+     * @param counts The count of every bucket.
+     */
+    HistogramSnapshot(long[] counts) {
+        this.counts = counts;
+
+        long total = 0;
+        for (long c : counts) total += c;
+        this.count = total;
+    }
+
+    /**
+     * Retrieves the number of recorded values.
+     *
+     * @return The number of recorded values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retrieves the value below which the given fraction of recorded values fall.
+     *
+     * @param fraction The fraction, between 0 and 1 (e.g. 0.99 for the 99th percentile).
+     * @return The percentile value in nanoseconds, or 0 when nothing was recorded.
+     */
+    public long getPercentile(double fraction) {
+        if (count == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return LatencyHistogram.highestValue(i);
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Retrieves the highest recorded value.
+     *
+     * @return The highest recorded value in nanoseconds, or 0 when nothing was recorded.
+     */
+    public long getMax() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return LatencyHistogram.highestValue(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Retrieves the approximate mean of the recorded values.
+     *
+     * @return The mean in nanoseconds, or 0 when nothing was recorded.
+     */
+    public double getMean() {
+        if (count == 0) return 0;
+
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += (double) counts[i] * LatencyHistogram.highestValue(i);
+        }
+        return sum / count;
+    }
+
+    /**
+     * Returns a string representation of the snapshot in microseconds.
+     *
+     * @return A string representation of the snapshot.
+     */
+    @Override
+    public String toString() {
+        return String.format("count: %d | p50: %.1fus | p99: %.1fus | p999: %.1fus | max: %.1fus",
+                getCount(), getPercentile(0.50) / 1e3, getPercentile(0.99) / 1e3,
+                getPercentile(0.999) / 1e3, getMax() / 1e3);
+    }
+}
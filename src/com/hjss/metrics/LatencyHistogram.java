@@ -0,0 +1,108 @@
+package com.hjss.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class counts latencies in log-linear buckets: every power of two is split into
+ * 16 linear sub-buckets, so any recorded value is reported within about 6% of its true value.
+ *
+ * <p>
+ * Recording is lock-free and allocation-free. Buckets are striped by thread so concurrent recorders rarely
+ * touch the same cache line, and a snapshot merges the stripes when it is taken.
+ * </p>
+ */
+public class LatencyHistogram {
+    /**
+     * Number of bits used for the linear sub-buckets of each power of two.
+     */
+    private static final int SUB_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Enough buckets for every non-negative long value.
+     */
+    static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray[] stripes;
+
+    private final int mask;
+
+    /**
+     * Constructs a LatencyHistogram with one stripe per available processor.
+     */
+    public LatencyHistogram() {
+        int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1);
+        stripes = new AtomicLongArray[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+        mask = n - 1;
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        int stripe = (int) Thread.currentThread().threadId() & mask;
+        stripes[stripe].getAndIncrement(bucket(Math.max(0, nanos)));
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading.
+     *
+     * @param startNanos The {@link System#nanoTime()} reading taken when the operation started.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Takes a snapshot of the counts recorded so far.
+     *
+     * @return The snapshot.
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return new HistogramSnapshot(counts);
+    }
+
+    /**
+     * Maps a value to its bucket index.
+     * Values below 16 get a bucket each; larger values share a bucket with values of the same top 5 bits.
+     *
+     * @param value The non-negative value.
+     * @return The bucket index.
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Maps a bucket index back to the highest value it holds.
+     *
+     * @param bucket The bucket index.
+     * @return The highest value counted in the bucket.
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lowest = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+
+        return lowest + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,116 @@
+package com.hjss.metrics;
+
+import com.hjss.enums.Operation;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Metrics class collects the latency of every booking engine operation and report,
+ * and counts how often each operation is rejected and by which exception.
+ *
+ * <p>
+ * Counters are {@link LongAdder}s and latencies go to striped {@link LatencyHistogram}s, so recording never
+ * blocks and stays cheap enough to leave on in production. Reading the metrics merges the stripes.
+ * </p>
+ */
+public class Metrics {
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+
+    private final LongAdder[] counts = new LongAdder[Operation.values().length];
+
+    private final LongAdder[] rejected = new LongAdder[Operation.values().length];
+
+    private final Map<Class<? extends Exception>, LongAdder> rejections = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an empty Metrics instance.
+     */
+    public Metrics() {
+        for (Operation operation : Operation.values()) {
+            latencies[operation.ordinal()] = new LatencyHistogram();
+            counts[operation.ordinal()] = new LongAdder();
+            rejected[operation.ordinal()] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the latency of an operation.
+     *
+     * @param operation  The operation that ran.
+     * @param startNanos The {@link System#nanoTime()} reading taken when the operation started.
+     */
+    public void record(Operation operation, long startNanos) {
+        latencies[operation.ordinal()].recordSince(startNanos);
+        counts[operation.ordinal()].increment();
+    }
+
+    /**
+     * Counts an operation rejected by an exception.
+     *
+     * @param operation The operation that was rejected.
+     * @param exception The exception the operation was rejected with.
+     */
+    public void reject(Operation operation, Exception exception) {
+        rejected[operation.ordinal()].increment();
+        rejections.computeIfAbsent(exception.getClass(), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Takes a latency snapshot of an operation.
+     *
+     * @param operation The operation.
+     * @return The latency snapshot, in nanoseconds.
+     */
+    public HistogramSnapshot snapshot(Operation operation) {
+        return latencies[operation.ordinal()].snapshot();
+    }
+
+    /**
+     * Retrieves how many times an operation ran, without merging the latency histogram.
+     *
+     * @param operation The operation.
+     * @return The number of times the operation ran, including rejections.
+     */
+    public long getCount(Operation operation) {
+        return counts[operation.ordinal()].sum();
+    }
+
+    /**
+     * Retrieves how many times an operation was rejected.
+     *
+     * @param operation The operation.
+     * @return The number of rejections.
+     */
+    public long getRejected(Operation operation) {
+        return rejected[operation.ordinal()].sum();
+    }
+
+    /**
+     * Retrieves how many operations each exception type has rejected.
+     *
+     * @return The rejection counts keyed by exception simple name.
+     */
+    public Map<String, Long> getRejections() {
+        Map<String, Long> counts = new TreeMap<>();
+        rejections.forEach((type, count) -> counts.put(type.getSimpleName(), count.sum()));
+        return counts;
+    }
+
+    /**
+     * Returns a printable report of every measured operation and the rejection counts.
+     *
+     * @return A string representation of the metrics.
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (Operation operation : Operation.values()) {
+            s.append(String.format("%-14s | %s | rejected: %d%n", operation, snapshot(operation), getRejected(operation)));
+        }
+        s.append("Rejections: ").append(getRejections());
+        return s.toString();
+    }
+}
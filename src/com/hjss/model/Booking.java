@@ -1,17 +1,24 @@
 package com.hjss.model;
 
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * The Booking class represents a booking made by a learner for a swimming lesson.
  * It serves as a mediator between lessons and learners.
  * It includes information such as the booking ID, learner, lesson, attendance status, and cancellation status.
  */
 public class Booking {
-    static int count = 0;
+    static final AtomicInteger count = new AtomicInteger(); // Bookings are created concurrently
     private final int id; // Booking ID
     private final Learner learner; // Learner who made the booking
     private Lesson lesson; // Lesson that was booked
     private boolean attendanceStatus; // Attendance status of the booking
     private boolean cancellationStatus; // Cancellation status of the booking
+    private Instant createdAt; // Time the booking was stored
+    private Instant changedAt; // Time the booking last moved to another lesson
+    private Instant cancelledAt; // Time the booking was cancelled
+    private Instant attendedAt; // Time the lesson was attended
 
     /**
      * Constructs a Booking object with the specified learner and lesson.
@@ -20,7 +27,25 @@ public class Booking {
      * @param lesson  The lesson that was booked.
      */
     public Booking(Learner learner, Lesson lesson) {
-        this.id = ++count;
+        this.id = count.incrementAndGet();
+
+        this.learner = learner;
+        this.lesson = lesson;
+        attendanceStatus = false;
+        cancellationStatus = false;
+    }
+
+    /**
+     * Constructs a Booking object that keeps the ID it was given before, such as a booking restored from a log.
+     * Bookings constructed afterwards are numbered after it.
+     *
+     * @param id      The booking ID.
+     * @param learner The learner who made the booking.
+     * @param lesson  The lesson that was booked.
+     */
+    public Booking(int id, Learner learner, Lesson lesson) {
+        this.id = id;
+        count.accumulateAndGet(id, Math::max);
 
         this.learner = learner;
         this.lesson = lesson;
@@ -106,6 +131,78 @@ public class Booking {
         this.cancellationStatus = true;
     }
 
+    /**
+     * Gets the time the booking was stored.
+     *
+     * @return The creation time, or null if the booking has not been stored.
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Sets the time the booking was stored.
+     *
+     * @param createdAt The creation time.
+     */
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Gets the time the booking last moved to another lesson.
+     *
+     * @return The change time, or null if the booking has never changed.
+     */
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    /**
+     * Sets the time the booking last moved to another lesson.
+     *
+     * @param changedAt The change time.
+     */
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    /**
+     * Gets the time the booking was cancelled.
+     *
+     * @return The cancellation time, or null if the booking is not cancelled.
+     */
+    public Instant getCancelledAt() {
+        return cancelledAt;
+    }
+
+    /**
+     * Sets the time the booking was cancelled.
+     *
+     * @param cancelledAt The cancellation time.
+     */
+    public void setCancelledAt(Instant cancelledAt) {
+        this.cancelledAt = cancelledAt;
+    }
+
+    /**
+     * Gets the time the lesson was attended.
+     *
+     * @return The attendance time, or null if the lesson has not been attended.
+     */
+    public Instant getAttendedAt() {
+        return attendedAt;
+    }
+
+    /**
+     * Sets the time the lesson was attended.
+     *
+     * @param attendedAt The attendance time.
+     */
+    public void setAttendedAt(Instant attendedAt) {
+        this.attendedAt = attendedAt;
+    }
+
     /**
      * Returns a string representation of the Booking object.
      *
@@ -0,0 +1,17 @@
+package com.hjss.model;
+
+import com.hjss.enums.BookingEventType;
+
+import java.time.Instant;
+
+/**
+ * The BookingEvent record represents a change to a booking at a point in time.
+ *
+ * @param type           The type of change.
+ * @param booking        The booking that changed.
+ * @param lesson         The lesson of the booking right after the change.
+ * @param previousLesson The lesson the booking moved from, or null unless the booking changed lesson.
+ * @param time           The time the change happened.
+ */
+public record BookingEvent(BookingEventType type, Booking booking, Lesson lesson, Lesson previousLesson, Instant time) {
+}
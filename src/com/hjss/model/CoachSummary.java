@@ -0,0 +1,29 @@
+package com.hjss.model;
+
+/**
+ * The CoachSummary record aggregates the ratings a coach received over a closed month.
+ *
+ * @param coachId     The ID of the coach.
+ * @param reviews     The number of reviews.
+ * @param ratingTotal The sum of the rating scores.
+ */
+public record CoachSummary(int coachId, int reviews, int ratingTotal) {
+    /**
+     * Creates the summary of a coach with no reviews in the month.
+     *
+     * @param coachId The ID of the coach.
+     * @return An empty summary.
+     */
+    public static CoachSummary empty(int coachId) {
+        return new CoachSummary(coachId, 0, 0);
+    }
+
+    /**
+     * Calculates the average rating of the coach.
+     *
+     * @return The average rating score, or 0 if the coach has no reviews.
+     */
+    public float getAvgRating() {
+        return reviews == 0 ? 0 : (float) ratingTotal / reviews;
+    }
+}
@@ -0,0 +1,32 @@
+package com.hjss.model;
+
+import java.util.List;
+
+/**
+ * The LearnerSummary record holds the counters of a learner's bookings over a closed month, kept after the bookings
+ * themselves are archived.
+ *
+ * @param learnerId     The ID of the learner.
+ * @param bookings      The number of bookings made, including cancelled ones.
+ * @param attendances   The number of lessons attended.
+ * @param cancellations The number of bookings cancelled.
+ * @param lessonIds     The IDs of the lessons booked, in week order.
+ */
+public record LearnerSummary(int learnerId, int bookings, int attendances, int cancellations, List<Integer> lessonIds) {
+    /**
+     * Constructs a LearnerSummary, keeping an unmodifiable copy of the lesson IDs.
+     */
+    public LearnerSummary {
+        lessonIds = List.copyOf(lessonIds);
+    }
+
+    /**
+     * Creates the summary of a learner with no bookings in the month.
+     *
+     * @param learnerId The ID of the learner.
+     * @return An empty summary.
+     */
+    public static LearnerSummary empty(int learnerId) {
+        return new LearnerSummary(learnerId, 0, 0, 0, List.of());
+    }
+}
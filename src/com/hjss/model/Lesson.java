@@ -3,6 +3,8 @@ package com.hjss.model;
 import com.hjss.App;
 import com.hjss.enums.Grade;
 
+import java.time.LocalDate;
+
 /**
  * The Lesson class represents a swimming lesson.
  * It contains information such as the lesson ID, grade, time slot, coach, and current capacity.
@@ -30,11 +32,26 @@ public class Lesson {
      */
     private final Grade grade;
 
+    /**
+     * Week of the timetable the lesson is in, starting from 1
+     */
+    private final int week;
+
+    /**
+     * Calendar date of the lesson, null for timetable lessons without a date
+     */
+    private final LocalDate date;
+
     /**
      * Total number booked
      */
     private int size;
 
+    /**
+     * Notified when a seat is taken or freed
+     */
+    private VacancyListener vacancyListener;
+
     /**
      * Constructs a Lesson object with the specified grade, time slot, and coach.
      *
@@ -43,10 +60,37 @@ public class Lesson {
      * @param coach    The coach assigned to the lesson.
      */
     public Lesson(Grade grade, TimeSlot timeSlot, Coach coach) {
+        this(grade, timeSlot, coach, 1);
+    }
+
+    /**
+     * Constructs a Lesson object with the specified grade, time slot, coach and timetable week.
+     *
+     * @param grade    The grade level of the lesson.
+     * @param timeSlot The time slot for the lesson.
+     * @param coach    The coach assigned to the lesson.
+     * @param week     The week of the timetable the lesson is in, starting from 1.
+     */
+    public Lesson(Grade grade, TimeSlot timeSlot, Coach coach, int week) {
+        this(grade, timeSlot, coach, week, null);
+    }
+
+    /**
+     * Constructs a Lesson object taking place on a calendar date.
+     *
+     * @param grade    The grade level of the lesson.
+     * @param timeSlot The time slot for the lesson.
+     * @param coach    The coach assigned to the lesson.
+     * @param week     The week of the timetable the lesson is in, starting from 1.
+     * @param date     The date of the lesson, or null if the lesson has no date.
+     */
+    public Lesson(Grade grade, TimeSlot timeSlot, Coach coach, int week, LocalDate date) {
         this.id = ++count;
         this.grade = grade;
         this.coach = coach;
         this.timeSlot = timeSlot;
+        this.week = week;
+        this.date = date;
         size = 0;
     }
 
@@ -87,6 +131,24 @@ public class Lesson {
         return grade;
     }
 
+    /**
+     * Retrieves the week of the timetable the lesson is in.
+     *
+     * @return The lesson week, starting from 1.
+     */
+    public int getWeek() {
+        return week;
+    }
+
+    /**
+     * Retrieves the calendar date of the lesson.
+     *
+     * @return The lesson date, or null if the lesson has no date.
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
     /**
      * Retrieves the time slot for the lesson.
      *
@@ -105,12 +167,22 @@ public class Lesson {
         return coach;
     }
 
+    /**
+     * Sets the listener notified when a seat of the lesson is taken or freed.
+     *
+     * @param vacancyListener The listener, or null to stop notifying.
+     */
+    public void setVacancyListener(VacancyListener vacancyListener) {
+        this.vacancyListener = vacancyListener;
+    }
+
     /**
      * Decrements the current capacity of the lesson by one.
      */
     public void decrementBySize() {
         if (size > 0) {
             size -= 1;
+            notifyVacancyChanged();
         }
     }
 
@@ -120,12 +192,23 @@ public class Lesson {
     public void incrementBySize() {
         if (size < 4) {
             size += 1;
+            notifyVacancyChanged();
+        }
+    }
+
+    /**
+     * Notifies the vacancy listener, if any, that a seat was taken or freed.
+     */
+    private void notifyVacancyChanged() {
+        if (vacancyListener != null) {
+            vacancyListener.vacancyChanged(this);
         }
     }
 
     public String toString() {
         return "Id: " + App.padToTwoDigits(getId()) +
                 " | " +
+                (getDate() != null ? "Date: " + getDate() + " | " : "") +
                 "Day: " + getTimeSlot().day() +
                 " | " +
                 "Time: " + getTimeSlot().time().getValue() +
@@ -0,0 +1,29 @@
+package com.hjss.model;
+
+import com.hjss.enums.Grade;
+
+import java.time.LocalDate;
+
+/**
+ * The LessonRule record describes a lesson that repeats every week in the same time slot,
+ * with the same grade and coach, between two dates.
+ *
+ * @param timeSlot The time slot the lesson repeats in.
+ * @param grade    The grade level of the lesson.
+ * @param coach    The coach assigned to the lesson.
+ * @param from     The first date the lesson can take place on.
+ * @param until    The last date the lesson can take place on, or null if it repeats indefinitely.
+ */
+public record LessonRule(TimeSlot timeSlot, Grade grade, Coach coach, LocalDate from, LocalDate until) {
+    /**
+     * Checks if the lesson takes place on a date.
+     *
+     * @param date The date.
+     * @return True if the date is on the lesson day and within the rule dates, otherwise false.
+     */
+    public boolean occursOn(LocalDate date) {
+        return date.getDayOfWeek() == timeSlot.day().toDayOfWeek()
+                && !date.isBefore(from)
+                && (until == null || !date.isAfter(until));
+    }
+}
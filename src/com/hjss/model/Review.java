@@ -2,6 +2,8 @@ package com.hjss.model;
 
 import com.hjss.enums.Rating;
 
+import java.time.Instant;
+
 /**
  * The Review class represents a review provided by a learner after attending a swimming lesson.
  * It contains information such as the review ID, rating, feedback, and associated booking.
@@ -29,6 +31,11 @@ public class Review {
      */
     private final Booking booking;
 
+    /**
+     * Time the review was submitted
+     */
+    private Instant submittedAt;
+
     /**
      * Constructs a Review object with the specified rating, feedback, and associated booking.
      *
@@ -79,6 +86,24 @@ public class Review {
         return booking;
     }
 
+    /**
+     * Gets the time the review was submitted.
+     *
+     * @return The submission time, or null if the review has not been stored.
+     */
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    /**
+     * Sets the time the review was submitted.
+     *
+     * @param submittedAt The submission time.
+     */
+    public void setSubmittedAt(Instant submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
     /**
      * Returns a string representation of the Review object.
      *
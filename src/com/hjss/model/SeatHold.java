@@ -0,0 +1,83 @@
+package com.hjss.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The SeatHold class represents a lesson seat reserved for a learner while they confirm their booking.
+ * The held seat is taken from the lesson vacancy until the hold is confirmed into its booking, released or expires.
+ */
+public class SeatHold {
+    static final AtomicInteger count = new AtomicInteger(); // Holds are created concurrently
+    private final int id; // Hold ID
+    private final Booking booking; // Booking stored when the hold is confirmed
+    private final long expiresAt; // Time the hold expires, in milliseconds since the epoch
+    private boolean released; // Whether the hold was confirmed, released or expired
+
+    /**
+     * Constructs a SeatHold object for the specified booking.
+     *
+     * @param booking   The booking stored when the hold is confirmed.
+     * @param expiresAt The time the hold expires, in milliseconds since the epoch.
+     */
+    public SeatHold(Booking booking, long expiresAt) {
+        this.id = count.incrementAndGet();
+        this.booking = booking;
+        this.expiresAt = expiresAt;
+        released = false;
+    }
+
+    /**
+     * Gets the hold ID.
+     *
+     * @return The hold ID.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the booking stored when the hold is confirmed.
+     *
+     * @return The held booking.
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+
+    /**
+     * Gets the time the hold expires.
+     *
+     * @return The expiry time, in milliseconds since the epoch.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Checks if the hold still reserves its seat.
+     *
+     * @return true if the hold was neither confirmed, released nor expired, false otherwise.
+     */
+    public boolean isActive() {
+        return !released;
+    }
+
+    /**
+     * Marks the hold as no longer reserving its seat.
+     */
+    public void setReleased() {
+        this.released = true;
+    }
+
+    /**
+     * Returns a string representation of the SeatHold object.
+     *
+     * @return A string representation of the SeatHold object, including its ID, lesson and learner.
+     */
+    public String toString() {
+        return "Hold Id: " + getId() +
+                "\nLesson Id: " + booking.getLesson().getId() +
+                "\nHeld For: " + booking.getLearner().getName() +
+                "\nActive: " + isActive();
+    }
+}
@@ -0,0 +1,14 @@
+package com.hjss.model;
+
+/**
+ * Listener notified whenever a seat of a lesson is taken or freed, so indexes of lessons with vacancy stay current.
+ */
+@FunctionalInterface
+public interface VacancyListener {
+    /**
+     * Called after the number of booked seats of a lesson has changed.
+     *
+     * @param lesson The lesson whose vacancy changed.
+     */
+    void vacancyChanged(Lesson lesson);
+}
@@ -0,0 +1,16 @@
+package com.hjss.model;
+
+/**
+ * Receiver of the notifications sent to learners watching a full lesson, such as a console, an email or an SMS sender.
+ */
+@FunctionalInterface
+public interface VacancySink {
+    /**
+     * Called once when a seat is freed in a lesson the learner was watching.
+     *
+     * @param learner The learner watching the lesson.
+     * @param lesson  The lesson that has a vacancy again.
+     * @param vacancy The number of free seats when the seat was freed.
+     */
+    void seatFreed(Learner learner, Lesson lesson, int vacancy);
+}
@@ -0,0 +1,208 @@
+package com.hjss.readmodel;
+
+import com.hjss.enums.BookingEventType;
+import com.hjss.enums.Day;
+import com.hjss.model.*;
+import com.hjss.repository.BookingRepository;
+import com.hjss.repository.LessonRepository;
+import com.hjss.repository.ReviewRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * The ReadModels class serves the timetable, the learner report and the coach report from denormalized views that are
+ * kept apart from the repositories.
+ *
+ * <p>
+ * The repositories notify the read models of every vacancy change, booking change and review. The notifying thread
+ * only hands the change to a single updater thread, so booking writes never wait for the views. The updater replaces
+ * immutable rows in concurrent maps, so readers never take a lock and never see a half-updated row.
+ * The views are eventually consistent: a read right after a write may not see it yet, see {@link #sync()}.
+ * </p>
+ */
+public class ReadModels implements AutoCloseable {
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hjss-read-models");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Timetable rows keyed by lesson ID, in the order the lessons were created.
+     */
+    private final Map<Integer, TimetableRow> timetable = new ConcurrentSkipListMap<>();
+
+    /**
+     * Learner report rows keyed by learner ID.
+     */
+    private final Map<Integer, LearnerSummary> learners = new ConcurrentHashMap<>();
+
+    /**
+     * Coach report rows keyed by coach ID.
+     */
+    private final Map<Integer, CoachSummary> coaches = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the read models from the current state of the repositories and keeps them updated.
+     *
+     * @param lessonRepository  The lesson repository the timetable is built from.
+     * @param bookingRepository The booking repository the learner report is built from.
+     * @param reviewRepository  The review repository the coach report is built from.
+     */
+    public ReadModels(LessonRepository lessonRepository, BookingRepository bookingRepository, ReviewRepository reviewRepository) {
+        // Each repository hands over its records and subscribes the views in one step under its own lock, so no change
+        // is missed or counted twice. The records are applied there, before any change reaches the updater.
+        bookingRepository.readAndListen(bookings -> {
+            for (Lesson lesson : lessonRepository.read()) {
+                timetable.put(lesson.getId(), TimetableRow.of(lesson));
+            }
+
+            for (Booking booking : bookings) {
+                applyBooking(BookingEventType.CREATED, booking.getLearner().getId(), booking.getLesson().getId(), 0);
+                if (booking.getCancellationStatus()) {
+                    applyBooking(BookingEventType.CANCELLED, booking.getLearner().getId(), booking.getLesson().getId(), 0);
+                }
+                if (booking.getAttendanceStatus()) {
+                    applyBooking(BookingEventType.ATTENDED, booking.getLearner().getId(), booking.getLesson().getId(), 0);
+                }
+            }
+
+            // Vacancies change under the booking lock too. The updater reads the lesson when it runs, so a late update
+            // never overwrites a newer vacancy
+            lessonRepository.addVacancyListener(lesson -> updater.execute(() -> timetable.put(lesson.getId(), TimetableRow.of(lesson))));
+        }, bookingEvent -> {
+            BookingEventType type = bookingEvent.type();
+            int learnerId = bookingEvent.booking().getLearner().getId();
+            int lessonId = bookingEvent.lesson().getId();
+            int previousLessonId = bookingEvent.previousLesson() == null ? 0 : bookingEvent.previousLesson().getId();
+
+            updater.execute(() -> applyBooking(type, learnerId, lessonId, previousLessonId));
+        });
+
+        reviewRepository.readAndListen(reviews -> {
+            for (Review review : reviews) {
+                applyReview(review.getBooking().getLesson().getCoach().getId(), review.getRating().getValue());
+            }
+        }, review -> {
+            int coachId = review.getBooking().getLesson().getCoach().getId();
+            int rating = review.getRating().getValue();
+
+            updater.execute(() -> applyReview(coachId, rating));
+        });
+    }
+
+    /**
+     * Retrieves the whole timetable.
+     *
+     * @return The timetable rows, in the order the lessons were created.
+     */
+    public List<TimetableRow> readTimetable() {
+        return new ArrayList<>(timetable.values());
+    }
+
+    /**
+     * Retrieves the timetable of a day.
+     *
+     * @param day The day.
+     * @return The timetable rows of the day, in the order the lessons were created.
+     */
+    public List<TimetableRow> readTimetable(Day day) {
+        List<TimetableRow> rows = new ArrayList<>();
+        for (TimetableRow row : timetable.values()) {
+            if (row.day() == day) {
+                rows.add(row);
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Retrieves the report row of a learner.
+     *
+     * @param learner The learner.
+     * @return The learner's bookings, attendances, cancellations and booked lessons.
+     */
+    public LearnerSummary readLearner(Learner learner) {
+        return learners.getOrDefault(learner.getId(), LearnerSummary.empty(learner.getId()));
+    }
+
+    /**
+     * Retrieves the rating row of a coach.
+     *
+     * @param coach The coach.
+     * @return The coach's review count and rating total.
+     */
+    public CoachSummary readCoach(Coach coach) {
+        return coaches.getOrDefault(coach.getId(), CoachSummary.empty(coach.getId()));
+    }
+
+    /**
+     * Waits until every change notified so far has been applied to the views.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void sync() throws InterruptedException {
+        try {
+            updater.submit(() -> {
+            }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Stops updating the views.
+     */
+    @Override
+    public void close() {
+        updater.shutdown();
+    }
+
+    /**
+     * Applies a booking change to the report row of its learner.
+     *
+     * @param type             The type of change.
+     * @param learnerId        The ID of the learner.
+     * @param lessonId         The ID of the lesson after the change.
+     * @param previousLessonId The ID of the lesson the booking moved from, 0 unless the booking changed lesson.
+     */
+    private void applyBooking(BookingEventType type, int learnerId, int lessonId, int previousLessonId) {
+        LearnerSummary row = learners.getOrDefault(learnerId, LearnerSummary.empty(learnerId));
+        List<Integer> lessonIds = new ArrayList<>(row.lessonIds());
+
+        int bookings = row.bookings();
+        int attendances = row.attendances();
+        int cancellations = row.cancellations();
+
+        switch (type) {
+            case CREATED -> {
+                bookings++;
+                lessonIds.add(lessonId);
+            }
+            case CHANGED -> {
+                int position = lessonIds.indexOf(previousLessonId);
+                if (position >= 0) lessonIds.set(position, lessonId);
+                else lessonIds.add(lessonId);
+            }
+            case CANCELLED -> cancellations++;
+            case ATTENDED -> attendances++;
+        }
+
+        learners.put(learnerId, new LearnerSummary(learnerId, bookings, attendances, cancellations, lessonIds));
+    }
+
+    /**
+     * Applies a review to the rating row of its coach.
+     *
+     * @param coachId The ID of the coach.
+     * @param rating  The rating score.
+     */
+    private void applyReview(int coachId, int rating) {
+        CoachSummary row = coaches.getOrDefault(coachId, CoachSummary.empty(coachId));
+        coaches.put(coachId, new CoachSummary(coachId, row.reviews() + 1, row.ratingTotal() + rating));
+    }
+}
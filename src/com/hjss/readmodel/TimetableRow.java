@@ -0,0 +1,30 @@
+package com.hjss.readmodel;
+
+import com.hjss.enums.Day;
+import com.hjss.enums.Grade;
+import com.hjss.enums.Time;
+import com.hjss.model.Lesson;
+
+/**
+ * The TimetableRow record is a denormalized, immutable copy of a lesson as shown in the timetable.
+ *
+ * @param lessonId The ID of the lesson.
+ * @param week     The week of the lesson.
+ * @param day      The day of the lesson.
+ * @param time     The time of the lesson.
+ * @param grade    The grade of the lesson.
+ * @param coach    The name of the coach.
+ * @param vacancy  The number of free seats when the row was last updated.
+ */
+public record TimetableRow(int lessonId, int week, Day day, Time time, Grade grade, String coach, int vacancy) {
+    /**
+     * Copies the timetable fields of a lesson.
+     *
+     * @param lesson The lesson.
+     * @return The timetable row of the lesson.
+     */
+    public static TimetableRow of(Lesson lesson) {
+        return new TimetableRow(lesson.getId(), lesson.getWeek(), lesson.getTimeSlot().day(), lesson.getTimeSlot().time(),
+                lesson.getGrade(), lesson.getCoach().getName(), lesson.getVacancy());
+    }
+}
@@ -0,0 +1,48 @@
+package com.hjss.reminder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The LogReminderSender class is a stand-in {@link ReminderSender} that appends every reminder as a line to a local
+ * file instead of sending it, for testing and for running without an SMS gateway.
+ */
+public class LogReminderSender implements ReminderSender {
+    private final Path file;
+
+    /**
+     * Constructs a LogReminderSender.
+     *
+     * @param file The file the reminders are appended to, created if missing.
+     */
+    public LogReminderSender(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Appends a batch of reminders to the file, one line per reminder.
+     *
+     * @param batch The reminders.
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    @Override
+    public synchronized void send(List<Reminder> batch) {
+        List<String> lines = new ArrayList<>(batch.size());
+        for (Reminder reminder : batch) {
+            lines.add(reminder.contactNumber() + " | " + reminder.learnerName() + " has lesson " + reminder.lessonId()
+                    + " at " + reminder.startsAt());
+        }
+
+        try {
+            Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.hjss.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * The Reminder record is a reminder of an upcoming lesson, sent to the emergency contact of a booked learner.
+ *
+ * @param contactNumber The emergency contact number of the learner.
+ * @param learnerName   The name of the learner.
+ * @param bookingId     The ID of the booking.
+ * @param lessonId      The ID of the lesson.
+ * @param startsAt      The date and time the lesson starts.
+ */
+public record Reminder(String contactNumber, String learnerName, int bookingId, int lessonId, LocalDateTime startsAt) {
+}
@@ -0,0 +1,274 @@
+package com.hjss.reminder;
+
+import com.hjss.model.Booking;
+import com.hjss.model.Lesson;
+import com.hjss.repository.BookingRepository;
+import com.hjss.repository.LessonCalendar;
+import com.hjss.util.TimingWheel;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ReminderScheduler class reminds the emergency contact of every booked learner a while before each lesson.
+ *
+ * <p>
+ * Reminders are not scheduled per booking. Lessons are grouped by the time they start, and each start time has a
+ * single entry in a {@link TimingWheel}, due the lead time before the lessons start, however many lessons and
+ * bookings share it. When an entry is due, the active bookings of its lessons are read from the booking repository at
+ * that moment, so bookings made, changed or cancelled after scheduling are reminded correctly, and the reminders are
+ * handed to the {@link ReminderSender} in batches.
+ * </p>
+ *
+ * <p>
+ * The scheduler moves when {@link #dispatchDue()} is called, or every tick once {@link #start()} has been called.
+ * When the sender fails, the start times whose reminders were not all sent are scheduled again for the next tick,
+ * as long as their lessons have not started, so reminders are sent at least once.
+ * </p>
+ */
+public class ReminderScheduler implements AutoCloseable {
+    /**
+     * Length of a reminder tick, reminders are sent up to one tick late.
+     */
+    private static final long TICK_MILLIS = 60_000;
+
+    private final BookingRepository bookingRepository;
+
+    private final ReminderSender sender;
+
+    private final Duration leadTime;
+
+    private final Clock clock;
+
+    private final int batchSize;
+
+    /**
+     * Lessons starting at each scheduled time. Guarded by this scheduler.
+     */
+    private final Map<LocalDateTime, Set<Lesson>> slots = new HashMap<>();
+
+    /**
+     * Reminder deadlines, one per scheduled start time. Guarded by this scheduler.
+     */
+    private final TimingWheel<LocalDateTime> wheel;
+
+    private ScheduledExecutorService timer;
+
+    /**
+     * Constructs a ReminderScheduler.
+     *
+     * @param bookingRepository The repository the booked learners are read from.
+     * @param sender            The sender the reminders are handed to.
+     * @param leadTime          How long before a lesson starts its reminders are sent.
+     * @param clock             The clock reminders are due by, whose zone the lesson times are in.
+     * @param batchSize         The largest number of reminders handed to the sender at once.
+     */
+    public ReminderScheduler(BookingRepository bookingRepository, ReminderSender sender, Duration leadTime, Clock clock, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+
+        this.bookingRepository = bookingRepository;
+        this.sender = sender;
+        this.leadTime = leadTime;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, clock.millis());
+    }
+
+    /**
+     * Schedules the reminders of a lesson. Lessons without a date or that already started are ignored.
+     *
+     * @param lesson The lesson.
+     * @return True if the lesson was scheduled, false if it was ignored or already scheduled.
+     */
+    public synchronized boolean schedule(Lesson lesson) {
+        if (lesson.getDate() == null) return false;
+
+        LocalDateTime startsAt = startOf(lesson);
+        if (!startsAt.isAfter(LocalDateTime.now(clock))) return false;
+
+        Set<Lesson> lessons = slots.get(startsAt);
+        if (lessons == null) {
+            lessons = new LinkedHashSet<>();
+            slots.put(startsAt, lessons);
+            wheel.schedule(startsAt, startsAt.minus(leadTime).atZone(clock.getZone()).toInstant().toEpochMilli());
+        }
+
+        return lessons.add(lesson);
+    }
+
+    /**
+     * Schedules the reminders of every lesson of a calendar in a date range.
+     *
+     * @param calendar The lesson calendar.
+     * @param from     The first date, inclusive.
+     * @param to       The last date, inclusive.
+     * @return The number of lessons scheduled.
+     */
+    public int schedule(LessonCalendar calendar, LocalDate from, LocalDate to) {
+        int scheduled = 0;
+
+        for (Lesson lesson : calendar.read(from, to)) {
+            if (schedule(lesson)) scheduled++;
+        }
+
+        return scheduled;
+    }
+
+    /**
+     * Sends the reminders of every start time that is due, in batches.
+     * If the sender fails, the start times not yet sent are scheduled again before the failure is thrown.
+     *
+     * @return The number of reminders sent.
+     */
+    public int dispatchDue() {
+        List<LocalDateTime> due = new ArrayList<>();
+        Map<LocalDateTime, Set<Lesson>> lessons = new TreeMap<>();
+
+        synchronized (this) {
+            wheel.advance(clock.millis(), due::add);
+            for (LocalDateTime startsAt : due) {
+                lessons.put(startsAt, slots.remove(startsAt));
+            }
+        }
+
+        int sent = 0;
+        Iterator<Map.Entry<LocalDateTime, Set<Lesson>>> pending = lessons.entrySet().iterator();
+
+        try {
+            while (pending.hasNext()) {
+                Map.Entry<LocalDateTime, Set<Lesson>> slot = pending.next();
+                List<Reminder> reminders = readReminders(slot.getKey(), slot.getValue());
+
+                for (int i = 0; i < reminders.size(); i += batchSize) {
+                    sender.send(reminders.subList(i, Math.min(i + batchSize, reminders.size())));
+                }
+
+                sent += reminders.size();
+                pending.remove();
+            }
+        } catch (RuntimeException e) {
+            reschedule(lessons);
+            throw e;
+        }
+
+        return sent;
+    }
+
+    /**
+     * Retrieves the number of start times waiting for their reminders.
+     *
+     * @return The number of scheduled start times.
+     */
+    public synchronized int getPendingSlots() {
+        return slots.size();
+    }
+
+    /**
+     * Starts sending due reminders every tick on a background thread.
+     */
+    public synchronized void start() {
+        if (timer != null) return;
+
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hjss-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::dispatchInBackground, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sending reminders in the background.
+     */
+    @Override
+    public synchronized void close() {
+        if (timer != null) {
+            timer.shutdown();
+            timer = null;
+        }
+    }
+
+    /**
+     * Sends the due reminders on the background thread. A failure is reported and retried on the next tick,
+     * as a task of the timer that throws is never run again.
+     */
+    private void dispatchInBackground() {
+        try {
+            dispatchDue();
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Reminders could not be sent, retrying next tick: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Schedules start times whose reminders could not be sent again for the next tick.
+     * Start times that have passed are dropped.
+     *
+     * @param failed The lessons of each start time.
+     */
+    private synchronized void reschedule(Map<LocalDateTime, Set<Lesson>> failed) {
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        for (Map.Entry<LocalDateTime, Set<Lesson>> slot : failed.entrySet()) {
+            if (!slot.getKey().isAfter(now)) continue;
+
+            Set<Lesson> lessons = slots.get(slot.getKey());
+            if (lessons == null) {
+                lessons = new LinkedHashSet<>();
+                slots.put(slot.getKey(), lessons);
+                wheel.schedule(slot.getKey(), clock.millis());
+            }
+
+            lessons.addAll(slot.getValue());
+        }
+    }
+
+    /**
+     * Builds the reminders of the active bookings of lessons starting at the same time.
+     *
+     * @param startsAt The time the lessons start.
+     * @param lessons  The lessons.
+     * @return The reminders, one per active booking.
+     */
+    private List<Reminder> readReminders(LocalDateTime startsAt, Set<Lesson> lessons) {
+        int fromWeek = Integer.MAX_VALUE;
+        int toWeek = Integer.MIN_VALUE;
+        Set<Integer> lessonIds = new HashSet<>();
+
+        for (Lesson lesson : lessons) {
+            fromWeek = Math.min(fromWeek, lesson.getWeek());
+            toWeek = Math.max(toWeek, lesson.getWeek());
+            lessonIds.add(lesson.getId());
+        }
+
+        List<Reminder> reminders = new ArrayList<>();
+
+        for (Booking booking : bookingRepository.read(fromWeek, toWeek)) {
+            if (booking.getCancellationStatus() || booking.getAttendanceStatus()) continue;
+            if (!lessonIds.contains(booking.getLesson().getId())) continue;
+
+            reminders.add(new Reminder(booking.getLearner().getEmergencyContactNumber(), booking.getLearner().getName(),
+                    booking.getId(), booking.getLesson().getId(), startsAt));
+        }
+
+        return reminders;
+    }
+
+    /**
+     * Computes the date and time a lesson starts.
+     *
+     * @param lesson The lesson, which must have a date.
+     * @return The start of the lesson.
+     */
+    private static LocalDateTime startOf(Lesson lesson) {
+        return lesson.getDate().atTime(lesson.getTimeSlot().time().getStart());
+    }
+}
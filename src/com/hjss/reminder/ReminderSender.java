@@ -0,0 +1,17 @@
+package com.hjss.reminder;
+
+import java.util.List;
+
+/**
+ * Delivers lesson reminders, such as an SMS gateway. Reminders are handed over in batches, so a sender can use a
+ * bulk API instead of one request per reminder.
+ */
+@FunctionalInterface
+public interface ReminderSender {
+    /**
+     * Sends a batch of reminders, all for lessons starting at the same time.
+     *
+     * @param batch The reminders.
+     */
+    void send(List<Reminder> batch);
+}
@@ -0,0 +1,261 @@
+package com.hjss.repository;
+
+import com.hjss.exceptions.OverloadedException;
+import com.hjss.model.Lesson;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The AdmissionControl class limits how many booking requests are in flight at once, and sheds the rest early
+ * instead of letting them queue up behind the booking lock.
+ *
+ * <p>
+ * Lessons are spread over shards by ID, and each shard has a fixed number of permits. A request waits at most the
+ * configured time for a permit of its lesson's shard, then fails fast with an {@link OverloadedException} carrying
+ * a retry-after hint. The hint is the average time a permit is held, scaled by the number of requests ahead.
+ * At most the configured queue depth of requests wait for each shard: once the queue is full, requests are shed at
+ * once without waiting, so admitted requests keep a bounded latency during a rush.
+ * </p>
+ *
+ * <p>
+ * {@link #unlimited()} admits every request without touching a semaphore or a shared counter.
+ * </p>
+ */
+public class AdmissionControl {
+    private final Semaphore[] shards;
+
+    private final AtomicInteger[] waiting;
+
+    private final int permits;
+
+    private final long maxWaitNanos;
+
+    /**
+     * The most requests that wait for a permit of a shard at once.
+     */
+    private final int maxQueue;
+
+    /**
+     * Whether every request is admitted without limits.
+     */
+    private final boolean unlimited;
+
+    /**
+     * The permit handed out when every request is admitted, which releases nothing.
+     */
+    private final Permit unlimitedPermit = new Permit(null, 0);
+
+    private final LongAdder admitted = new LongAdder();
+
+    private final LongAdder shed = new LongAdder();
+
+    /**
+     * Moving average of how long a permit is held, in nanoseconds.
+     */
+    private final AtomicLong serviceNanos = new AtomicLong();
+
+    /**
+     * Constructs an AdmissionControl letting as many requests wait for each shard as it has permits.
+     *
+     * @param shards  The number of lesson shards.
+     * @param permits The number of requests each shard admits at once.
+     * @param maxWait How long a request waits for a permit before it is shed.
+     */
+    public AdmissionControl(int shards, int permits, Duration maxWait) {
+        this(shards, permits, maxWait, permits);
+    }
+
+    /**
+     * Constructs an AdmissionControl.
+     *
+     * @param shards   The number of lesson shards.
+     * @param permits  The number of requests each shard admits at once.
+     * @param maxWait  How long a request waits for a permit before it is shed.
+     * @param maxQueue The most requests that wait for a permit of a shard at once, the rest are shed at once.
+     */
+    public AdmissionControl(int shards, int permits, Duration maxWait, int maxQueue) {
+        if (shards < 1 || permits < 1) {
+            throw new IllegalArgumentException("shards and permits must be positive");
+        }
+
+        if (maxQueue < 0) {
+            throw new IllegalArgumentException("maxQueue must not be negative");
+        }
+
+        this.shards = new Semaphore[shards];
+        this.waiting = new AtomicInteger[shards];
+        this.permits = permits;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxQueue = maxQueue;
+        this.unlimited = false;
+
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Semaphore(permits);
+            this.waiting[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Creates an AdmissionControl that admits every request, without keeping any counts.
+     *
+     * @return The unlimited admission control.
+     */
+    public static AdmissionControl unlimited() {
+        return new AdmissionControl();
+    }
+
+    /**
+     * Constructs an AdmissionControl that admits every request.
+     */
+    private AdmissionControl() {
+        this.shards = new Semaphore[0];
+        this.waiting = new AtomicInteger[0];
+        this.permits = Integer.MAX_VALUE;
+        this.maxWaitNanos = 0;
+        this.maxQueue = 0;
+        this.unlimited = true;
+    }
+
+    /**
+     * Admits a request for a lesson, waiting for a permit of the lesson's shard if needed.
+     *
+     * @param lesson The lesson the request changes.
+     * @return The permit, to be closed when the request completes.
+     * @throws OverloadedException If no permit was free in time.
+     */
+    public Permit acquire(Lesson lesson) {
+        if (unlimited) return unlimitedPermit;
+
+        int shard = Math.floorMod(lesson.getId(), shards.length);
+        Semaphore semaphore = shards[shard];
+
+        boolean acquired = semaphore.tryAcquire();
+
+        if (!acquired && maxWaitNanos > 0 && enqueue(shard)) {
+            try {
+                acquired = semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                waiting[shard].decrementAndGet();
+            }
+        }
+
+        if (!acquired) {
+            shed.increment();
+            throw new OverloadedException(retryAfter(shard));
+        }
+
+        admitted.increment();
+        return new Permit(semaphore, System.nanoTime());
+    }
+
+    /**
+     * Takes a place in the queue of a shard, unless the queue is full.
+     *
+     * @param shard The shard.
+     * @return True if the request may wait, false if it must be shed at once.
+     */
+    private boolean enqueue(int shard) {
+        AtomicInteger queue = waiting[shard];
+
+        while (true) {
+            int depth = queue.get();
+            if (depth >= maxQueue) return false;
+            if (queue.compareAndSet(depth, depth + 1)) return true;
+        }
+    }
+
+    /**
+     * Estimates how long a shed request should wait before retrying.
+     *
+     * @param shard The shard the request was shed from.
+     * @return The retry-after hint, at least one millisecond.
+     */
+    private Duration retryAfter(int shard) {
+        long ahead = (long) waiting[shard].get() + permits;
+        long nanos = serviceNanos.get() * ahead / permits;
+
+        return Duration.ofNanos(Math.max(TimeUnit.MILLISECONDS.toNanos(1), nanos));
+    }
+
+    /**
+     * Retrieves the number of requests waiting for a permit.
+     *
+     * @return The queue depth over all shards.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (AtomicInteger w : waiting) depth += w.get();
+        return depth;
+    }
+
+    /**
+     * Retrieves the number of requests holding a permit.
+     *
+     * @return The number of admitted requests in flight.
+     */
+    public long getInFlight() {
+        long inFlight = 0;
+        for (Semaphore semaphore : shards) inFlight += permits - semaphore.availablePermits();
+        return inFlight;
+    }
+
+    /**
+     * Retrieves the number of admitted requests.
+     *
+     * @return The admitted count.
+     */
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    /**
+     * Retrieves the number of shed requests.
+     *
+     * @return The shed count.
+     */
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    /**
+     * A permit held by an admitted request, released when closed.
+     */
+    public final class Permit implements AutoCloseable {
+        private final Semaphore semaphore;
+
+        private final long start;
+
+        /**
+         * Constructs a Permit.
+         *
+         * @param semaphore The semaphore the permit was taken from, or null when every request is admitted.
+         * @param start     The {@link System#nanoTime()} reading taken when the request was admitted.
+         */
+        private Permit(Semaphore semaphore, long start) {
+            this.semaphore = semaphore;
+            this.start = start;
+        }
+
+        /**
+         * Releases the permit and updates the average service time.
+         */
+        @Override
+        public void close() {
+            if (semaphore == null) return;
+
+            long held = System.nanoTime() - start;
+
+            // Lossy moving average with a weight of 1/8, good enough for a hint
+            serviceNanos.getAndUpdate(avg -> avg + (held - avg) / 8);
+
+            semaphore.release();
+        }
+    }
+}
@@ -1,29 +1,392 @@
 package com.hjss.repository;
 
+import com.hjss.enums.BookingEventType;
+import com.hjss.enums.BookingOutcome;
 import com.hjss.enums.Day;
 import com.hjss.enums.Gender;
 import com.hjss.enums.Grade;
+import com.hjss.enums.Operation;
 import com.hjss.enums.Time;
 
+import com.hjss.changes.BookingChange;
+import com.hjss.changes.ChangePublisher;
+import com.hjss.changes.VacancyChange;
+import com.hjss.eventlog.*;
 import com.hjss.exceptions.*;
+import com.hjss.jfr.BookingOperationEvent;
+import com.hjss.metrics.Metrics;
 import com.hjss.model.*;
+import com.hjss.util.DedupCache;
+import com.hjss.util.TimeIndex;
+import com.hjss.util.TimingWheel;
+import com.hjss.util.WeekPartitions;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /**
  * The BookingRepository class manages the persistence of booking data in the Hatfield Junior Swimming School
  * * (HJSS) application.
  * It implements the Repository interface for CRUD operations on bookings.
+ *
+ * <p>
+ * Bookings can be made by many learners at once, so every operation is synchronized on the repository.
+ * The lesson size updates made while booking, cancelling or changing happen under the same lock.
+ * The latency of every booking operation, including the wait for the lock, is recorded in the repository {@link Metrics}
+ * and as a {@link BookingOperationEvent} for the Flight Recorder.
+ * </p>
+ *
+ * <p>
+ * Learners can join the waitlist of a full lesson. Whenever a cancellation, change or grade mismatch frees a seat,
+ * the learner at the head of the waitlist is booked into it under the same lock, so the seat is never visible as free.
+ * </p>
+ *
+ * <p>
+ * A seat can also be held for a while before it is booked. Held seats are taken from the lesson vacancy and expire on
+ * a {@link TimingWheel}, which is moved forward by the booking operations themselves and by {@link #expireHolds()}.
+ * </p>
+ *
+ * <p>
+ * Create, cancel, change and attend accept an optional client request ID. The result of a request is remembered in a
+ * bounded {@link DedupCache} for a while, so a client retrying after a timeout gets the original result back
+ * instead of a duplicate booking or a second transfer. The learner, lesson and booking IDs of the request are
+ * remembered with its result, and a request ID reused for a different request is rejected.
+ * </p>
+ *
+ * <p>
+ * Single booking requests pass an {@link AdmissionControl} before they take the lock, which sheds them with an
+ * {@link OverloadedException} when too many are in flight. Bulk and lottery allocations take the lock once for many
+ * bookings and are always admitted. By default every request is admitted. Time spent waiting for a permit counts
+ * towards the latency of the operation, and shed requests are recorded like failed ones.
+ * </p>
+ *
+ * <p>
+ * Bookings are stored in {@link WeekPartitions} by the week of their lesson. Weeks that are over can be sealed into
+ * compact read-only segments, and queries over a few weeks or a month only touch the partitions of those weeks.
+ * </p>
+ *
+ * <p>
+ * The active bookings of each lesson are also kept in a roster of at most four, so a lesson's bookings are read with
+ * {@link #readRoster(Lesson)} without a scan, and {@link #attendAll(Lesson)} marks a whole lesson attended at once.
+ * </p>
+ *
+ * <p>
+ * Every creation, change, cancellation and attendance is stamped on the booking by the repository clock and recorded
+ * as a {@link BookingEvent} in a {@link TimeIndex}, so what happened in a time window is found by a range scan.
+ * With an {@link EventLog} attached, every change is also appended to the log, from which the booking state can be
+ * rebuilt and audited, and from which {@link #restore} rebuilds the repository itself.
+ * </p>
+ *
+ * <p>
+ * Booking and vacancy changes are also streamed to {@link java.util.concurrent.Flow.Subscriber}s in batches by the
+ * {@link ChangePublisher} returned from {@link #getChanges()}. Publishing never blocks the booking path.
+ * </p>
  */
 public class BookingRepository implements Repository<Booking, Integer> {
-    private final List<Booking> db = new ArrayList<>();
+    /**
+     * Bookings partitioned by the week of their lesson, past weeks can be sealed.
+     */
+    private final WeekPartitions<Booking> db = new WeekPartitions<>(booking -> booking.getLesson().getWeek());
+
+    /**
+     * Bookings keyed by ID, so lookups by ID do not scan the bookings.
+     */
+    private final Map<Integer, Booking> byId = new HashMap<>();
+
+    /**
+     * Bookings of each learner keyed by learner ID, in the order they were stored.
+     */
+    private final Map<Integer, List<Booking>> byLearner = new HashMap<>();
+
+    /**
+     * Booking events of every learner, in time order.
+     */
+    private final TimeIndex<BookingEvent> events = new TimeIndex<>();
+
+    /**
+     * Booking events of each learner in time order, keyed by learner ID.
+     */
+    private final Map<Integer, TimeIndex<BookingEvent>> learnerEvents = new ConcurrentHashMap<>();
+
+    /**
+     * Number of lesson seats taken by bookings that are not cancelled, maintained as bookings change.
+     */
+    private final AtomicInteger bookedSeats = new AtomicInteger();
+
+    /**
+     * Learner and lesson ID pairs of every stored booking and held seat, so duplicate checks do not scan the bookings.
+     */
+    private final Set<Long> bookingKeys = new HashSet<>();
+
+    /**
+     * Number of day and time combinations in a week, valid or not, used to number the lesson slots.
+     */
+    private static final int SLOTS_PER_WEEK = Day.values().length * Time.values().length;
+
+    /**
+     * Week, day and time slots taken by each learner's active bookings and held seats, keyed by learner ID.
+     * A learner takes a few slots spread over many weeks, so each learner keeps a sorted array of slot numbers.
+     */
+    private final Map<Integer, SlotSet> learnerSlots = new HashMap<>();
+
+    /**
+     * Seats of a lesson, the most bookings a lesson roster holds.
+     */
+    private static final int LESSON_CAPACITY = 4;
+
+    /**
+     * Active bookings of each lesson, keyed by lesson ID, in the order they took their seats.
+     * A lesson has at most {@value #LESSON_CAPACITY} seats, so each roster is a small array with free seats left null.
+     */
+    private final Map<Integer, Booking[]> rosters = new HashMap<>();
+
+    /**
+     * Bookings waiting for a seat in each full lesson, keyed by learner in the order they joined.
+     */
+    private final Map<Lesson, LinkedHashMap<Learner, Booking>> waitlists = new HashMap<>();
+
+    /**
+     * Length of a seat hold expiry tick, holds are released up to one tick after they expire.
+     */
+    private static final long HOLD_TICK_MILLIS = 100;
+
+    /**
+     * Active seat holds and their expiry timeouts.
+     */
+    private final Map<SeatHold, TimingWheel.Timeout<SeatHold>> holds = new HashMap<>();
+
+    /**
+     * Expiry of the active seat holds.
+     */
+    private final TimingWheel<SeatHold> holdExpiry;
+
+    /**
+     * Number of client requests remembered for retries.
+     */
+    private static final int REQUEST_CACHE_SIZE = 100_000;
+
+    /**
+     * How long client requests are remembered for retries.
+     */
+    private static final Duration REQUEST_TTL = Duration.ofMinutes(10);
+
+    /**
+     * Results of recent client requests, keyed by operation and request ID.
+     */
+    private final DedupCache<String, RememberedRequest> requests = new DedupCache<>(REQUEST_CACHE_SIZE, REQUEST_TTL);
+
+    /**
+     * Number of retried requests answered from the request cache.
+     */
+    private final LongAdder replays = new LongAdder();
+
+    /**
+     * Clock seat holds and client requests expire by.
+     */
+    private final Clock clock;
+
+    /**
+     * Limits the booking requests in flight, shedding the rest.
+     */
+    private final AdmissionControl admission;
+
+    /**
+     * Latency and rejection metrics of the booking operations.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Log every booking change is appended to, or null when the history is not kept.
+     */
+    private final EventLog eventLog;
+
+    /**
+     * True while the repository is restored from its log, so the restored bookings are not appended again.
+     */
+    private boolean restoring;
+
+    /**
+     * Listeners notified of every booking change.
+     */
+    private final List<Consumer<BookingEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Stream of booking and vacancy changes.
+     */
+    private final ChangePublisher changes = new ChangePublisher();
+
+    /**
+     * Initializes the BookingRepository with its own metrics.
+     */
+    public BookingRepository() {
+        this(new Metrics());
+    }
+
+    /**
+     * Initializes the BookingRepository recording into the given metrics.
+     *
+     * @param metrics The metrics the booking operations are recorded into.
+     */
+    public BookingRepository(Metrics metrics) {
+        this(metrics, Clock.systemUTC());
+    }
+
+    /**
+     * Initializes the BookingRepository recording into the given metrics, with seat holds expiring by the given clock.
+     *
+     * @param metrics The metrics the booking operations are recorded into.
+     * @param clock   The clock seat holds expire by.
+     */
+    public BookingRepository(Metrics metrics, Clock clock) {
+        this(metrics, clock, AdmissionControl.unlimited());
+    }
+
+    /**
+     * Initializes the BookingRepository recording into the given metrics, with seat holds expiring by the given clock
+     * and booking requests admitted by the given admission control.
+     *
+     * @param metrics   The metrics the booking operations are recorded into.
+     * @param clock     The clock seat holds expire by.
+     * @param admission The admission control of booking requests.
+     */
+    public BookingRepository(Metrics metrics, Clock clock, AdmissionControl admission) {
+        this(metrics, clock, admission, null);
+    }
+
+    /**
+     * Initializes the BookingRepository recording into the given metrics, with seat holds expiring by the given clock,
+     * booking requests admitted by the given admission control and every booking change appended to the given log.
+     *
+     * @param metrics   The metrics the booking operations are recorded into.
+     * @param clock     The clock seat holds expire by.
+     * @param admission The admission control of booking requests.
+     * @param eventLog  The log booking changes are appended to, or null to keep no history.
+     */
+    public BookingRepository(Metrics metrics, Clock clock, AdmissionControl admission, EventLog eventLog) {
+        this.metrics = metrics;
+        this.eventLog = eventLog;
+        this.clock = clock;
+        this.admission = admission;
+        this.holdExpiry = new TimingWheel<>(HOLD_TICK_MILLIS, clock.millis());
+    }
+
+    /**
+     * Rebuilds a BookingRepository from the latest snapshot of a log and the events appended after it.
+     * Every booking keeps its ID and lesson, the lessons get back their sizes and the learners the grade of the last
+     * lesson they attended. Changes made to the restored repository are appended to the same log.
+     * Seat holds, waitlists and the request cache are not in the log, so they start empty, and the log keeps no times
+     * of its bookings, so they are stamped with the time they are restored.
+     *
+     * @param metrics           The metrics the booking operations are recorded into.
+     * @param clock             The clock seat holds expire by.
+     * @param admission         The admission control of booking requests.
+     * @param eventLog          The log to restore from and to append to.
+     * @param lessonRepository  The lessons the logged bookings refer to.
+     * @param learnerRepository The learners the logged bookings refer to.
+     * @return The restored repository.
+     * @throws IllegalArgumentException If a logged booking refers to a lesson or learner that is not in the repositories.
+     */
+    public static BookingRepository restore(Metrics metrics, Clock clock, AdmissionControl admission, EventLog eventLog,
+                                            LessonRepository lessonRepository, LearnerRepository learnerRepository) {
+        Projection state = eventLog.recover();
+
+        Map<Integer, Learner> learners = new HashMap<>();
+        for (Learner learner : learnerRepository.read()) {
+            learners.put(learner.getId(), learner);
+        }
+
+        List<BookingState> logged = new ArrayList<>(state.getBookings());
+        logged.sort(Comparator.comparingInt(BookingState::bookingId));
+
+        List<Booking> bookings = new ArrayList<>(logged.size());
+
+        for (BookingState booking : logged) {
+            Lesson lesson = lessonRepository.readById(booking.lessonId());
+            Learner learner = learners.get(booking.learnerId());
+
+            if (lesson == null || learner == null) {
+                throw new IllegalArgumentException("Booking " + booking.bookingId() + " refers to an unknown lesson or learner");
+            }
+
+            Booking entity = new Booking(booking.bookingId(), learner, lesson);
+            if (booking.cancelled()) entity.setCancellationStatus();
+            if (booking.attended()) entity.setAttendanceStatus();
+
+            bookings.add(entity);
+        }
+
+        // Lesson sizes and learner grades are taken from the log rather than from the order the bookings were rebuilt in
+        for (Lesson lesson : lessonRepository.read()) {
+            int size = state.getLessonSize(lesson.getId());
+            for (int i = lesson.getSize(); i < size; i++) lesson.incrementBySize();
+            for (int i = lesson.getSize(); i > size; i--) lesson.decrementBySize();
+        }
+
+        for (Learner learner : learners.values()) {
+            Grade grade = state.getLearnerGrade(learner.getId());
+            if (grade != null) learner.setGrade(grade);
+        }
+
+        BookingRepository repository = new BookingRepository(metrics, clock, admission, eventLog);
+        synchronized (repository) {
+            repository.restoring = true;
+            repository.load(bookings);
+            repository.restoring = false;
+        }
+
+        return repository;
+    }
+
+    /**
+     * Retrieves the number of lesson seats taken by bookings that are not cancelled.
+     *
+     * @return The number of booked seats.
+     */
+    public int getBookedSeats() {
+        return bookedSeats.get();
+    }
+
+    /**
+     * Retrieves the admission control of booking requests.
+     *
+     * @return The admission control.
+     */
+    public AdmissionControl getAdmission() {
+        return admission;
+    }
+
+    /**
+     * Retrieves the number of retried requests that were answered with their original result.
+     *
+     * @return The number of replayed requests.
+     */
+    public long getReplayCount() {
+        return replays.sum();
+    }
+
+    /**
+     * Retrieves the metrics the booking operations are recorded into.
+     *
+     * @return The booking metrics.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
 
     /**
      * Seeds the repository with initial booking data.
      */
     @Override
-    public void seed() {
+    public synchronized void seed() {
         Lesson lesson1 = new Lesson(Grade.FOUR, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Badoo"));
         Lesson lesson2 = new Lesson(Grade.FIVE, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("watkins"));
 
@@ -34,225 +397,1555 @@ public class BookingRepository implements Repository<Booking, Integer> {
         Booking booking1 = new Booking(learner1, lesson1);
         Booking booking2 = new Booking(learner2, lesson2);
 
-        booking1.getLesson().incrementBySize();
-        booking2.getLesson().incrementBySize();
+        booking1.getLesson().incrementBySize();
+        booking2.getLesson().incrementBySize();
+
+        store(booking1);
+        store(booking2);
+
+        bookingKeys.add(key(learner1, lesson1));
+        bookingKeys.add(key(learner2, lesson2));
+
+        takeSlot(learner1, lesson1);
+        takeSlot(learner2, lesson2);
+
+        record(BookingEventType.CREATED, booking1);
+        record(BookingEventType.CREATED, booking2);
+
+        bookedSeats.addAndGet(2);
+    }
+
+    /**
+     * Retrieves all bookings from the repository.
+     *
+     * @return A list of all bookings stored in the repository.
+     */
+    @Override
+    public synchronized List<Booking> read() {
+        return db.readAll();
+    }
+
+
+    /**
+     * Retrieves bookings associated with a specific learner.
+     *
+     * @param learner The learner for which bookings are to be retrieved.
+     * @return A list of bookings associated with the specified learner.
+     */
+    public synchronized List<Booking> read(Learner learner) {
+        return readByLearner(learner);
+    }
+
+    /**
+     * Retrieves filtered bookings associated with a specific learner.
+     *
+     * @param learner The learner for which bookings are to be retrieved.
+     * @param filter  The filter to apply to the bookings (e.g. "cancelled", "attended").
+     * @return A list of filtered bookings associated with the specified learner.
+     */
+    public synchronized List<Booking> read(Learner learner, String filter) {
+        List<Booking> bookings = new ArrayList<>();
+
+        for (Booking booking : readByLearner(learner)) {
+            if (booking.getLearner().equals(learner) && filter.equals("cancelled") && booking.getCancellationStatus()) {
+                bookings.add(booking);
+            } else if (booking.getLearner().equals(learner) && filter.equals("attended") && booking.getAttendanceStatus()) {
+                bookings.add(booking);
+            }
+        }
+
+        return bookings;
+    }
+
+    /**
+     * Retrieves the bookings of a learner for lessons in weeks that have not been sealed yet,
+     * the bookings that can still be attended, cancelled or changed.
+     *
+     * @param learner The learner for which bookings are to be retrieved.
+     * @return A list of the learner's bookings in open weeks, in week order.
+     */
+    public synchronized List<Booking> readCurrent(Learner learner) {
+        List<Booking> bookings = readByLearner(learner);
+        bookings.removeIf(booking -> db.isSealed(booking.getLesson().getWeek()));
+
+        return bookings;
+    }
+
+    /**
+     * Retrieves the bookings for lessons in a range of weeks, touching only the partitions of those weeks.
+     *
+     * @param fromWeek The first week, inclusive.
+     * @param toWeek   The last week, inclusive.
+     * @return A list of the bookings, in week order.
+     */
+    public synchronized List<Booking> read(int fromWeek, int toWeek) {
+        return db.read(fromWeek, toWeek);
+    }
+
+    /**
+     * Retrieves the bookings for lessons in a school month of {@value WeekPartitions#WEEKS_PER_MONTH} weeks.
+     *
+     * @param month The month, starting from 1.
+     * @return A list of the bookings of the month, in week order.
+     */
+    public synchronized List<Booking> readMonth(int month) {
+        return db.readMonth(month);
+    }
+
+    /**
+     * Seals the bookings of every week up to a week into compact read-only segments.
+     * Sealed bookings are left out of {@link #readCurrent(Learner)}, but are still part of the history.
+     *
+     * @param throughWeek The last week to seal, inclusive.
+     * @return The number of weeks sealed.
+     */
+    public synchronized int seal(int throughWeek) {
+        return db.seal(throughWeek);
+    }
+
+    /**
+     * Retrieves the bookings of a school month and seals every week up to the end of the month, in one step,
+     * so no change can fall between the read and the seal.
+     *
+     * @param month The month, starting from 1.
+     * @return A list of the bookings of the month, in week order.
+     */
+    public synchronized List<Booking> sealMonth(int month) {
+        List<Booking> bookings = db.readMonth(month);
+        db.seal(WeekPartitions.firstWeekOf(month + 1) - 1);
+        return bookings;
+    }
+
+    /**
+     * Retrieves the stream of booking and vacancy changes, published in batches.
+     *
+     * @return The change publisher to subscribe to.
+     */
+    public ChangePublisher getChanges() {
+        return changes;
+    }
+
+    /**
+     * Registers a listener notified of every booking change.
+     * Listeners are called under the repository lock, in the order of the changes, so they must hand the event off
+     * rather than do slow work.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(Consumer<BookingEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Hands every booking to a reader and registers a listener in one step under the repository lock, so the listener
+     * is notified of exactly the changes made after the reader saw the bookings. The reader runs under the lock, so it
+     * must take what it needs from the bookings at once rather than keep them.
+     *
+     * @param reader   Receives every booking, in week order.
+     * @param listener The listener.
+     */
+    public synchronized void readAndListen(Consumer<List<Booking>> reader, Consumer<BookingEvent> listener) {
+        reader.accept(db.readAll());
+        listeners.add(listener);
+    }
+
+    /**
+     * Retrieves the booking events of a time window, by a range scan of the time index.
+     *
+     * @param from The start of the window, inclusive.
+     * @param to   The end of the window, exclusive.
+     * @return The booking events in time order.
+     */
+    public List<BookingEvent> readEvents(Instant from, Instant to) {
+        return events.range(from, to);
+    }
+
+    /**
+     * Counts what a learner did in a time window, by a range scan of the learner's time index.
+     * Bookings are counted when they were created, and the lessons are those booked or changed to in the window.
+     *
+     * @param learner The learner.
+     * @param from    The start of the window, inclusive.
+     * @param to      The end of the window, exclusive.
+     * @return The learner's bookings, attendances, cancellations and lessons in the window.
+     */
+    public LearnerSummary readStats(Learner learner, Instant from, Instant to) {
+        TimeIndex<BookingEvent> index = learnerEvents.get(learner.getId());
+
+        if (index == null) return LearnerSummary.empty(learner.getId());
+
+        int bookings = 0;
+        int attendances = 0;
+        int cancellations = 0;
+        List<Integer> lessonIds = new ArrayList<>();
+
+        for (BookingEvent bookingEvent : index.range(from, to)) {
+            switch (bookingEvent.type()) {
+                case CREATED -> bookings++;
+                case ATTENDED -> attendances++;
+                case CANCELLED -> cancellations++;
+                case CHANGED -> {
+                }
+            }
+
+            if (bookingEvent.type() == BookingEventType.CREATED || bookingEvent.type() == BookingEventType.CHANGED) {
+                lessonIds.add(bookingEvent.lesson().getId());
+            }
+        }
+
+        return new LearnerSummary(learner.getId(), bookings, attendances, cancellations, lessonIds);
+    }
+
+    /**
+     * Retrieves a booking by its unique identifier from the repository.
+     *
+     * @param id The unique identifier of the booking.
+     * @return The booking corresponding to the given identifier, or null if not found.
+     */
+    @Override
+    public synchronized Booking readById(Integer id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Retrieves the number of bookings without copying them.
+     * The count is read without taking the repository lock, so monitoring never waits for a booking operation,
+     * and may lag a write in progress.
+     *
+     * @return The number of bookings stored.
+     */
+    public int getSize() {
+        return db.size();
+    }
+
+    /**
+     * Creates a new booking in the repository.
+     *
+     * @param entity The booking to create.
+     * @return The created booking.
+     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the lesson.
+     * @throws DuplicateBookingException If a duplicate booking already exists.
+     * @throws NoVacancyException        If there is no vacancy available for the lesson.
+     */
+    @Override
+    public Booking create(Booking entity) throws GradeMisMatchException, DuplicateBookingException, NoVacancyException {
+        // Rejections are thrown as shared stackless instances, filling a stack trace costs more than the check
+        switch (tryCreate(entity)) {
+            case GRADE_MISMATCH -> throw GradeMisMatchException.STACKLESS;
+            case NO_VACANCY -> throw NoVacancyException.STACKLESS;
+            case DUPLICATE_BOOKING -> throw DuplicateBookingException.STACKLESS;
+            case TIME_CLASH -> throw TimeSlotClashException.STACKLESS;
+            default -> {
+                return entity;
+            }
+        }
+    }
+
+    /**
+     * Creates a new booking in the repository, reporting rejections as an outcome instead of an exception.
+     * This is the cheapest way to book when many attempts are expected to fail, such as during a booking rush.
+     *
+     * @param entity The booking to create.
+     * @return {@link BookingOutcome#BOOKED} if the booking was stored, otherwise the reason it was rejected.
+     */
+    public BookingOutcome tryCreate(Booking entity) {
+        long start = System.nanoTime();
+        BookingOperationEvent event = BookingOperationEvent.start();
+        AdmissionControl.Permit permit = admit(Operation.CREATE, start, event, entity.getLearner(), entity.getLesson());
+        try {
+            BookingOutcome outcome = createBooking(entity);
+
+            finish(Operation.CREATE, start, event, entity.getLearner(), entity.getLesson(), rejection(outcome));
+            return outcome;
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Creates a new booking once per client request. A retry of the request returns the booking stored by the
+     * original request, or throws its original rejection, without booking again.
+     *
+     * @param entity    The booking to create.
+     * @param requestId The client request ID, or null to always create.
+     * @return The booking stored by the request.
+     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the lesson.
+     * @throws DuplicateBookingException If a duplicate booking already exists.
+     * @throws NoVacancyException        If there is no vacancy available for the lesson.
+     * @throws IllegalArgumentException If the request ID was already used for a different request.
+     */
+    public Booking create(Booking entity, String requestId) throws GradeMisMatchException, DuplicateBookingException, NoVacancyException {
+        Object result = replay(Operation.CREATE, requestId, fingerprint(entity.getLearner(), entity.getLesson()),
+                () -> createOnce(entity));
+
+        if (result instanceof Booking booking) {
+            return booking;
+        }
+
+        switch ((BookingOutcome) result) {
+            case GRADE_MISMATCH -> throw GradeMisMatchException.STACKLESS;
+            case NO_VACANCY -> throw NoVacancyException.STACKLESS;
+            case TIME_CLASH -> throw TimeSlotClashException.STACKLESS;
+            default -> throw DuplicateBookingException.STACKLESS;
+        }
+    }
+
+    /**
+     * Creates a new booking once per client request, reporting rejections as an outcome.
+     * A retry of the request returns the original outcome without booking again.
+     *
+     * @param entity    The booking to create.
+     * @param requestId The client request ID, or null to always create.
+     * @return {@link BookingOutcome#BOOKED} if the request stored its booking, otherwise the reason it was rejected.
+     * @throws IllegalArgumentException If the request ID was already used for a different request.
+     */
+    public BookingOutcome tryCreate(Booking entity, String requestId) {
+        Object result = replay(Operation.CREATE, requestId, fingerprint(entity.getLearner(), entity.getLesson()),
+                () -> createOnce(entity));
+
+        return result instanceof Booking ? BookingOutcome.BOOKED : (BookingOutcome) result;
+    }
+
+    /**
+     * Creates a new booking, returning the result remembered for retries.
+     *
+     * @param entity The booking to create.
+     * @return The stored booking, or the outcome it was rejected with.
+     */
+    private Object createOnce(Booking entity) {
+        BookingOutcome outcome = tryCreate(entity);
+        return outcome.isBooked() ? entity : outcome;
+    }
+
+    /**
+     * Validates and stores a new booking under the repository lock.
+     *
+     * @param entity The booking to create.
+     * @return {@link BookingOutcome#BOOKED} if the booking was stored, otherwise the reason it was rejected.
+     */
+    private synchronized BookingOutcome createBooking(Booking entity) {
+        advanceHolds(clock.millis());
+
+        // check lesson-student grade
+        if (inValidGradeMatch(entity)) {
+            return BookingOutcome.GRADE_MISMATCH;
+        }
+
+        // check lesson vacancy;
+        if (validateVacancy(entity.getLesson())) {
+            return BookingOutcome.NO_VACANCY;
+        }
+
+        // check for a duplicate booking
+        if (validateDuplicateBooking(entity)) {
+            return BookingOutcome.DUPLICATE_BOOKING;
+        }
+
+        // check for another lesson at the same time
+        if (validateTimeSlotClash(entity.getLearner(), entity.getLesson())) {
+            return BookingOutcome.TIME_CLASH;
+        }
+
+        // Reduce lesson vacancy
+        entity.getLesson().incrementBySize();
+        bookedSeats.incrementAndGet();
+
+        store(entity);
+        bookingKeys.add(key(entity.getLearner(), entity.getLesson()));
+        takeSlot(entity.getLearner(), entity.getLesson());
+        record(BookingEventType.CREATED, entity);
+
+        return BookingOutcome.BOOKED;
+    }
+
+
+    /**
+     * Creates many bookings at once, such as a whole class enrolling in the same lessons.
+     *
+     * <p>
+     * All bookings are validated against a single snapshot of lesson vacancies and existing bookings,
+     * then committed together. Bookings for the same lesson are all-or-nothing: if one of them is rejected,
+     * or together they need more seats than the lesson has, none of them is stored.
+     * Bookings for different lessons succeed or fail independently.
+     * </p>
+     *
+     * @param entities The bookings to create.
+     * @return The outcome of each booking, in the same order as the bookings.
+     */
+    public List<BookingOutcome> createAll(List<Booking> entities) {
+        long start = System.nanoTime();
+        BookingOperationEvent event = BookingOperationEvent.start();
+
+        List<BookingOutcome> outcomes = createBookings(entities);
+
+        for (BookingOutcome outcome : outcomes) {
+            Exception failure = rejection(outcome);
+            if (failure != null) {
+                metrics.reject(Operation.BULK_CREATE, failure);
+            }
+        }
+
+        finish(Operation.BULK_CREATE, start, event, null, null, null);
+        return outcomes;
+    }
+
+    /**
+     * Validates and stores a group of bookings under the repository lock.
+     *
+     * @param entities The bookings to create.
+     * @return The outcome of each booking, in the same order as the bookings.
+     */
+    private synchronized List<BookingOutcome> createBookings(List<Booking> entities) {
+        advanceHolds(clock.millis());
+
+        BookingOutcome[] outcomes = new BookingOutcome[entities.size()];
+
+        // Group the bookings by lesson, keeping their positions
+        Map<Lesson, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < entities.size(); i++) {
+            groups.computeIfAbsent(entities.get(i).getLesson(), k -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<Lesson, List<Integer>> group : groups.entrySet()) {
+            Lesson lesson = group.getKey();
+            List<Integer> positions = group.getValue();
+
+            // Validate every booking of the lesson against the snapshot and the rest of the group
+            Set<Long> groupKeys = new HashSet<>();
+            boolean valid = true;
+
+            for (int i : positions) {
+                Booking entity = entities.get(i);
+                long key = key(entity.getLearner(), lesson);
+
+                if (inValidGradeMatch(entity)) {
+                    outcomes[i] = BookingOutcome.GRADE_MISMATCH;
+                } else if (bookingKeys.contains(key) || !groupKeys.add(key)) {
+                    outcomes[i] = BookingOutcome.DUPLICATE_BOOKING;
+                } else if (validateTimeSlotClash(entity.getLearner(), lesson)) {
+                    // Lessons committed earlier in the batch have already taken their slots
+                    outcomes[i] = BookingOutcome.TIME_CLASH;
+                }
+
+                valid &= outcomes[i] == null;
+            }
+
+            if (valid && lesson.getVacancy() < positions.size()) {
+                // Not enough seats for the whole group
+                for (int i : positions) {
+                    outcomes[i] = BookingOutcome.NO_VACANCY;
+                }
+            } else if (!valid) {
+                for (int i : positions) {
+                    if (outcomes[i] == null) {
+                        outcomes[i] = BookingOutcome.GROUP_REJECTED;
+                    }
+                }
+            } else {
+                // Commit the whole group
+                for (int i : positions) {
+                    Booking entity = entities.get(i);
+
+                    lesson.incrementBySize();
+                    bookedSeats.incrementAndGet();
+
+                    store(entity);
+                    bookingKeys.add(key(entity.getLearner(), lesson));
+                    takeSlot(entity.getLearner(), lesson);
+                    record(BookingEventType.CREATED, entity);
+                    outcomes[i] = BookingOutcome.BOOKED;
+                }
+            }
+        }
+
+        return Arrays.asList(outcomes);
+    }
+
+    /**
+     * Allocates lesson seats to booking requests collected over a release window, by a seeded lottery instead of
+     * first come first served.
+     *
+     * <p>
+     * The requests of each learner are taken in the order the learner made them. The learners are shuffled, then
+     * the seats are allocated in rounds: every learner gets their next request in each round, until they reach the
+     * limit or run out of requests. Every request is validated like a single booking.
+     * The whole allocation is a single pass under the repository lock.
+     * </p>
+     *
+     * @param entities        The booking requests collected over the window.
+     * @param seed            The lottery seed, the same seed and requests give the same allocation.
+     * @param perLearnerLimit The largest number of bookings a learner can get from the release.
+     * @return The outcome of each request, in the same order as the requests.
+     */
+    public List<BookingOutcome> allocate(List<Booking> entities, long seed, int perLearnerLimit) {
+        long start = System.nanoTime();
+        BookingOperationEvent event = BookingOperationEvent.start();
+
+        List<BookingOutcome> outcomes = allocateSeats(entities, seed, perLearnerLimit);
+
+        for (BookingOutcome outcome : outcomes) {
+            Exception failure = rejection(outcome);
+            if (failure != null) {
+                metrics.reject(Operation.LOTTERY, failure);
+            }
+        }
+
+        finish(Operation.LOTTERY, start, event, null, null, null);
+        return outcomes;
+    }
+
+    /**
+     * Allocates the seats of a release window under the repository lock.
+     *
+     * @param entities        The booking requests collected over the window.
+     * @param seed            The lottery seed.
+     * @param perLearnerLimit The largest number of bookings a learner can get from the release.
+     * @return The outcome of each request, in the same order as the requests.
+     */
+    private synchronized List<BookingOutcome> allocateSeats(List<Booking> entities, long seed, int perLearnerLimit) {
+        advanceHolds(clock.millis());
+
+        BookingOutcome[] outcomes = new BookingOutcome[entities.size()];
+
+        // Requests of each learner in the order they were made
+        Map<Learner, List<Integer>> requests = new LinkedHashMap<>();
+        for (int i = 0; i < entities.size(); i++) {
+            requests.computeIfAbsent(entities.get(i).getLearner(), k -> new ArrayList<>()).add(i);
+        }
+
+        List<List<Integer>> draw = new ArrayList<>(requests.values());
+        Collections.shuffle(draw, new Random(seed));
+
+        int[] booked = new int[draw.size()];
+
+        for (int round = 0; !draw.isEmpty(); round++) {
+            boolean more = false;
+
+            for (int l = 0; l < draw.size(); l++) {
+                List<Integer> positions = draw.get(l);
+
+                if (round >= positions.size()) continue;
+
+                int i = positions.get(round);
+
+                if (booked[l] >= perLearnerLimit) {
+                    outcomes[i] = BookingOutcome.LIMIT_REACHED;
+                } else {
+                    outcomes[i] = createBooking(entities.get(i));
+                    if (outcomes[i].isBooked()) booked[l]++;
+                }
+
+                more |= round + 1 < positions.size();
+            }
+
+            if (!more) break;
+        }
+
+        return Arrays.asList(outcomes);
+    }
+
+    /**
+     * Loads bookings that were already validated outside the repository, such as generated data sets.
+     * The grade, vacancy, duplicate and clash checks are skipped, so the caller is responsible for the booking rules
+     * and for the lesson sizes of the loaded bookings.
+     * Loaded bookings are recorded as created, cancelled and attended now, unless they already carry those times.
+     *
+     * @param bookings The bookings to add to the repository.
+     */
+    public synchronized void load(Collection<Booking> bookings) {
+        for (Booking booking : bookings) {
+            store(booking);
+            bookingKeys.add(key(booking.getLearner(), booking.getLesson()));
+            index(booking);
+
+            if (!booking.getCancellationStatus()) {
+                bookedSeats.incrementAndGet();
+                takeSlot(booking.getLearner(), booking.getLesson());
+            }
+        }
+    }
+
+    /**
+     * Removes all bookings from the repository.
+     */
+    @Override
+    public synchronized void removeAll() {
+        db.clear();
+        byId.clear();
+        byLearner.clear();
+        events.clear();
+        learnerEvents.clear();
+        bookingKeys.clear();
+        learnerSlots.clear();
+        rosters.clear();
+        waitlists.clear();
+        requests.clear();
+
+        for (TimingWheel.Timeout<SeatHold> timeout : holds.values()) {
+            timeout.cancel();
+        }
+        holds.clear();
+        bookedSeats.set(0);
+    }
+
+    /**
+     * Updates the attendance status of a booking to indicate that the learner has attended the lesson.
+     *
+     * @param entity The booking to mark as attended.
+     * @return The updated booking.
+     * @throws BookingCancelledException If the booking has already been cancelled.
+     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the lesson.
+     */
+    public Booking attend(Booking entity) throws BookingCancelledException, GradeMisMatchException {
+        long start = System.nanoTime();
+        BookingOperationEvent event = BookingOperationEvent.start();
+        AdmissionControl.Permit permit = admit(Operation.ATTEND, start, event, entity.getLearner(), entity.getLesson());
+        Exception failure = null;
+        try {
+            return attendBooking(entity);
+        } catch (BookingCancelledException | GradeMisMatchException e) {
+            failure = e;
+            throw e;
+        } finally {
+            finish(Operation.ATTEND, start, event, entity.getLearner(), entity.getLesson(), failure);
+            permit.close();
+        }
+    }
+
+    /**
+     * Marks a booking as attended once per client request. A retry of the request returns the original result.
+     *
+     * @param entity    The booking to mark as attended.
+     * @param requestId The client request ID, or null to always attend.
+     * @return The updated booking.
+     * @throws BookingCancelledException If the booking has already been cancelled.
+     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the lesson.
+     * @throws IllegalArgumentException If the request ID was already used for a different request.
+     */
+    public Booking attend(Booking entity, String requestId) throws BookingCancelledException, GradeMisMatchException {
+        Object result = replay(Operation.ATTEND, requestId, fingerprint(entity), () -> attend(entity));
+
+        rethrow(result, BookingCancelledException.class);
+        rethrow(result, GradeMisMatchException.class);
+        return (Booking) result;
+    }
+
+    /**
+     * Marks a booking as attended under the repository lock.
+     *
+     * @param entity The booking to mark as attended.
+     * @return The updated booking.
+     * @throws BookingCancelledException If the booking has already been cancelled.
+     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the lesson.
+     */
+    private synchronized Booking attendBooking(Booking entity) throws BookingCancelledException, GradeMisMatchException {
+        if (entity.getAttendanceStatus()) {
+            return entity;
+        }
+
+        if (entity.getCancellationStatus()) {
+            throw new BookingCancelledException();
+        }
+
+        if (inValidGradeMatch(entity)) {
+            // Learner's grade has been updated since they last booked the lesson
+            // So we cancel the booking and free up lesson vacancy
+            entity.setCancellationStatus();
+            bookedSeats.decrementAndGet();
+            freeSlot(entity.getLearner(), entity.getLesson());
+            record(BookingEventType.CANCELLED, entity);
+            promote(entity.getLesson());
+
+            // Then throw a grade mismatch error
+            throw new GradeMisMatchException();
+        }
+
+        // Ensure learner's grade is still in range of lesson grade
+        entity.setAttendanceStatus();
+        record(BookingEventType.ATTENDED, entity);
+
+        return entity;
+    }
+
+    /**
+     * Marks every active booking of a lesson as attended in one call, with the same rules as {@link #attend(Booking)}:
+     * learners are promoted to the lesson grade, and bookings whose learner's grade no longer matches the lesson are
+     * cancelled, freeing their seats for the waitlist. Bookings promoted from the waitlist by those cancellations are
+     * left for the next call.
+     *
+     * @param ls The lesson that took place.
+     * @return The bookings of the roster, each either attended or cancelled for a grade mismatch.
+     */
+    public List<Booking> attendAll(Lesson ls) {
+        long start = System.nanoTime();
+        BookingOperationEvent event = BookingOperationEvent.start();
+        AdmissionControl.Permit permit = admit(Operation.BULK_ATTEND, start, event, null, ls);
+        try {
+            List<Booking> roster = attendRoster(ls);
+
+            for (Booking booking : roster) {
+                if (booking.getCancellationStatus()) {
+                    metrics.reject(Operation.BULK_ATTEND, GradeMisMatchException.STACKLESS);
+                }
+            }
+
+            finish(Operation.BULK_ATTEND, start, event, null, ls, null);
+            return roster;
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Marks the roster of a lesson as attended under the repository lock.
+     *
+     * @param ls The lesson that took place.
+     * @return The bookings of the roster, each either attended or cancelled for a grade mismatch.
+     */
+    private synchronized List<Booking> attendRoster(Lesson ls) {
+        List<Booking> roster = readRoster(ls);
+
+        for (Booking booking : roster) {
+            try {
+                attendBooking(booking);
+            } catch (BookingCancelledException | GradeMisMatchException e) {
+                // Roster bookings are never cancelled, and a grade mismatch has cancelled the booking
+            }
+        }
+
+        return roster;
+    }
+
+    /**
+     * Retrieves the active bookings of a lesson without scanning the bookings.
+     *
+     * @param ls The lesson.
+     * @return The bookings holding a seat in the lesson, in the order they took it.
+     */
+    public synchronized List<Booking> readRoster(Lesson ls) {
+        Booking[] roster = rosters.get(ls.getId());
+
+        if (roster == null) return new ArrayList<>();
+
+        List<Booking> bookings = new ArrayList<>(roster.length);
+        for (Booking booking : roster) {
+            if (booking == null) break;
+            bookings.add(booking);
+        }
+
+        return bookings;
+    }
+
+    /**
+     * Cancels a booking, marking it as cancelled in the repository.
+     *
+     * @param entity The booking to cancel.
+     * @return The updated booking.
+     * @throws BookingAttendedException If the booking has already been attended.
+     */
+    public Booking cancel(Booking entity) throws BookingAttendedException {
+        long start = System.nanoTime();
+        BookingOperationEvent event = BookingOperationEvent.start();
+        AdmissionControl.Permit permit = admit(Operation.CANCEL, start, event, entity.getLearner(), entity.getLesson());
+        Exception failure = null;
+        try {
+            return cancelBooking(entity);
+        } catch (BookingAttendedException e) {
+            failure = e;
+            throw e;
+        } finally {
+            finish(Operation.CANCEL, start, event, entity.getLearner(), entity.getLesson(), failure);
+            permit.close();
+        }
+    }
+
+    /**
+     * Cancels a booking once per client request. A retry of the request returns the original result.
+     *
+     * @param entity    The booking to cancel.
+     * @param requestId The client request ID, or null to always cancel.
+     * @return The updated booking.
+     * @throws BookingAttendedException If the booking has already been attended.
+     * @throws IllegalArgumentException If the request ID was already used for a different request.
+     */
+    public Booking cancel(Booking entity, String requestId) throws BookingAttendedException {
+        Object result = replay(Operation.CANCEL, requestId, fingerprint(entity), () -> cancel(entity));
+
+        rethrow(result, BookingAttendedException.class);
+        return (Booking) result;
+    }
+
+    /**
+     * Cancels a booking under the repository lock.
+     *
+     * @param entity The booking to cancel.
+     * @return The updated booking.
+     * @throws BookingAttendedException If the booking has already been attended.
+     */
+    private synchronized Booking cancelBooking(Booking entity) throws BookingAttendedException {
+        // Booking Attended?
+        if (entity.getAttendanceStatus()) {
+            // Throw Booking attended exception
+            throw new BookingAttendedException();
+        }
+
+        // Booking previously cancelled?
+        if (entity.getCancellationStatus()) {
+            return entity;
+        }
+
+        // Cancel the booking
+        entity.setCancellationStatus();
+        bookedSeats.decrementAndGet();
+        freeSlot(entity.getLearner(), entity.getLesson());
+        record(BookingEventType.CANCELLED, entity);
+
+        // Hand the seat to the next learner waiting for it
+        promote(entity.getLesson());
+
+        return entity;
+    }
+
+    /**
+     * Changes a booking to a new lesson.
+     *
+     * @param entity    The booking to change.
+     * @param newLesson The new lesson to book.
+     * @return The updated booking.
+     * @throws BookingAttendedException  If the booking has already been attended.
+     * @throws BookingCancelledException If the booking has already been cancelled.
+     * @throws NoVacancyException        If there is no vacancy available for the new lesson.
+     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the new lesson.
+     * @throws DuplicateBookingException If a duplicate booking already exists for the new lesson.
+     */
+    public Booking change(Booking entity, Lesson newLesson) throws BookingAttendedException, BookingCancelledException, NoVacancyException, GradeMisMatchException, DuplicateBookingException {
+        long start = System.nanoTime();
+        BookingOperationEvent event = BookingOperationEvent.start();
+        AdmissionControl.Permit permit = admit(Operation.CHANGE, start, event, entity.getLearner(), newLesson);
+        Exception failure = null;
+        try {
+            return changeBooking(entity, newLesson);
+        } catch (BookingAttendedException | BookingCancelledException | NoVacancyException | GradeMisMatchException |
+                 DuplicateBookingException e) {
+            failure = e;
+            throw e;
+        } finally {
+            finish(Operation.CHANGE, start, event, entity.getLearner(), newLesson, failure);
+            permit.close();
+        }
+    }
+
+    /**
+     * Changes a booking to a new lesson once per client request. A retry of the request returns the original result
+     * instead of moving the booking again.
+     *
+     * @param entity    The booking to change.
+     * @param newLesson The new lesson to book.
+     * @param requestId The client request ID, or null to always change.
+     * @return The updated booking.
+     * @throws BookingAttendedException  If the booking has already been attended.
+     * @throws BookingCancelledException If the booking has already been cancelled.
+     * @throws NoVacancyException        If there is no vacancy available for the new lesson.
+     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the new lesson.
+     * @throws DuplicateBookingException If a duplicate booking already exists for the new lesson.
+     * @throws IllegalArgumentException If the request ID was already used for a different request.
+     */
+    public Booking change(Booking entity, Lesson newLesson, String requestId) throws BookingAttendedException, BookingCancelledException, NoVacancyException, GradeMisMatchException, DuplicateBookingException {
+        Object result = replay(Operation.CHANGE, requestId, fingerprint(entity) + fingerprint(entity.getLearner(), newLesson),
+                () -> change(entity, newLesson));
+
+        rethrow(result, BookingAttendedException.class);
+        rethrow(result, BookingCancelledException.class);
+        rethrow(result, NoVacancyException.class);
+        rethrow(result, GradeMisMatchException.class);
+        rethrow(result, DuplicateBookingException.class);
+        return (Booking) result;
+    }
+
+    /**
+     * Moves a booking to a new lesson under the repository lock.
+     *
+     * @param entity    The booking to change.
+     * @param newLesson The new lesson to book.
+     * @return The updated booking.
+     * @throws BookingAttendedException  If the booking has already been attended.
+     * @throws BookingCancelledException If the booking has already been cancelled.
+     * @throws NoVacancyException        If there is no vacancy available for the new lesson.
+     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the new lesson.
+     * @throws DuplicateBookingException If a duplicate booking already exists for the new lesson,
+     *                                   or the learner has another lesson at the same time.
+     */
+    private synchronized Booking changeBooking(Booking entity, Lesson newLesson) throws BookingAttendedException, BookingCancelledException, NoVacancyException, GradeMisMatchException, DuplicateBookingException {
+        advanceHolds(clock.millis());
+
+        // Booking Attended?
+        if (entity.getAttendanceStatus()) {
+            throw new BookingAttendedException();
+        }
+
+        // Booking cancelled?
+        if (entity.getCancellationStatus()) {
+            throw new BookingCancelledException();
+        }
+
+        // Vacancy in the new lesson?
+        if (validateVacancy(newLesson)) {
+            throw NoVacancyException.STACKLESS;
+        }
+
+        // Learner's grade match new lesson's grade?
+        if (inValidGradeMatch(entity, newLesson)) {
+            throw GradeMisMatchException.STACKLESS;
+        }
+
+        // Check for duplicates
+        if (validateDuplicateBooking(entity.getLearner(), newLesson)) {
+            throw DuplicateBookingException.STACKLESS;
+        }
+
+        Lesson oldLesson = entity.getLesson();
+
+        // Check for another lesson at the same time, moving within the same slot is allowed
+        if (slot(newLesson) != slot(oldLesson) && validateTimeSlotClash(entity.getLearner(), newLesson)) {
+            throw TimeSlotClashException.STACKLESS;
+        }
+
+        // Decrement old lesson size
+        oldLesson.decrementBySize();
+
+        // Increment new lesson size
+        newLesson.incrementBySize();
+
+        // Change the lesson
+        bookingKeys.remove(key(entity.getLearner(), entity.getLesson()));
+        bookingKeys.add(key(entity.getLearner(), newLesson));
+        freeSlot(entity.getLearner(), oldLesson);
+        takeSlot(entity.getLearner(), newLesson);
+        db.remove(entity);
+        entity.setLesson(newLesson);
+        db.add(entity);
+        record(BookingEventType.CHANGED, entity, oldLesson);
+
+        // Hand the seat left behind to the next learner waiting for it
+        promote(oldLesson);
+
+        return entity;
+    }
+
+    /**
+     * Adds a booking to the waitlist of its lesson when the lesson is full.
+     * The booking is stored as soon as a seat is freed for it, so the caller can keep the booking it passed in.
+     * If the lesson has a vacancy the booking is stored straight away instead.
+     *
+     * @param entity The booking waiting for a seat.
+     * @return {@link BookingOutcome#WAITLISTED} if the booking is waiting, {@link BookingOutcome#BOOKED} if a seat was
+     * free, otherwise the reason the learner cannot take the lesson.
+     */
+    public BookingOutcome waitlist(Booking entity) {
+        long start = System.nanoTime();
+        BookingOperationEvent event = BookingOperationEvent.start();
+        AdmissionControl.Permit permit = admit(Operation.WAITLIST, start, event, entity.getLearner(), entity.getLesson());
+        try {
+            BookingOutcome outcome = joinWaitlist(entity);
+
+            finish(Operation.WAITLIST, start, event, entity.getLearner(), entity.getLesson(), rejection(outcome));
+            return outcome;
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Adds a booking to the waitlist of its lesson under the repository lock.
+     *
+     * @param entity The booking waiting for a seat.
+     * @return The waitlist outcome.
+     */
+    private synchronized BookingOutcome joinWaitlist(Booking entity) {
+        advanceHolds(clock.millis());
+
+        // The waitlist follows the same rules as booking
+        if (inValidGradeMatch(entity)) {
+            return BookingOutcome.GRADE_MISMATCH;
+        }
+
+        if (validateDuplicateBooking(entity)) {
+            return BookingOutcome.DUPLICATE_BOOKING;
+        }
+
+        if (validateTimeSlotClash(entity.getLearner(), entity.getLesson())) {
+            return BookingOutcome.TIME_CLASH;
+        }
+
+        if (!validateVacancy(entity.getLesson())) {
+            return createBooking(entity);
+        }
+
+        // Joining twice keeps the original place
+        waitlists.computeIfAbsent(entity.getLesson(), k -> new LinkedHashMap<>())
+                .putIfAbsent(entity.getLearner(), entity);
+
+        return BookingOutcome.WAITLISTED;
+    }
+
+    /**
+     * Removes a learner from the waitlist of a lesson.
+     *
+     * @param lnr The learner waiting for a seat.
+     * @param ls  The lesson the learner is waiting for.
+     * @return True if the learner was on the waitlist, otherwise false.
+     */
+    public synchronized boolean leaveWaitlist(Learner lnr, Lesson ls) {
+        LinkedHashMap<Learner, Booking> waitlist = waitlists.get(ls);
+
+        if (waitlist == null || waitlist.remove(lnr) == null) {
+            return false;
+        }
+
+        if (waitlist.isEmpty()) {
+            waitlists.remove(ls);
+        }
+
+        return true;
+    }
+
+    /**
+     * Retrieves the bookings waiting for a seat in a lesson.
+     *
+     * @param ls The lesson.
+     * @return The waiting bookings, head of the waitlist first.
+     */
+    public synchronized List<Booking> readWaitlist(Lesson ls) {
+        LinkedHashMap<Learner, Booking> waitlist = waitlists.get(ls);
+        return waitlist == null ? new ArrayList<>() : new ArrayList<>(waitlist.values());
+    }
+
+    /**
+     * Stores waiting bookings into the free seats of a lesson, head of the waitlist first.
+     * Bookings the learner can no longer take, because their grade changed or they booked the lesson meanwhile,
+     * are dropped. Must be called under the repository lock.
+     *
+     * @param ls The lesson that has freed a seat.
+     */
+    private void promote(Lesson ls) {
+        LinkedHashMap<Learner, Booking> waitlist = waitlists.get(ls);
+
+        if (waitlist == null) return;
+
+        Iterator<Booking> bookings = waitlist.values().iterator();
+
+        while (!validateVacancy(ls) && bookings.hasNext()) {
+            Booking booking = bookings.next();
+            bookings.remove();
+
+            createBooking(booking);
+        }
+
+        if (waitlist.isEmpty()) {
+            waitlists.remove(ls);
+        }
+    }
+
+    /**
+     * Holds a lesson seat for a booking while the learner confirms it.
+     * The seat is taken from the lesson vacancy until the hold is confirmed, released or expires.
+     *
+     * @param entity The booking to hold a seat for.
+     * @param ttl    How long the seat is held for.
+     * @return The seat hold.
+     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the lesson.
+     * @throws DuplicateBookingException If the learner already booked or holds a seat in the lesson.
+     * @throws NoVacancyException        If there is no vacancy available for the lesson.
+     */
+    public SeatHold hold(Booking entity, Duration ttl) throws GradeMisMatchException, DuplicateBookingException, NoVacancyException {
+        long start = System.nanoTime();
+        BookingOperationEvent event = BookingOperationEvent.start();
+        AdmissionControl.Permit permit = admit(Operation.HOLD, start, event, entity.getLearner(), entity.getLesson());
+        Exception failure = null;
+        try {
+            return holdSeat(entity, ttl);
+        } catch (GradeMisMatchException | DuplicateBookingException | NoVacancyException e) {
+            failure = e;
+            throw e;
+        } finally {
+            finish(Operation.HOLD, start, event, entity.getLearner(), entity.getLesson(), failure);
+            permit.close();
+        }
+    }
+
+    /**
+     * Validates a booking and holds its seat under the repository lock.
+     *
+     * @param entity The booking to hold a seat for.
+     * @param ttl    How long the seat is held for.
+     * @return The seat hold.
+     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the lesson.
+     * @throws DuplicateBookingException If the learner already booked or holds a seat in the lesson.
+     * @throws NoVacancyException        If there is no vacancy available for the lesson.
+     */
+    private synchronized SeatHold holdSeat(Booking entity, Duration ttl) throws GradeMisMatchException, DuplicateBookingException, NoVacancyException {
+        advanceHolds(clock.millis());
+
+        if (inValidGradeMatch(entity)) {
+            throw GradeMisMatchException.STACKLESS;
+        }
+
+        if (validateVacancy(entity.getLesson())) {
+            throw NoVacancyException.STACKLESS;
+        }
+
+        if (validateDuplicateBooking(entity)) {
+            throw DuplicateBookingException.STACKLESS;
+        }
+
+        if (validateTimeSlotClash(entity.getLearner(), entity.getLesson())) {
+            throw TimeSlotClashException.STACKLESS;
+        }
+
+        // Take the seat and block duplicates and clashes until the hold ends
+        entity.getLesson().incrementBySize();
+        bookingKeys.add(key(entity.getLearner(), entity.getLesson()));
+        takeSlot(entity.getLearner(), entity.getLesson());
+
+        SeatHold hold = new SeatHold(entity, clock.millis() + ttl.toMillis());
+        holds.put(hold, holdExpiry.schedule(hold, hold.getExpiresAt()));
+        publishVacancy(entity.getLesson());
+
+        return hold;
+    }
+
+    /**
+     * Confirms a seat hold, storing its booking in the seat that was held.
+     *
+     * @param hold The seat hold to confirm.
+     * @return The stored booking.
+     * @throws HoldExpiredException If the hold has expired or was released.
+     */
+    public Booking confirm(SeatHold hold) throws HoldExpiredException {
+        long start = System.nanoTime();
+        BookingOperationEvent event = BookingOperationEvent.start();
+        AdmissionControl.Permit permit = admit(Operation.CONFIRM, start, event, hold.getBooking().getLearner(), hold.getBooking().getLesson());
+        Exception failure = null;
+        try {
+            return confirmHold(hold);
+        } catch (HoldExpiredException e) {
+            failure = e;
+            throw e;
+        } finally {
+            finish(Operation.CONFIRM, start, event, hold.getBooking().getLearner(), hold.getBooking().getLesson(), failure);
+            permit.close();
+        }
+    }
+
+    /**
+     * Stores the booking of a seat hold under the repository lock.
+     *
+     * @param hold The seat hold to confirm.
+     * @return The stored booking.
+     * @throws HoldExpiredException If the hold has expired or was released.
+     */
+    private synchronized Booking confirmHold(SeatHold hold) throws HoldExpiredException {
+        advanceHolds(clock.millis());
+
+        TimingWheel.Timeout<SeatHold> timeout = holds.remove(hold);
+
+        if (timeout == null) {
+            throw new HoldExpiredException();
+        }
+
+        timeout.cancel();
+        hold.setReleased();
+
+        // The seat and the duplicate key were taken when the seat was held
+        bookedSeats.incrementAndGet();
+        store(hold.getBooking());
+        record(BookingEventType.CREATED, hold.getBooking());
+
+        return hold.getBooking();
+    }
+
+    /**
+     * Releases a seat hold before it expires, giving the seat back to the lesson.
+     *
+     * @param hold The seat hold to release.
+     * @return True if the hold was active, otherwise false.
+     */
+    public synchronized boolean release(SeatHold hold) {
+        TimingWheel.Timeout<SeatHold> timeout = holds.remove(hold);
+
+        if (timeout == null) {
+            return false;
+        }
+
+        timeout.cancel();
+        freeHold(hold);
+
+        return true;
+    }
+
+    /**
+     * Releases every seat hold that has expired.
+     * Booking operations call this themselves, so it is only needed to free seats while no bookings are made.
+     *
+     * @return The number of holds released.
+     */
+    public synchronized int expireHolds() {
+        return advanceHolds(clock.millis());
+    }
+
+    /**
+     * Moves the hold timing wheel forward, releasing every seat hold that has expired by then.
+     * Must be called under the repository lock.
+     *
+     * @param now The current time, in milliseconds.
+     * @return The number of holds released.
+     */
+    private int advanceHolds(long now) {
+        int before = holds.size();
+
+        holdExpiry.advance(now, hold -> {
+            holds.remove(hold);
+            freeHold(hold);
+        });
 
-        db.add(booking1);
-        db.add(booking2);
+        return before - holds.size();
     }
 
     /**
-     * Retrieves all bookings from the repository.
+     * Retrieves the number of active seat holds.
      *
-     * @return A list of all bookings stored in the repository.
+     * @return The number of held seats.
      */
-    @Override
-    public List<Booking> read() {
-        return db;
+    public synchronized int getHoldCount() {
+        return holds.size();
     }
 
-
     /**
-     * Retrieves bookings associated with a specific learner.
+     * Gives the seat of an ended hold back to its lesson and to the lesson waitlist.
+     * Must be called under the repository lock.
      *
-     * @param learner The learner for which bookings are to be retrieved.
-     * @return A list of bookings associated with the specified learner.
+     * @param hold The ended seat hold.
      */
-    public List<Booking> read(Learner learner) {
-        List<Booking> bookings = new ArrayList<>();
-        for (Booking booking : db) {
-            if (booking.getLearner().equals(learner)) {
-                bookings.add(booking);
-            }
-        }
+    private void freeHold(SeatHold hold) {
+        Booking booking = hold.getBooking();
 
-        return bookings;
+        hold.setReleased();
+        booking.getLesson().decrementBySize();
+        bookingKeys.remove(key(booking.getLearner(), booking.getLesson()));
+        freeSlot(booking.getLearner(), booking.getLesson());
+        publishVacancy(booking.getLesson());
+
+        promote(booking.getLesson());
     }
 
     /**
-     * Retrieves filtered bookings associated with a specific learner.
+     * Runs a client request once, remembering its result or rejection for retries with the same request ID.
+     * A retry that arrives while the original request is still running waits for its result.
+     * Unchecked exceptions, such as a shed request, are not remembered so the request can be retried.
+     * A request ID reused for a different request, told apart by its fingerprint, is rejected rather than answered
+     * with the result of the other request.
      *
-     * @param learner The learner for which bookings are to be retrieved.
-     * @param filter  The filter to apply to the bookings (e.g. "cancelled", "attended").
-     * @return A list of filtered bookings associated with the specified learner.
+     * @param operation   The operation the request runs.
+     * @param requestId   The client request ID, or null to run the request without remembering it.
+     * @param fingerprint The IDs of the learner, lesson or booking the request is about.
+     * @param request     The request.
+     * @return The result of the request, or the checked exception it was rejected with.
+     * @throws IllegalArgumentException If the request ID was already used for a request with another fingerprint.
      */
-    public List<Booking> read(Learner learner, String filter) {
-        List<Booking> bookings = new ArrayList<>();
+    private Object replay(Operation operation, String requestId, String fingerprint, Request request) {
+        String key = operation + "/" + requestId;
+        CompletableFuture<Object> result = null;
+        boolean original = true;
 
-        for (Booking booking : db) {
-            if (booking.getLearner().equals(learner) && filter.equals("cancelled") && booking.getCancellationStatus()) {
-                bookings.add(booking);
-            } else if (booking.getLearner().equals(learner) && filter.equals("attended") && booking.getAttendanceStatus()) {
-                bookings.add(booking);
+        if (requestId != null) {
+            synchronized (this) {
+                long now = clock.millis();
+                RememberedRequest remembered = requests.get(key, now);
+                original = remembered == null;
+
+                if (original) {
+                    result = new CompletableFuture<>();
+                    requests.put(key, new RememberedRequest(fingerprint, result), now);
+                } else if (!remembered.fingerprint().equals(fingerprint)) {
+                    throw new IllegalArgumentException("Request ID " + requestId + " was already used for another "
+                            + operation + " request");
+                } else {
+                    result = remembered.result();
+                }
             }
         }
 
-        return bookings;
+        if (!original) {
+            replays.increment();
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) throw error;
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        Object value;
+        try {
+            value = request.run();
+        } catch (RuntimeException | Error e) {
+            if (result != null) {
+                synchronized (this) {
+                    requests.remove(key);
+                }
+                result.completeExceptionally(e);
+            }
+            throw e;
+        } catch (Exception e) {
+            value = e;
+        }
+
+        if (result != null) {
+            result.complete(value);
+        }
+
+        return value;
     }
 
     /**
-     * Retrieves a booking by its unique identifier from the repository.
+     * Throws the result of a request if it is a rejection of the given type.
      *
-     * @param id The unique identifier of the booking.
-     * @return The booking corresponding to the given identifier, or null if not found.
+     * @param result The result of the request.
+     * @param type   The rejection type.
+     * @param <E>    The rejection type.
+     * @throws E If the result is a rejection of the given type.
      */
-    @Override
-    public Booking readById(Integer id) {
-        for (Booking booking : db) {
-            if (booking.getId() == id) {
-                return booking;
-            }
+    private static <E extends Exception> void rethrow(Object result, Class<E> type) throws E {
+        if (type.isInstance(result)) {
+            throw type.cast(result);
         }
-        return null;
     }
 
     /**
-     * Creates a new booking in the repository.
+     * Fingerprints the payload of a request about a booking.
      *
-     * @param entity The booking to create.
-     * @return The created booking.
-     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the lesson.
-     * @throws DuplicateBookingException If a duplicate booking already exists.
-     * @throws NoVacancyException        If there is no vacancy available for the lesson.
+     * @param entity The booking.
+     * @return The fingerprint of the request.
      */
-    @Override
-    public Booking create(Booking entity) throws GradeMisMatchException, DuplicateBookingException, NoVacancyException {
-        // check lesson-student grade
-        if (inValidGradeMatch(entity)) {
-            throw new GradeMisMatchException();
-        }
-
-        // check lesson vacancy;
-        if (validateVacancy(entity.getLesson())) {
-            throw new NoVacancyException();
-        }
-
-        // check for a duplicate booking
-        if (validateDuplicateBooking(entity)) {
-            throw new DuplicateBookingException();
-        }
-
-        // Reduce lesson vacancy
-        entity.getLesson().incrementBySize();
-
-        db.add(entity);
+    private static String fingerprint(Booking entity) {
+        return "booking=" + entity.getId() + ";";
+    }
 
-        return entity;
+    /**
+     * Fingerprints the payload of a request for a learner to take a lesson.
+     *
+     * @param lnr The learner.
+     * @param ls  The lesson.
+     * @return The fingerprint of the request.
+     */
+    private static String fingerprint(Learner lnr, Lesson ls) {
+        return "learner=" + lnr.getId() + ";lesson=" + ls.getId() + ";";
     }
 
+    /**
+     * The result of a client request and the fingerprint of its payload, remembered for retries.
+     *
+     * @param fingerprint The fingerprint of the request payload.
+     * @param result      The result, completed once the request has run.
+     */
+    private record RememberedRequest(String fingerprint, CompletableFuture<Object> result) {
+    }
 
     /**
-     * Removes all bookings from the repository.
+     * A client request run through the request cache.
      */
-    @Override
-    public void removeAll() {
-        db.clear();
+    private interface Request {
+        /**
+         * Runs the request.
+         *
+         * @return The result of the request.
+         * @throws Exception If the request is rejected.
+         */
+        Object run() throws Exception;
     }
 
     /**
-     * Updates the attendance status of a booking to indicate that the learner has attended the lesson.
+     * Admits a booking request, recording it as rejected when it is shed. The operation timer is started before,
+     * so the time spent waiting for a permit is part of the operation latency.
      *
-     * @param entity The booking to mark as attended.
-     * @return The updated booking.
-     * @throws BookingCancelledException If the booking has already been cancelled.
-     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the lesson.
+     * @param operation The operation requested.
+     * @param start     The {@link System#nanoTime()} reading taken when the operation started.
+     * @param event     The Flight Recorder event started with the operation.
+     * @param learner   The learner of the booking.
+     * @param lesson    The lesson the request changes.
+     * @return The permit, to be closed when the request completes.
+     * @throws OverloadedException If the request was shed.
      */
-    public Booking attend(Booking entity) throws BookingCancelledException, GradeMisMatchException {
-        if (entity.getAttendanceStatus()) {
-            return entity;
-        }
-
-        if (entity.getCancellationStatus()) {
-            throw new BookingCancelledException();
+    private AdmissionControl.Permit admit(Operation operation, long start, BookingOperationEvent event, Learner learner,
+                                          Lesson lesson) {
+        try {
+            return admission.acquire(lesson);
+        } catch (OverloadedException e) {
+            finish(operation, start, event, learner, lesson, e);
+            throw e;
         }
+    }
 
-        if (inValidGradeMatch(entity)) {
-            // Learner's grade has been updated since they last booked the lesson
-            // So we cancel the booking and free up lesson vacancy
-            entity.setCancellationStatus();
+    /**
+     * Records a finished booking operation in the metrics and the Flight Recorder.
+     *
+     * @param operation The operation that ran.
+     * @param start     The {@link System#nanoTime()} reading taken when the operation started.
+     * @param event     The Flight Recorder event started with the operation.
+     * @param learner   The learner of the booking.
+     * @param lesson    The lesson booked, or the new lesson of a change.
+     * @param failure   The exception the operation was rejected with, or null on success.
+     */
+    private void finish(Operation operation, long start, BookingOperationEvent event, Learner learner, Lesson lesson,
+                        Exception failure) {
+        metrics.record(operation, start);
 
-            // Then throw a grade mismatch error
-            throw new GradeMisMatchException();
+        if (failure != null) {
+            metrics.reject(operation, failure);
         }
 
-        // Ensure learner's grade is still in range of lesson grade
-        entity.setAttendanceStatus();
+        event.complete(operation, learner, lesson, failure);
+    }
 
-        return entity;
+    /**
+     * Stamps a change that kept the lesson of a booking with the current time and records it in the time indexes.
+     *
+     * @param type   The type of change.
+     * @param entity The booking that changed.
+     */
+    private void record(BookingEventType type, Booking entity) {
+        record(type, entity, null);
     }
 
     /**
-     * Cancels a booking, marking it as cancelled in the repository.
+     * Stamps a change on a booking with the current time and records it in the time indexes.
      *
-     * @param entity The booking to cancel.
-     * @return The updated booking.
-     * @throws BookingAttendedException If the booking has already been attended.
+     * @param type           The type of change.
+     * @param entity         The booking that changed.
+     * @param previousLesson The lesson the booking moved from, or null unless it changed lesson.
      */
-    public Booking cancel(Booking entity) throws BookingAttendedException {
-        // Booking Attended?
-        if (entity.getAttendanceStatus()) {
-            // Throw Booking attended exception
-            throw new BookingAttendedException();
-        }
+    private void record(BookingEventType type, Booking entity, Lesson previousLesson) {
+        Instant now = clock.instant();
 
-        // Booking previously cancelled?
-        if (entity.getCancellationStatus()) {
-            return entity;
+        switch (type) {
+            case CREATED -> {
+                entity.setCreatedAt(now);
+                enroll(entity);
+            }
+            case CHANGED -> {
+                entity.setChangedAt(now);
+                unenroll(entity, previousLesson);
+                enroll(entity);
+            }
+            case CANCELLED -> {
+                entity.setCancelledAt(now);
+                unenroll(entity, entity.getLesson());
+            }
+            case ATTENDED -> entity.setAttendedAt(now);
         }
 
-        // Cancel the booking
-        entity.setCancellationStatus();
-
-        return entity;
+        index(new BookingEvent(type, entity, entity.getLesson(), previousLesson, now));
     }
 
     /**
-     * Changes a booking to a new lesson.
+     * Records the creation, cancellation and attendance of a loaded booking, keeping the times it already carries.
      *
-     * @param entity    The booking to change.
-     * @param newLesson The new lesson to book.
-     * @return The updated booking.
-     * @throws BookingAttendedException  If the booking has already been attended.
-     * @throws BookingCancelledException If the booking has already been cancelled.
-     * @throws NoVacancyException        If there is no vacancy available for the new lesson.
-     * @throws GradeMisMatchException    If the grade of the learner does not match the grade of the new lesson.
-     * @throws DuplicateBookingException If a duplicate booking already exists for the new lesson.
+     * @param entity The loaded booking.
      */
-    public Booking change(Booking entity, Lesson newLesson) throws BookingAttendedException, BookingCancelledException, NoVacancyException, GradeMisMatchException, DuplicateBookingException {
-        // Booking Attended?
+    private void index(Booking entity) {
+        Instant now = clock.instant();
+
+        if (!entity.getCancellationStatus()) enroll(entity);
+
+        if (entity.getCreatedAt() == null) entity.setCreatedAt(now);
+        index(new BookingEvent(BookingEventType.CREATED, entity, entity.getLesson(), null, entity.getCreatedAt()));
+
+        if (entity.getCancellationStatus()) {
+            if (entity.getCancelledAt() == null) entity.setCancelledAt(now);
+            index(new BookingEvent(BookingEventType.CANCELLED, entity, entity.getLesson(), null, entity.getCancelledAt()));
+        }
+
         if (entity.getAttendanceStatus()) {
-            throw new BookingAttendedException();
+            if (entity.getAttendedAt() == null) entity.setAttendedAt(now);
+            index(new BookingEvent(BookingEventType.ATTENDED, entity, entity.getLesson(), null, entity.getAttendedAt()));
         }
+    }
 
-        // Booking cancelled?
-        if (entity.getCancellationStatus()) {
-            throw new BookingCancelledException();
+    /**
+     * Adds a booking event to the time index of every learner and to the index of its learner.
+     *
+     * @param bookingEvent The booking event.
+     */
+    private void index(BookingEvent bookingEvent) {
+        events.add(bookingEvent.time(), bookingEvent);
+        learnerEvents.computeIfAbsent(bookingEvent.booking().getLearner().getId(), id -> new TimeIndex<>())
+                .add(bookingEvent.time(), bookingEvent);
+
+        if (eventLog != null && !restoring) {
+            eventLog.append(toLogEvent(bookingEvent));
         }
 
-        // Vacancy in the new lesson?
-        if (validateVacancy(newLesson)) {
-            throw new NoVacancyException();
+        for (Consumer<BookingEvent> listener : listeners) {
+            listener.accept(bookingEvent);
         }
 
-        // Learner's grade match new lesson's grade?
-        if (inValidGradeMatch(entity, newLesson)) {
-            throw new GradeMisMatchException();
+        if (changes.hasSubscribers()) {
+            Booking entity = bookingEvent.booking();
+            changes.publish(new BookingChange(bookingEvent.type(), entity.getId(), entity.getLearner().getId(),
+                    bookingEvent.lesson().getId(), bookingEvent.time()));
+
+            if (bookingEvent.type() != BookingEventType.ATTENDED) {
+                publishVacancy(bookingEvent.lesson());
+            }
+            if (bookingEvent.previousLesson() != null) {
+                publishVacancy(bookingEvent.previousLesson());
+            }
         }
+    }
 
-        // Check for duplicates
-        if (validateDuplicateBooking(entity.getLearner(), newLesson)) {
-            throw new DuplicateBookingException();
+    /**
+     * Publishes the current vacancy of a lesson to the change stream.
+     *
+     * @param ls The lesson whose vacancy changed.
+     */
+    private void publishVacancy(Lesson ls) {
+        if (changes.hasSubscribers()) {
+            changes.publish(new VacancyChange(ls.getId(), ls.getVacancy(), clock.instant()));
         }
+    }
 
-        // Decrement old lesson size
-        entity.getLesson().decrementBySize();
+    /**
+     * Converts a booking event into the log event it is appended as.
+     *
+     * @param bookingEvent The booking event.
+     * @return The log event, referring to the booking, learner and lesson by ID.
+     */
+    private static LogEvent toLogEvent(BookingEvent bookingEvent) {
+        Booking entity = bookingEvent.booking();
+        Lesson lesson = bookingEvent.lesson();
 
-        // Increment new lesson size
-        newLesson.incrementBySize();
+        return switch (bookingEvent.type()) {
+            case CREATED -> new BookingCreated(entity.getId(), entity.getLearner().getId(), lesson.getId(), bookingEvent.time());
+            case CHANGED -> new BookingChanged(entity.getId(), lesson.getId(), bookingEvent.time());
+            case CANCELLED -> new BookingCancelled(entity.getId(), bookingEvent.time());
+            case ATTENDED -> new BookingAttended(entity.getId(), entity.getLearner().getId(), lesson.getGrade(), bookingEvent.time());
+        };
+    }
 
-        // Change the lesson
-        entity.setLesson(newLesson);
-        return entity;
+    /**
+     * Maps a booking outcome to the exception it is reported with.
+     *
+     * @param outcome The booking outcome.
+     * @return The shared stackless exception of a rejection, or null if the booking was stored.
+     */
+    private static Exception rejection(BookingOutcome outcome) {
+        return switch (outcome) {
+            case GRADE_MISMATCH -> GradeMisMatchException.STACKLESS;
+            case NO_VACANCY -> NoVacancyException.STACKLESS;
+            case DUPLICATE_BOOKING -> DuplicateBookingException.STACKLESS;
+            case TIME_CLASH -> TimeSlotClashException.STACKLESS;
+            case BOOKED, GROUP_REJECTED, WAITLISTED, LIMIT_REACHED -> null;
+        };
     }
 
     /**
@@ -289,12 +1982,7 @@ public class BookingRepository implements Repository<Booking, Integer> {
      * @return True if there is a duplicate booking, otherwise false.
      */
     private boolean validateDuplicateBooking(Booking entity) {
-        for (Booking booking : db) {
-            if (booking.getLesson().equals(entity.getLesson()) && booking.getLearner().equals(entity.getLearner())) {
-                return true;
-            }
-        }
-        return false;
+        return validateDuplicateBooking(entity.getLearner(), entity.getLesson());
     }
 
     /**
@@ -305,12 +1993,134 @@ public class BookingRepository implements Repository<Booking, Integer> {
      * @return True if there is a duplicate booking, otherwise false.
      */
     private boolean validateDuplicateBooking(Learner lnr, Lesson ls) {
-        for (Booking booking : db) {
-            if (booking.getLesson().equals(ls) && booking.getLearner().equals(lnr)) {
-                return true;
+        return bookingKeys.contains(key(lnr, ls));
+    }
+
+    /**
+     * Combines a learner and a lesson into the key used by the duplicate booking index.
+     *
+     * @param lnr The learner.
+     * @param ls  The lesson.
+     * @return The booking key.
+     */
+    private static long key(Learner lnr, Lesson ls) {
+        return ((long) lnr.getId() << 32) | (ls.getId() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Checks if a learner already has an active booking or a held seat at the same week, day and time as a lesson.
+     *
+     * @param lnr The learner.
+     * @param ls  The lesson.
+     * @return True if the lesson clashes with another lesson of the learner, otherwise false.
+     */
+    private boolean validateTimeSlotClash(Learner lnr, Lesson ls) {
+        SlotSet slots = learnerSlots.get(lnr.getId());
+        return slots != null && slots.contains(slot(ls));
+    }
+
+    /**
+     * Marks the slot of a lesson as taken by a learner.
+     *
+     * @param lnr The learner.
+     * @param ls  The lesson.
+     */
+    private void takeSlot(Learner lnr, Lesson ls) {
+        learnerSlots.computeIfAbsent(lnr.getId(), k -> new SlotSet()).add(slot(ls));
+    }
+
+    /**
+     * Marks the slot of a lesson as free for a learner.
+     *
+     * @param lnr The learner.
+     * @param ls  The lesson.
+     */
+    private void freeSlot(Learner lnr, Lesson ls) {
+        SlotSet slots = learnerSlots.get(lnr.getId());
+
+        if (slots != null && slots.remove(slot(ls)) && slots.isEmpty()) {
+            learnerSlots.remove(lnr.getId());
+        }
+    }
+
+    /**
+     * Stores a booking in the week partitions and in the ID and learner indexes.
+     *
+     * @param entity The booking to store.
+     */
+    private void store(Booking entity) {
+        db.add(entity);
+        byId.put(entity.getId(), entity);
+        byLearner.computeIfAbsent(entity.getLearner().getId(), id -> new ArrayList<>()).add(entity);
+    }
+
+    /**
+     * Retrieves the bookings of a learner from the learner index, in week order.
+     *
+     * @param learner The learner.
+     * @return The learner's bookings.
+     */
+    private List<Booking> readByLearner(Learner learner) {
+        List<Booking> bookings = new ArrayList<>(byLearner.getOrDefault(learner.getId(), List.of()));
+        bookings.sort(Comparator.comparingInt(booking -> booking.getLesson().getWeek()));
+
+        return bookings;
+    }
+
+    /**
+     * Adds a booking to the roster of its lesson.
+     *
+     * @param entity The booking that took a seat.
+     */
+    private void enroll(Booking entity) {
+        Booking[] roster = rosters.computeIfAbsent(entity.getLesson().getId(), id -> new Booking[LESSON_CAPACITY]);
+
+        for (int i = 0; i < roster.length; i++) {
+            if (roster[i] == null) {
+                roster[i] = entity;
+                return;
+            }
+        }
+
+        // Only loaded bookings skip the vacancy check and can overfill a lesson
+        roster = Arrays.copyOf(roster, roster.length + 1);
+        roster[roster.length - 1] = entity;
+        rosters.put(entity.getLesson().getId(), roster);
+    }
+
+    /**
+     * Removes a booking from the roster of a lesson, keeping the order of the other bookings.
+     *
+     * @param entity The booking that gave up its seat.
+     * @param ls     The lesson the booking held a seat in.
+     */
+    private void unenroll(Booking entity, Lesson ls) {
+        Booking[] roster = rosters.get(ls.getId());
+
+        if (roster == null) return;
+
+        for (int i = 0; i < roster.length; i++) {
+            if (roster[i] == entity) {
+                System.arraycopy(roster, i + 1, roster, i, roster.length - i - 1);
+                roster[roster.length - 1] = null;
+                break;
             }
         }
-        return false;
+
+        if (roster[0] == null) {
+            rosters.remove(ls.getId());
+        }
+    }
+
+    /**
+     * Numbers the week, day and time of a lesson, so each learner's taken slots fit in one array.
+     *
+     * @param ls The lesson.
+     * @return The slot number of the lesson.
+     */
+    private static int slot(Lesson ls) {
+        TimeSlot timeSlot = ls.getTimeSlot();
+        return (ls.getWeek() - 1) * SLOTS_PER_WEEK + timeSlot.day().ordinal() * Time.values().length + timeSlot.time().ordinal();
     }
 
     /**
@@ -322,4 +2132,67 @@ public class BookingRepository implements Repository<Booking, Integer> {
     private boolean validateVacancy(Lesson ls) {
         return ls.getVacancy() < 1;
     }
-}
\ No newline at end of file
+
+    /**
+     * The slots taken by a learner, as a sorted array of slot numbers.
+     * Lookups are a binary search, and the array only grows with the number of slots the learner takes.
+     */
+    private static final class SlotSet {
+        private int[] slots = new int[4];
+
+        private int size;
+
+        /**
+         * Checks if a slot is taken.
+         *
+         * @param slot The slot number.
+         * @return True if the slot is taken, otherwise false.
+         */
+        boolean contains(int slot) {
+            return Arrays.binarySearch(slots, 0, size, slot) >= 0;
+        }
+
+        /**
+         * Marks a slot as taken.
+         *
+         * @param slot The slot number.
+         */
+        void add(int slot) {
+            int i = Arrays.binarySearch(slots, 0, size, slot);
+            if (i >= 0) return;
+
+            i = -i - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+
+            System.arraycopy(slots, i, slots, i + 1, size - i);
+            slots[i] = slot;
+            size++;
+        }
+
+        /**
+         * Marks a slot as free.
+         *
+         * @param slot The slot number.
+         * @return True if the slot was taken, otherwise false.
+         */
+        boolean remove(int slot) {
+            int i = Arrays.binarySearch(slots, 0, size, slot);
+            if (i < 0) return false;
+
+            System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * Checks if no slot is taken.
+         *
+         * @return True if no slot is taken, otherwise false.
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.hjss.repository;
+
+import com.hjss.model.Lesson;
+import com.hjss.model.LessonRule;
+import com.hjss.util.WeekPartitions;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * The LessonCalendar class generates dated lessons from weekly {@link LessonRule}s.
+ *
+ * <p>
+ * Lessons are only created for the weeks that are asked for. The first time a week is read, every rule is expanded
+ * for that week, the lessons are stored in the lesson repository so they can be booked, and the week is cached.
+ * Reading the week again returns the same lessons. A calendar covering years of rules therefore costs memory only
+ * for the weeks people actually look at.
+ * </p>
+ *
+ * <p>
+ * Week numbers are shared with every other lesson in the repository, which the clash checks and monthly reports rely
+ * on. The first week of the term is numbered after the weeks the repository already had when the calendar was made,
+ * from the start of the next school month, so calendar lessons never share a week or a month with seeded ones.
+ * </p>
+ */
+public class LessonCalendar {
+    private final LessonRepository lessonRepository;
+
+    /**
+     * Monday of the first week of the term, lessons are numbered in weeks from it.
+     */
+    private final LocalDate termStart;
+
+    /**
+     * The week number before the first week of the term.
+     */
+    private final int weekOffset;
+
+    private final List<LessonRule> rules = new ArrayList<>();
+
+    /**
+     * Lessons of every expanded week keyed by the week's Monday, in date and time order.
+     */
+    private final Map<LocalDate, List<Lesson>> weeks = new HashMap<>();
+
+    /**
+     * Constructs an empty LessonCalendar.
+     *
+     * @param lessonRepository The repository the generated lessons are stored in.
+     * @param termStart        A date in the first week of the term.
+     */
+    public LessonCalendar(LessonRepository lessonRepository, LocalDate termStart) {
+        this.lessonRepository = lessonRepository;
+        this.termStart = monday(termStart);
+        this.weekOffset = WeekPartitions.firstWeekOf(WeekPartitions.monthOf(lessonRepository.getWeekCount()) + 1) - 1;
+    }
+
+    /**
+     * Adds a weekly lesson rule. Weeks that were already expanded get the lessons of the new rule straight away.
+     *
+     * @param rule The lesson rule.
+     */
+    public synchronized void addRule(LessonRule rule) {
+        rules.add(rule);
+
+        for (Map.Entry<LocalDate, List<Lesson>> week : weeks.entrySet()) {
+            expand(rule, week.getKey(), week.getValue());
+            week.getValue().sort(ORDER);
+        }
+    }
+
+    /**
+     * Retrieves the lessons taking place between two dates, expanding the weeks not read before.
+     * Dates before the term start have no lessons.
+     *
+     * @param from The first date, inclusive.
+     * @param to   The last date, inclusive.
+     * @return The lessons in date and time order.
+     */
+    public synchronized List<Lesson> read(LocalDate from, LocalDate to) {
+        List<Lesson> lessons = new ArrayList<>();
+
+        LocalDate first = monday(from).isBefore(termStart) ? termStart : monday(from);
+
+        for (LocalDate week = first; !week.isAfter(to); week = week.plusWeeks(1)) {
+            for (Lesson lesson : weeks.computeIfAbsent(week, this::expand)) {
+                if (!lesson.getDate().isBefore(from) && !lesson.getDate().isAfter(to)) {
+                    lessons.add(lesson);
+                }
+            }
+        }
+
+        return lessons;
+    }
+
+    /**
+     * Retrieves the number of weeks whose lessons have been created.
+     *
+     * @return The number of expanded weeks.
+     */
+    public synchronized int getExpandedWeeks() {
+        return weeks.size();
+    }
+
+    /**
+     * Creates the lessons of every rule for a week.
+     *
+     * @param week The Monday of the week.
+     * @return The lessons of the week in date and time order.
+     */
+    private List<Lesson> expand(LocalDate week) {
+        List<Lesson> lessons = new ArrayList<>();
+
+        for (LessonRule rule : rules) {
+            expand(rule, week, lessons);
+        }
+
+        lessons.sort(ORDER);
+        return lessons;
+    }
+
+    /**
+     * Creates the lesson of one rule for a week, if the rule has one that week.
+     *
+     * @param rule    The lesson rule.
+     * @param week    The Monday of the week.
+     * @param lessons The lessons of the week to add to.
+     */
+    private void expand(LessonRule rule, LocalDate week, List<Lesson> lessons) {
+        LocalDate date = week.with(TemporalAdjusters.nextOrSame(rule.timeSlot().day().toDayOfWeek()));
+
+        if (rule.occursOn(date)) {
+            int weekNumber = weekOffset + (int) ChronoUnit.WEEKS.between(termStart, week) + 1;
+            lessons.add(lessonRepository.create(new Lesson(rule.grade(), rule.timeSlot(), rule.coach(), weekNumber, date)));
+        }
+    }
+
+    /**
+     * Finds the Monday of the week a date is in.
+     *
+     * @param date The date.
+     * @return The Monday on or before the date.
+     */
+    private static LocalDate monday(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Orders lessons by date, then by time.
+     */
+    private static final Comparator<Lesson> ORDER = Comparator.comparing(Lesson::getDate)
+            .thenComparing(lesson -> lesson.getTimeSlot().time());
+}
@@ -0,0 +1,87 @@
+package com.hjss.repository;
+
+import com.hjss.enums.Day;
+import com.hjss.enums.Grade;
+import com.hjss.enums.Time;
+import com.hjss.model.Coach;
+
+/**
+ * The LessonQuery record describes a combined lesson search, such as "Saturday, grade 3, coach Yar, has space".
+ * Criteria left null match every lesson. Queries are built from {@link #all()} by adding one criterion at a time.
+ *
+ * @param day        The lesson day, or null for any day.
+ * @param time       The lesson time, or null for any time.
+ * @param grade      The lesson grade, or null for any grade.
+ * @param coach      The lesson coach, or null for any coach.
+ * @param week       The lesson week, or null for any week.
+ * @param hasVacancy Whether only lessons with a vacancy match.
+ */
+public record LessonQuery(Day day, Time time, Grade grade, Coach coach, Integer week, boolean hasVacancy) {
+    /**
+     * Creates a query matching every lesson.
+     *
+     * @return The query.
+     */
+    public static LessonQuery all() {
+        return new LessonQuery(null, null, null, null, null, false);
+    }
+
+    /**
+     * Narrows the query to a day.
+     *
+     * @param day The lesson day.
+     * @return The narrowed query.
+     */
+    public LessonQuery on(Day day) {
+        return new LessonQuery(day, time, grade, coach, week, hasVacancy);
+    }
+
+    /**
+     * Narrows the query to a time.
+     *
+     * @param time The lesson time.
+     * @return The narrowed query.
+     */
+    public LessonQuery at(Time time) {
+        return new LessonQuery(day, time, grade, coach, week, hasVacancy);
+    }
+
+    /**
+     * Narrows the query to a grade.
+     *
+     * @param grade The lesson grade.
+     * @return The narrowed query.
+     */
+    public LessonQuery forGrade(Grade grade) {
+        return new LessonQuery(day, time, grade, coach, week, hasVacancy);
+    }
+
+    /**
+     * Narrows the query to a coach.
+     *
+     * @param coach The lesson coach.
+     * @return The narrowed query.
+     */
+    public LessonQuery by(Coach coach) {
+        return new LessonQuery(day, time, grade, coach, week, hasVacancy);
+    }
+
+    /**
+     * Narrows the query to a week.
+     *
+     * @param week The lesson week, starting from 1.
+     * @return The narrowed query.
+     */
+    public LessonQuery inWeek(int week) {
+        return new LessonQuery(day, time, grade, coach, week, hasVacancy);
+    }
+
+    /**
+     * Narrows the query to lessons with a vacancy.
+     *
+     * @return The narrowed query.
+     */
+    public LessonQuery withVacancy() {
+        return new LessonQuery(day, time, grade, coach, week, true);
+    }
+}
@@ -4,20 +4,89 @@ import com.hjss.enums.Day;
 import com.hjss.enums.Grade;
 import com.hjss.enums.Time;
 import com.hjss.model.Coach;
+import com.hjss.model.Learner;
 import com.hjss.model.Lesson;
 import com.hjss.model.TimeSlot;
+import com.hjss.model.VacancyListener;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The LessonRepository class manages the persistence of lesson data in the Hatfield Junior Swimming School
  * (HJSS) application.
  * It implements the Repository interface for CRUD operations on lessons.
+ *
+ * <p>
+ * Lessons are indexed by bitsets over their position in the lesson list: one bitset per day, time, grade, coach and
+ * week, and one of the lessons that have a vacancy. Lessons notify the repository whenever a seat is taken or freed,
+ * so the vacancy bitset stays current. Combined searches and the lessons a learner can book are answered by
+ * intersecting a few bitsets, a word at a time, instead of scanning the timetable.
+ * Weeks that are over can be sealed, which masks their lessons out of the timetable reads.
+ * </p>
+ *
+ * <p>
+ * The week and coach bitsets start at the word of the first position they hold, so a week only takes the words of its
+ * own lessons and the index stays proportional to the number of lessons, however many weeks there are. They stay
+ * aligned with the words of the lesson list, so a search narrowed by coach or week only visits the words that coach or
+ * week spans, and intersects them with the other bitsets a word at a time.
+ * </p>
  */
 public class LessonRepository implements Repository<Lesson, Integer> {
     private final List<Lesson> db = new ArrayList<>();
 
+    /**
+     * Lessons keyed by ID, so lookups by ID do not scan the lesson list.
+     */
+    private final Map<Integer, Lesson> index = new ConcurrentHashMap<>();
+
+    /**
+     * Positions in the lesson list keyed by lesson ID, used by the vacancy index.
+     */
+    private final Map<Integer, Integer> positions = new ConcurrentHashMap<>();
+
+    /**
+     * Positions of the lessons on each day, at each time, of each grade, by each coach ID and in each week.
+     * All bitsets are guarded by {@link #bitsetLock}.
+     */
+    private final Map<Day, BitSet> byDay = new EnumMap<>(Day.class);
+
+    private final Map<Time, BitSet> byTime = new EnumMap<>(Time.class);
+
+    private final Map<Grade, BitSet> byGrade = new EnumMap<>(Grade.class);
+
+    private final Map<Integer, OffsetBitSet> byCoach = new HashMap<>();
+
+    private final Map<Integer, OffsetBitSet> byWeek = new HashMap<>();
+
+    /**
+     * Positions of the lessons with a vacancy.
+     */
+    private final BitSet available = new BitSet();
+
+    /**
+     * Positions of the lessons in sealed weeks, left out of the timetable reads.
+     */
+    private final BitSet sealed = new BitSet();
+
+    /**
+     * The last sealed week, 0 when no week is sealed.
+     */
+    private int sealedThrough;
+
+    private final Object bitsetLock = new Object();
+
+    /**
+     * Listeners notified after the vacancy index has been updated.
+     */
+    private final List<VacancyListener> vacancyListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The highest week of the lessons created so far, new weeks are numbered after it. Guarded by {@link #bitsetLock}.
+     */
+    private int weekCount;
+
     private final List<TimeSlot> timeSlots = new ArrayList<>();
 
     private final CoachRepository coachRepository;
@@ -29,6 +98,11 @@ public class LessonRepository implements Repository<Lesson, Integer> {
      */
     public LessonRepository(CoachRepository coachRepository) {
         this.coachRepository = coachRepository;
+
+        for (Day day : Day.values()) byDay.put(day, new BitSet());
+        for (Time time : Time.values()) byTime.put(time, new BitSet());
+        for (Grade grade : Grade.values()) byGrade.put(grade, new BitSet());
+
         seed();
     }
 
@@ -53,56 +127,268 @@ public class LessonRepository implements Repository<Lesson, Integer> {
     }
 
     /**
-     * Retrieves lessons scheduled for a specific day.
+     * Retrieves lessons scheduled for a specific day, leaving out sealed weeks.
      *
      * @param day The day for which lessons are to be retrieved.
      * @return A list of lessons scheduled for the specified day.
      */
     public List<Lesson> read(Day day) {
-        List<Lesson> lessons = new ArrayList<>();
-        for (Lesson ls : db) {
-            if (ls.getTimeSlot().day().equals(day)) {
-                lessons.add(ls);
-            }
+        synchronized (bitsetLock) {
+            return openLessonsAt(byDay.get(day));
         }
-
-        return lessons;
     }
 
     /**
-     * Retrieves lessons for a specific grade.
+     * Retrieves lessons for a specific grade, leaving out sealed weeks.
      *
      * @param grade The grade for which lessons are to be retrieved.
      * @return A list of lessons scheduled for the specified grade.
      */
     public List<Lesson> read(Grade grade) {
-        List<Lesson> lessons = new ArrayList<>();
-        for (Lesson ls : db) {
-            if (ls.getGrade().equals(grade)) {
-                lessons.add(ls);
-            }
+        synchronized (bitsetLock) {
+            return openLessonsAt(byGrade.get(grade));
         }
-
-        return lessons;
     }
 
     /**
-     * Retrieves lessons coached by a specific coach.
+     * Retrieves lessons coached by a specific coach, leaving out sealed weeks.
      *
      * @param coach The coach for which lessons are to be retrieved.
      * @return A list of lessons coached by the specified coach.
      */
     public List<Lesson> read(Coach coach) {
+        synchronized (bitsetLock) {
+            OffsetBitSet lessons = byCoach.get(coach.getId());
+            if (lessons == null) return new ArrayList<>();
+
+            long[] open = lessons.words(lessons.firstWord(), lessons.endWord());
+            andNot(open, lessons.firstWord(), sealed);
+
+            return lessonsAt(open, lessons.firstWord());
+        }
+    }
+
+    /**
+     * Retrieves the lessons a learner can book right now: lessons of the learner's grade or one grade higher
+     * that have a vacancy. Answered from the lesson bitsets without scanning the lessons.
+     *
+     * @param learner The learner.
+     * @return The eligible lessons with a vacancy, in timetable order.
+     */
+    public List<Lesson> readEligible(Learner learner) {
+        synchronized (bitsetLock) {
+            BitSet eligible = (BitSet) byGrade.get(learner.getGrade()).clone();
+
+            for (Grade grade : Grade.values()) {
+                if (grade.getValue() == learner.getGrade().getValue() + 1) {
+                    eligible.or(byGrade.get(grade));
+                }
+            }
+
+            eligible.and(available);
+            eligible.andNot(sealed);
+
+            return lessonsAt(eligible);
+        }
+    }
+
+    /**
+     * Retrieves the lessons matching every criterion of a query, by intersecting the bitset of each criterion.
+     *
+     * @param query The lesson query.
+     * @return The matching lessons, in timetable order.
+     */
+    public List<Lesson> search(LessonQuery query) {
+        synchronized (bitsetLock) {
+            OffsetBitSet coach = query.coach() == null ? null : byCoach.get(query.coach().getId());
+            OffsetBitSet week = query.week() == null ? null : byWeek.get(query.week());
+
+            if ((query.coach() != null && coach == null) || (query.week() != null && week == null)) {
+                return new ArrayList<>();
+            }
+
+            // Only the words spanned by the coach and the week can match
+            int from = 0;
+            int to = (db.size() + Long.SIZE - 1) / Long.SIZE;
+
+            for (OffsetBitSet range : new OffsetBitSet[]{coach, week}) {
+                if (range != null) {
+                    from = Math.max(from, range.firstWord());
+                    to = Math.min(to, range.endWord());
+                }
+            }
+
+            if (from >= to) return new ArrayList<>();
+
+            long[] matches = coach != null ? coach.words(from, to) : week != null ? week.words(from, to) : allWords(from, to);
+
+            if (coach != null && week != null) and(matches, week.words(from, to));
+            if (query.day() != null) and(matches, from, byDay.get(query.day()));
+            if (query.time() != null) and(matches, from, byTime.get(query.time()));
+            if (query.grade() != null) and(matches, from, byGrade.get(query.grade()));
+            if (query.hasVacancy()) and(matches, from, available);
+
+            return lessonsAt(matches, from);
+        }
+    }
+
+    /**
+     * Seals every week up to a week, so its lessons are left out of the timetable reads and the eligible lessons.
+     * Sealed lessons can still be found by ID and by a search for their week.
+     *
+     * @param throughWeek The last week to seal, inclusive.
+     */
+    public void seal(int throughWeek) {
+        synchronized (bitsetLock) {
+            sealedThrough = Math.max(sealedThrough, throughWeek);
+
+            for (Map.Entry<Integer, OffsetBitSet> week : byWeek.entrySet()) {
+                if (week.getKey() <= throughWeek) {
+                    week.getValue().setIn(sealed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the words of every lesson position in a range of words. Must be called holding {@link #bitsetLock}.
+     *
+     * @param from The first word, inclusive.
+     * @param to   The last word, exclusive.
+     * @return The words, with a bit set for every lesson in the range.
+     */
+    private long[] allWords(int from, int to) {
+        long[] words = new long[to - from];
+        Arrays.fill(words, -1L);
+
+        // Positions past the last lesson do not match
+        int tail = db.size() % Long.SIZE;
+        if (tail != 0 && to == (db.size() + Long.SIZE - 1) / Long.SIZE) {
+            words[words.length - 1] = (1L << tail) - 1;
+        }
+
+        return words;
+    }
+
+    /**
+     * Intersects words with the same words of another range.
+     *
+     * @param words The words to narrow.
+     * @param other The words to intersect with, of the same range.
+     */
+    private static void and(long[] words, long[] other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other[i];
+        }
+    }
+
+    /**
+     * Intersects words with the matching words of a bitset over the lesson list.
+     *
+     * @param words The words to narrow.
+     * @param from  The word of the lesson list the first word stands for.
+     * @param bits  The bitset over the lesson list.
+     */
+    private static void and(long[] words, int from, BitSet bits) {
+        long[] other = bits.get(from * Long.SIZE, (from + words.length) * Long.SIZE).toLongArray();
+
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= i < other.length ? other[i] : 0;
+        }
+    }
+
+    /**
+     * Removes the matching words of a bitset over the lesson list from words.
+     *
+     * @param words The words to narrow.
+     * @param from  The word of the lesson list the first word stands for.
+     * @param bits  The bitset over the lesson list.
+     */
+    private static void andNot(long[] words, int from, BitSet bits) {
+        long[] other = bits.get(from * Long.SIZE, (from + words.length) * Long.SIZE).toLongArray();
+
+        for (int i = 0; i < other.length; i++) {
+            words[i] &= ~other[i];
+        }
+    }
+
+    /**
+     * Retrieves the lessons at the set bits of words of the lesson list. Must be called holding {@link #bitsetLock}.
+     *
+     * @param words The words.
+     * @param from  The word of the lesson list the first word stands for.
+     * @return The lessons, in timetable order.
+     */
+    private List<Lesson> lessonsAt(long[] words, int from) {
         List<Lesson> lessons = new ArrayList<>();
-        for (Lesson ls : db) {
-            if (ls.getCoach().equals(coach)) {
-                lessons.add(ls);
+
+        for (int i = 0; i < words.length; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                lessons.add(db.get((from + i) * Long.SIZE + Long.numberOfTrailingZeros(word)));
             }
         }
 
         return lessons;
     }
 
+    /**
+     * Retrieves the lessons at the set positions of a bitset that are not in a sealed week.
+     * Must be called holding {@link #bitsetLock}.
+     *
+     * @param lessonPositions The positions in the lesson list.
+     * @return The lessons, in timetable order.
+     */
+    private List<Lesson> openLessonsAt(BitSet lessonPositions) {
+        BitSet open = (BitSet) lessonPositions.clone();
+        open.andNot(sealed);
+
+        return lessonsAt(open);
+    }
+
+    /**
+     * Retrieves the lessons at the set positions of a bitset. Must be called holding {@link #bitsetLock}.
+     *
+     * @param lessonPositions The positions in the lesson list.
+     * @return The lessons, in timetable order.
+     */
+    private List<Lesson> lessonsAt(BitSet lessonPositions) {
+        List<Lesson> lessons = new ArrayList<>(lessonPositions.cardinality());
+        for (int i = lessonPositions.nextSetBit(0); i >= 0; i = lessonPositions.nextSetBit(i + 1)) {
+            lessons.add(db.get(i));
+        }
+
+        return lessons;
+    }
+
+    /**
+     * Updates the vacancy bitset after a seat of a lesson was taken or freed.
+     *
+     * @param lesson The lesson whose vacancy changed.
+     */
+    private void vacancyChanged(Lesson lesson) {
+        Integer position = positions.get(lesson.getId());
+
+        if (position == null) return;
+
+        synchronized (bitsetLock) {
+            available.set(position, lesson.getVacancy() > 0);
+        }
+
+        for (VacancyListener listener : vacancyListeners) {
+            listener.vacancyChanged(lesson);
+        }
+    }
+
+    /**
+     * Registers a listener notified whenever a seat of a lesson in the repository is taken or freed,
+     * and when a lesson is added. Listeners are called by the thread that changed the lesson, so they must not block.
+     *
+     * @param listener The listener.
+     */
+    public void addVacancyListener(VacancyListener listener) {
+        vacancyListeners.add(listener);
+    }
+
     /**
      * Retrieves a lesson by its unique identifier from the repository.
      *
@@ -111,12 +397,7 @@ public class LessonRepository implements Repository<Lesson, Integer> {
      */
     @Override
     public Lesson readById(Integer id) {
-        for (Lesson ls : db) {
-            if (ls.getId() == id) {
-                return ls;
-            }
-        }
-        return null;
+        return index.get(id);
     }
 
     /**
@@ -127,7 +408,30 @@ public class LessonRepository implements Repository<Lesson, Integer> {
      */
     @Override
     public Lesson create(Lesson entity) {
-        db.add(entity);
+        int position;
+
+        synchronized (bitsetLock) {
+            db.add(entity);
+            position = db.size() - 1;
+
+            byDay.get(entity.getTimeSlot().day()).set(position);
+            byTime.get(entity.getTimeSlot().time()).set(position);
+            byGrade.get(entity.getGrade()).set(position);
+            byCoach.computeIfAbsent(entity.getCoach().getId(), k -> new OffsetBitSet(position)).set(position);
+            byWeek.computeIfAbsent(entity.getWeek(), k -> new OffsetBitSet(position)).set(position);
+
+            // A lesson added to a sealed week is sealed with it
+            sealed.set(position, entity.getWeek() <= sealedThrough);
+
+            weekCount = Math.max(weekCount, entity.getWeek());
+        }
+
+        index.put(entity.getId(), entity);
+        positions.put(entity.getId(), position);
+
+        // Track the vacancy of the lesson from now on
+        entity.setVacancyListener(this::vacancyChanged);
+        vacancyChanged(entity);
 
         return entity;
     }
@@ -137,8 +441,27 @@ public class LessonRepository implements Repository<Lesson, Integer> {
      */
     @Override
     public void removeAll() {
-        db.clear();
+        for (Lesson lesson : db) {
+            lesson.setVacancyListener(null);
+        }
+
+        index.clear();
+        positions.clear();
         timeSlots.clear();
+
+        synchronized (bitsetLock) {
+            weekCount = 0;
+            db.clear();
+
+            byDay.values().forEach(BitSet::clear);
+            byTime.values().forEach(BitSet::clear);
+            byGrade.values().forEach(BitSet::clear);
+            byCoach.clear();
+            byWeek.clear();
+            available.clear();
+            sealed.clear();
+            sealedThrough = 0;
+        }
     }
 
     /**
@@ -166,6 +489,32 @@ public class LessonRepository implements Repository<Lesson, Integer> {
      * 44 Lessons are created and added to the lesson list.
      */
     private void createLessons() {
+        createLessons(4);
+    }
+
+    /**
+     * Retrieves the number of weeks of lessons, whatever created them.
+     *
+     * @return The highest week of the lessons created so far, 0 if there are none.
+     */
+    public int getWeekCount() {
+        synchronized (bitsetLock) {
+            return weekCount;
+        }
+    }
+
+    /**
+     * Creates lessons for the given number of weeks based on available time slots and coaches.
+     * 11 lessons are created for each week, rotating grades and coaches in the same order as the seed data.
+     *
+     * @param weeks The number of weeks of lessons to create.
+     */
+    public void createLessons(int weeks) {
+        // Time slots are cleared along with the lessons, so rebuild them when needed.
+        if (timeSlots.isEmpty()) {
+            createTimeSlots();
+        }
+
         // Get application coaches
         List<Coach> coaches = coachRepository.read();
 
@@ -182,15 +531,20 @@ public class LessonRepository implements Repository<Lesson, Integer> {
         int gradeIndex = 0, coachIndex = 0;
 
 
-        // Loop 4 times to create 44 lessons - 11 a week totalling 4 weeks.
-        for (int j = 0; j < 4; j++) {
+        // Loop once per week - 11 lessons a week.
+        for (int j = 0; j < weeks; j++) {
+            int week;
+            synchronized (bitsetLock) {
+                week = ++weekCount;
+            }
+
             // Create a lesson for each time slot
             for (TimeSlot timeSlot : timeSlots) {
                 Grade grade = grades[gradeIndex];
                 Coach coach = coaches.get(coachIndex);
 
                 // Create and Add new Lesson
-                db.add(new Lesson(grade, timeSlot, coach));
+                create(new Lesson(grade, timeSlot, coach, week));
 
                 // Increment indices using modular arithmetic
                 gradeIndex = (gradeIndex + 1) % numGrades;
@@ -212,10 +566,8 @@ public class LessonRepository implements Repository<Lesson, Integer> {
         int currentWeek = -1;
 
         for (Lesson ls : lessons) {
-            // Calculate the week number based on the lesson ID
-            // Since each week consists of 11 lessons,
-            // Divide the lesson ID by 11 and add 1 to get the week number.
-            int week = (ls.getId() - 1) / 11 + 1;
+            // Lessons know their week, whichever way they were created
+            int week = ls.getWeek();
 
             // Check if the calculated week number is different from the current week
             if (week != currentWeek) {
@@ -230,4 +582,88 @@ public class LessonRepository implements Repository<Lesson, Integer> {
 
         return s.toString();
     }
+
+    /**
+     * A bitset of lesson positions that starts at the word of the first position it holds, so a bitset of lessons
+     * created late does not pay for the bits of every lesson created before them. Its words stay aligned with the words
+     * of the lesson list. Positions only grow, because lessons are appended.
+     */
+    private static final class OffsetBitSet {
+        private final int firstWord;
+
+        private long[] words = new long[1];
+
+        /**
+         * Constructs an empty OffsetBitSet.
+         *
+         * @param first The first position the bitset holds.
+         */
+        OffsetBitSet(int first) {
+            this.firstWord = first / Long.SIZE;
+        }
+
+        /**
+         * Sets a position.
+         *
+         * @param position The position in the lesson list, not before the first position.
+         */
+        void set(int position) {
+            int word = position / Long.SIZE - firstWord;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+            }
+
+            words[word] |= 1L << position;
+        }
+
+        /**
+         * Retrieves the first word of the lesson list the bitset spans.
+         *
+         * @return The first word, inclusive.
+         */
+        int firstWord() {
+            return firstWord;
+        }
+
+        /**
+         * Retrieves the word of the lesson list after the last one the bitset spans.
+         *
+         * @return The last word, exclusive.
+         */
+        int endWord() {
+            return firstWord + words.length;
+        }
+
+        /**
+         * Copies the words of a range of the lesson list, with zeros outside the bitset.
+         *
+         * @param from The first word, inclusive.
+         * @param to   The last word, exclusive.
+         * @return The words of the range.
+         */
+        long[] words(int from, int to) {
+            long[] range = new long[to - from];
+
+            int start = Math.max(from, firstWord);
+            int end = Math.min(to, endWord());
+            if (start < end) {
+                System.arraycopy(words, start - firstWord, range, start - from, end - start);
+            }
+
+            return range;
+        }
+
+        /**
+         * Sets every position of this bitset in a bitset over the lesson list.
+         *
+         * @param target The bitset over the lesson list.
+         */
+        void setIn(BitSet target) {
+            for (int i = 0; i < words.length; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    target.set((firstWord + i) * Long.SIZE + Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+    }
 }
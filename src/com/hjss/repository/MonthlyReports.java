@@ -0,0 +1,228 @@
+package com.hjss.repository;
+
+import com.hjss.model.*;
+import com.hjss.util.WeekPartitions;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The MonthlyReports class closes school months and answers the learner and coach reports of every month.
+ *
+ * <p>
+ * Closing a month folds its bookings into a {@link LearnerSummary} per learner and its reviews into a
+ * {@link CoachSummary} per coach, then seals the weeks of the month in the lesson, booking and review repositories
+ * so the raw records drop out of the hot paths. Reports of a closed month are lookups in the summaries.
+ * Reports of a month that is still open are folded from the partitions of that month only.
+ * </p>
+ *
+ * <p>
+ * Each month is read and sealed in one step under the lock of each repository, so no write falls between the fold and
+ * the seal. Writes to a closed month are still accepted: the reports listen to both repositories and count the
+ * changes made to each closed month, and a summary folded before the latest change is folded again when it is read.
+ * </p>
+ */
+public class MonthlyReports {
+    private final LessonRepository lessonRepository;
+
+    private final BookingRepository bookingRepository;
+
+    private final ReviewRepository reviewRepository;
+
+    /**
+     * Summaries of the closed months, keyed by month.
+     */
+    private final Map<Integer, Month> closed = new ConcurrentHashMap<>();
+
+    /**
+     * Number of changes made to each closed month since it was closed, keyed by month.
+     */
+    private final Map<Integer, Long> changes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs MonthlyReports over the repositories of the school.
+     *
+     * @param lessonRepository  The lesson repository, whose weeks are sealed when a month closes.
+     * @param bookingRepository The booking repository the learner summaries are folded from.
+     * @param reviewRepository  The review repository the coach summaries are folded from.
+     */
+    public MonthlyReports(LessonRepository lessonRepository, BookingRepository bookingRepository, ReviewRepository reviewRepository) {
+        this.lessonRepository = lessonRepository;
+        this.bookingRepository = bookingRepository;
+        this.reviewRepository = reviewRepository;
+
+        bookingRepository.addListener(event -> {
+            changed(event.lesson());
+            changed(event.previousLesson());
+        });
+        reviewRepository.addListener(review -> changed(review.getBooking().getLesson()));
+    }
+
+    /**
+     * Closes a month: folds its bookings and reviews into summaries and seals every week up to the end of the month.
+     *
+     * @param month The month to close, starting from 1.
+     * @return True if the month was closed, false if it was already closed.
+     */
+    public synchronized boolean close(int month) {
+        if (closed.containsKey(month)) return false;
+
+        changes.put(month, 0L);
+        closed.put(month, fold(bookingRepository.sealMonth(month), reviewRepository.sealMonth(month), 0));
+        lessonRepository.seal(WeekPartitions.firstWeekOf(month + 1) - 1);
+
+        return true;
+    }
+
+    /**
+     * Closes every month before a month that has not been closed yet.
+     *
+     * @param month The first month to leave open, usually the current one.
+     * @return The number of months closed.
+     */
+    public synchronized int closeBefore(int month) {
+        int count = 0;
+
+        for (int past = 1; past < month; past++) {
+            if (close(past)) count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks if a month has been closed.
+     *
+     * @param month The month, starting from 1.
+     * @return True if the month is closed, otherwise false.
+     */
+    public boolean isClosed(int month) {
+        return closed.containsKey(month);
+    }
+
+    /**
+     * Retrieves the report of a learner for a month.
+     *
+     * @param learner The learner.
+     * @param month   The month, starting from 1.
+     * @return The learner's summary of the month.
+     */
+    public LearnerSummary readLearner(Learner learner, int month) {
+        Month summary = readClosed(month);
+
+        if (summary == null) {
+            List<Booking> bookings = new ArrayList<>();
+            for (Booking booking : bookingRepository.readMonth(month)) {
+                if (booking.getLearner().equals(learner)) {
+                    bookings.add(booking);
+                }
+            }
+
+            summary = fold(bookings, List.of(), 0);
+        }
+
+        return summary.learners().getOrDefault(learner.getId(), LearnerSummary.empty(learner.getId()));
+    }
+
+    /**
+     * Retrieves the ratings of a coach for a month.
+     *
+     * @param coach The coach.
+     * @param month The month, starting from 1.
+     * @return The coach's summary of the month.
+     */
+    public CoachSummary readCoach(Coach coach, int month) {
+        Month summary = readClosed(month);
+
+        if (summary == null) {
+            summary = fold(List.of(), reviewRepository.readMonth(month), 0);
+        }
+
+        return summary.coaches().getOrDefault(coach.getId(), CoachSummary.empty(coach.getId()));
+    }
+
+    /**
+     * Retrieves the summaries of a closed month, folding them again if the month changed since they were folded.
+     *
+     * @param month The month, starting from 1.
+     * @return The summaries, or null if the month is open.
+     */
+    private Month readClosed(int month) {
+        Month summary = closed.get(month);
+        if (summary == null) return null;
+
+        // Read before folding, so a change made during the fold is caught by the next read
+        long version = changes.getOrDefault(month, 0L);
+
+        if (summary.version() != version) {
+            summary = fold(bookingRepository.readMonth(month), reviewRepository.readMonth(month), version);
+            closed.put(month, summary);
+        }
+
+        return summary;
+    }
+
+    /**
+     * Counts a change made to the month of a lesson, if the month is closed.
+     *
+     * @param lesson The lesson that changed, or null.
+     */
+    private void changed(Lesson lesson) {
+        if (lesson == null) return;
+
+        changes.computeIfPresent(WeekPartitions.monthOf(lesson.getWeek()), (month, count) -> count + 1);
+    }
+
+    /**
+     * Folds bookings and reviews into summaries.
+     *
+     * @param bookings The bookings to fold into learner summaries.
+     * @param reviews  The reviews to fold into coach summaries.
+     * @param version  The number of changes made to the month before the bookings and reviews were read.
+     * @return The summaries keyed by learner and coach ID.
+     */
+    private static Month fold(List<Booking> bookings, List<Review> reviews, long version) {
+        Map<Integer, LearnerSummary> learners = new HashMap<>();
+        Map<Integer, List<Booking>> byLearner = new LinkedHashMap<>();
+
+        for (Booking booking : bookings) {
+            byLearner.computeIfAbsent(booking.getLearner().getId(), id -> new ArrayList<>()).add(booking);
+        }
+
+        for (Map.Entry<Integer, List<Booking>> learner : byLearner.entrySet()) {
+            int attendances = 0;
+            int cancellations = 0;
+            List<Integer> lessonIds = new ArrayList<>();
+
+            for (Booking booking : learner.getValue()) {
+                if (booking.getAttendanceStatus()) attendances++;
+                if (booking.getCancellationStatus()) cancellations++;
+                lessonIds.add(booking.getLesson().getId());
+            }
+
+            learners.put(learner.getKey(),
+                    new LearnerSummary(learner.getKey(), learner.getValue().size(), attendances, cancellations, lessonIds));
+        }
+
+        Map<Integer, CoachSummary> coaches = new HashMap<>();
+
+        for (Review review : reviews) {
+            int coachId = review.getBooking().getLesson().getCoach().getId();
+            CoachSummary coach = coaches.getOrDefault(coachId, CoachSummary.empty(coachId));
+
+            coaches.put(coachId, new CoachSummary(coachId, coach.reviews() + 1, coach.ratingTotal() + review.getRating().getValue()));
+        }
+
+        return new Month(Map.copyOf(learners), Map.copyOf(coaches), version);
+    }
+
+    /**
+     * The summaries of a month.
+     *
+     * @param learners The learner summaries keyed by learner ID.
+     * @param coaches  The coach summaries keyed by coach ID.
+     * @param version  The number of changes made to the month before it was folded.
+     */
+    private record Month(Map<Integer, LearnerSummary> learners, Map<Integer, CoachSummary> coaches, long version) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.hjss.repository;
+
+import com.hjss.enums.BookingOutcome;
+import com.hjss.model.Booking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The ReleaseWindow class collects the booking requests made while a new block of lessons is released, and books
+ * them all at once by a fair lottery when the window closes.
+ *
+ * <p>
+ * Learners booking in the window do not race each other for seats, so a faster connection gives no advantage and
+ * the booking lock is taken once for the whole release instead of once per request.
+ * See {@link BookingRepository#allocate(List, long, int)} for how seats are drawn.
+ * </p>
+ */
+public class ReleaseWindow {
+    private final BookingRepository bookingRepository;
+
+    private final long seed;
+
+    private final int perLearnerLimit;
+
+    private final List<Booking> requests = new ArrayList<>();
+
+    private final List<CompletableFuture<BookingOutcome>> outcomes = new ArrayList<>();
+
+    private boolean closed;
+
+    /**
+     * Opens a release window.
+     *
+     * @param bookingRepository The repository the requests are booked in.
+     * @param seed              The lottery seed.
+     * @param perLearnerLimit   The largest number of bookings a learner can get from the release.
+     */
+    public ReleaseWindow(BookingRepository bookingRepository, long seed, int perLearnerLimit) {
+        if (perLearnerLimit < 1) {
+            throw new IllegalArgumentException("perLearnerLimit must be positive");
+        }
+
+        this.bookingRepository = bookingRepository;
+        this.seed = seed;
+        this.perLearnerLimit = perLearnerLimit;
+    }
+
+    /**
+     * Submits a booking request to the window.
+     *
+     * @param entity The booking to request.
+     * @return The outcome of the request, completed when the window closes.
+     * @throws IllegalStateException If the window has already closed.
+     */
+    public synchronized CompletableFuture<BookingOutcome> submit(Booking entity) {
+        if (closed) {
+            throw new IllegalStateException("The release window has closed");
+        }
+
+        CompletableFuture<BookingOutcome> outcome = new CompletableFuture<>();
+
+        requests.add(entity);
+        outcomes.add(outcome);
+
+        return outcome;
+    }
+
+    /**
+     * Retrieves the number of requests submitted so far.
+     *
+     * @return The number of requests.
+     */
+    public synchronized int size() {
+        return requests.size();
+    }
+
+    /**
+     * Closes the window and allocates the seats to the submitted requests.
+     * Closing a window twice has no effect.
+     *
+     * @return The outcome of each request, in the order the requests were submitted.
+     */
+    public List<BookingOutcome> close() {
+        synchronized (this) {
+            if (closed) return List.of();
+            closed = true;
+        }
+
+        // No more requests can be added once closed
+        List<BookingOutcome> allocation = bookingRepository.allocate(requests, seed, perLearnerLimit);
+
+        for (int i = 0; i < allocation.size(); i++) {
+            outcomes.get(i).complete(allocation.get(i));
+        }
+
+        return allocation;
+    }
+}
@@ -1,23 +1,79 @@
 package com.hjss.repository;
 
+import com.hjss.eventlog.EventLog;
+import com.hjss.eventlog.ReviewSubmitted;
+import com.hjss.jfr.ReviewEvent;
 import com.hjss.model.Coach;
+import com.hjss.model.CoachSummary;
 import com.hjss.model.Review;
+import com.hjss.util.TimeIndex;
+import com.hjss.util.WeekPartitions;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class ReviewRepository implements Repository<Review, Integer> {
-    private final List<Review> db = new ArrayList<>();
+    private final WeekPartitions<Review> db = new WeekPartitions<>(review -> review.getBooking().getLesson().getWeek());
+
+    // Reviews of each coach in submission order, keyed by coach ID
+    private final Map<Integer, TimeIndex<Review>> coachReviews = new ConcurrentHashMap<>();
+
+    private final Clock clock;
+
+    // Log reviews are appended to, null when the history is not kept
+    private final EventLog eventLog;
+
+    private final List<Consumer<Review>> listeners = new CopyOnWriteArrayList<>();
+
+    public ReviewRepository() {
+        this(Clock.systemUTC());
+    }
+
+    public ReviewRepository(Clock clock) {
+        this(clock, null);
+    }
+
+    public ReviewRepository(Clock clock, EventLog eventLog) {
+        this.clock = clock;
+        this.eventLog = eventLog;
+    }
 
     public void seed() {
 
     }
 
-    public List<Review> read() {
-        return db;
+    // Reviews are read and written under the repository lock, the partitions are not thread safe
+    public synchronized List<Review> read() {
+        return db.readAll();
+    }
+
+    // Counted by the partitions, so monitoring does not copy the reviews
+    public int getSize() {
+        return db.size();
+    }
+
+    public synchronized List<Review> readMonth(int month) {
+        return db.readMonth(month);
+    }
+
+    public synchronized int seal(int throughWeek) {
+        return db.seal(throughWeek);
+    }
+
+    // Reads the reviews of a month and seals it in one step, so no review falls between the two
+    public synchronized List<Review> sealMonth(int month) {
+        List<Review> reviews = db.readMonth(month);
+        db.seal(WeekPartitions.firstWeekOf(month + 1) - 1);
+        return reviews;
     }
 
-    public List<Review> read(Coach coach) {
+    public synchronized List<Review> read(Coach coach) {
         List<Review> reviews = new ArrayList<>();
 
         for (Review review : db) {
@@ -33,14 +89,64 @@ public class ReviewRepository implements Repository<Review, Integer> {
         return null;
     }
 
-    public Review create(Review entity) {
+    public synchronized Review create(Review entity) {
+        ReviewEvent event = ReviewEvent.start();
+
+        if (entity.getSubmittedAt() == null) {
+            entity.setSubmittedAt(clock.instant());
+        }
+
         db.add(entity);
+        coachReviews.computeIfAbsent(entity.getBooking().getLesson().getCoach().getId(), id -> new TimeIndex<>())
+                .add(entity.getSubmittedAt(), entity);
+
+        if (eventLog != null) {
+            eventLog.append(new ReviewSubmitted(entity.getId(), entity.getBooking().getId(),
+                    entity.getBooking().getLesson().getCoach().getId(), entity.getRating(), entity.getFeedback(),
+                    entity.getSubmittedAt()));
+        }
+
+        for (Consumer<Review> listener : listeners) {
+            listener.accept(entity);
+        }
+
+        event.complete(entity, null);
         return entity;
     }
 
     @Override
-    public void removeAll() {
+    public synchronized void removeAll() {
         db.clear();
+        coachReviews.clear();
+    }
+
+    // Listeners are called by the thread that submitted the review, so they must not block
+    public void addListener(Consumer<Review> listener) {
+        listeners.add(listener);
+    }
+
+    // Hands every review to the reader and registers the listener under the repository lock, so no review is missed
+    // or seen twice
+    public synchronized void readAndListen(Consumer<List<Review>> reader, Consumer<Review> listener) {
+        reader.accept(db.readAll());
+        listeners.add(listener);
+    }
+
+    // Range scan of the coach's reviews submitted in [from, to)
+    public CoachSummary readCoach(Coach coach, Instant from, Instant to) {
+        TimeIndex<Review> index = coachReviews.get(coach.getId());
+
+        int reviews = 0;
+        int ratingTotal = 0;
+
+        if (index != null) {
+            for (Review review : index.range(from, to)) {
+                reviews++;
+                ratingTotal += review.getRating().getValue();
+            }
+        }
+
+        return new CoachSummary(coach.getId(), reviews, ratingTotal);
     }
 
     public float getAvgRating(List<Review> reviews) {
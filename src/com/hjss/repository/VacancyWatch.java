@@ -0,0 +1,152 @@
+package com.hjss.repository;
+
+import com.hjss.model.Learner;
+import com.hjss.model.Lesson;
+import com.hjss.model.VacancySink;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The VacancyWatch class lets learners watch a full lesson and be told once when a seat is freed in it.
+ *
+ * <p>
+ * Watchers are indexed by lesson, and only watched lessons are tracked, so a vacancy change of any other lesson costs
+ * a single map lookup. When a watched lesson goes from full to having a vacancy, by a cancellation, a change, a grade
+ * mismatch on attendance or an expired hold, its watchers are handed to the {@link VacancySink} on the executor.
+ * The vacancy is read while the change is made, under the booking lock, and handed to the delivery, which never reads
+ * the lesson itself. If the seat was taken before the delivery ran, such as by the waitlist, the lesson was seen full
+ * again in the meantime, so the watchers keep watching and are notified the next time instead.
+ * </p>
+ */
+public class VacancyWatch {
+    /**
+     * Learners watching each lesson in the order they started, keyed by lesson ID. Guarded by this watch.
+     */
+    private final Map<Integer, Set<Learner>> watchers = new HashMap<>();
+
+    /**
+     * Watched lessons last seen full, keyed by lesson ID. Updated under the booking lock as the vacancy changes.
+     */
+    private final Set<Integer> full = ConcurrentHashMap.newKeySet();
+
+    private final VacancySink sink;
+
+    private final Executor executor;
+
+    /**
+     * Constructs a VacancyWatch notifying on the common pool.
+     *
+     * @param lessonRepository The repository of the watched lessons.
+     * @param sink             The receiver of the notifications.
+     */
+    public VacancyWatch(LessonRepository lessonRepository, VacancySink sink) {
+        this(lessonRepository, sink, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a VacancyWatch.
+     *
+     * @param lessonRepository The repository of the watched lessons.
+     * @param sink             The receiver of the notifications.
+     * @param executor         The executor notifications are delivered on.
+     */
+    public VacancyWatch(LessonRepository lessonRepository, VacancySink sink, Executor executor) {
+        this.sink = sink;
+        this.executor = executor;
+
+        lessonRepository.addVacancyListener(this::vacancyChanged);
+    }
+
+    /**
+     * Starts watching a lesson for a learner.
+     *
+     * @param learner The learner.
+     * @param lesson  The lesson to watch.
+     * @return True if the learner started watching, false if they were already watching the lesson.
+     */
+    public synchronized boolean watch(Learner learner, Lesson lesson) {
+        boolean added = watchers.computeIfAbsent(lesson.getId(), id -> new LinkedHashSet<>()).add(learner);
+
+        if (lesson.getVacancy() == 0) {
+            full.add(lesson.getId());
+        }
+
+        return added;
+    }
+
+    /**
+     * Stops watching a lesson for a learner.
+     *
+     * @param learner The learner.
+     * @param lesson  The watched lesson.
+     * @return True if the learner was watching the lesson, otherwise false.
+     */
+    public synchronized boolean unwatch(Learner learner, Lesson lesson) {
+        Set<Learner> learners = watchers.get(lesson.getId());
+
+        if (learners == null || !learners.remove(learner)) return false;
+
+        if (learners.isEmpty()) {
+            watchers.remove(lesson.getId());
+            full.remove(lesson.getId());
+        }
+
+        return true;
+    }
+
+    /**
+     * Retrieves the learners watching a lesson.
+     *
+     * @param lesson The lesson.
+     * @return The watching learners, in the order they started watching.
+     */
+    public synchronized List<Learner> readWatchers(Lesson lesson) {
+        return new ArrayList<>(watchers.getOrDefault(lesson.getId(), Set.of()));
+    }
+
+    /**
+     * Tracks the vacancy of the watched lessons, scheduling a notification when one stops being full.
+     * Called by the lesson under the lock of the change, so the vacancy read here is the one the change left.
+     *
+     * @param lesson The lesson whose vacancy changed.
+     */
+    private void vacancyChanged(Lesson lesson) {
+        int vacancy = lesson.getVacancy();
+
+        if (vacancy == 0) {
+            synchronized (this) {
+                if (watchers.containsKey(lesson.getId())) {
+                    full.add(lesson.getId());
+                }
+            }
+        } else if (full.remove(lesson.getId())) {
+            executor.execute(() -> deliver(lesson, vacancy));
+        }
+    }
+
+    /**
+     * Notifies the watchers of a lesson that has a vacancy, unless the seat was taken again in the meantime.
+     *
+     * @param lesson  The lesson.
+     * @param vacancy The vacancy seen when the seat was freed.
+     */
+    private void deliver(Lesson lesson, int vacancy) {
+        Set<Learner> notified;
+
+        synchronized (this) {
+            // Taken before the watchers could be told, the lesson is tracked as full again and they keep watching
+            if (full.contains(lesson.getId())) return;
+
+            notified = watchers.remove(lesson.getId());
+        }
+
+        if (notified == null) return;
+
+        for (Learner learner : notified) {
+            sink.seatFreed(learner, lesson, vacancy);
+        }
+    }
+}
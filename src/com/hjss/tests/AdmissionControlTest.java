@@ -0,0 +1,87 @@
+package com.hjss.tests;
+
+import com.hjss.enums.*;
+import com.hjss.exceptions.OverloadedException;
+import com.hjss.metrics.Metrics;
+import com.hjss.model.*;
+import com.hjss.repository.AdmissionControl;
+import com.hjss.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+    private final Lesson lesson = new Lesson(Grade.TWO, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"));
+
+    @Test
+    void testShedsWhenShardIsBusy() {
+        AdmissionControl admission = new AdmissionControl(4, 1, Duration.ofMillis(5));
+
+        AdmissionControl.Permit permit = admission.acquire(lesson);
+        try {
+            assertEquals(1, admission.getInFlight());
+
+            OverloadedException e = assertThrows(OverloadedException.class, () -> admission.acquire(lesson));
+            assertTrue(e.getRetryAfter().toMillis() >= 1);
+        } finally {
+            permit.close();
+        }
+
+        // The permit is free again
+        admission.acquire(lesson).close();
+
+        assertEquals(0, admission.getInFlight());
+        assertEquals(0, admission.getQueueDepth());
+        assertEquals(2, admission.getAdmittedCount());
+        assertEquals(1, admission.getShedCount());
+    }
+
+    @Test
+    void testShedsAtOnceWhenQueueIsFull() {
+        AdmissionControl admission = new AdmissionControl(4, 1, Duration.ofMinutes(1), 0);
+        AdmissionControl.Permit permit = admission.acquire(lesson);
+
+        // The request would wait a minute for the permit, but there is no room in the queue
+        long start = System.nanoTime();
+        assertThrows(OverloadedException.class, () -> admission.acquire(lesson));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+
+        permit.close();
+        assertEquals(0, admission.getQueueDepth());
+        assertEquals(1, admission.getShedCount());
+    }
+
+    @Test
+    void testUnlimitedAdmitsEveryRequest() {
+        AdmissionControl admission = AdmissionControl.unlimited();
+
+        for (int i = 0; i < 3; i++) {
+            admission.acquire(lesson);
+        }
+
+        assertEquals(0, admission.getInFlight());
+        assertEquals(0, admission.getShedCount());
+    }
+
+    @Test
+    void testBookingRequestsAreAdmitted() {
+        AdmissionControl admission = new AdmissionControl(4, 1, Duration.ZERO);
+        BookingRepository bookingRepository = new BookingRepository(new Metrics(), Clock.systemUTC(), admission);
+
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", Grade.TWO);
+
+        AdmissionControl.Permit permit = admission.acquire(lesson);
+        try {
+            assertThrows(OverloadedException.class, () -> bookingRepository.tryCreate(new Booking(learner, lesson), "request-1"));
+        } finally {
+            permit.close();
+        }
+
+        // A shed request is not remembered, so its retry runs
+        assertEquals(BookingOutcome.BOOKED, bookingRepository.tryCreate(new Booking(learner, lesson), "request-1"));
+        assertEquals(0, bookingRepository.getReplayCount());
+    }
+}
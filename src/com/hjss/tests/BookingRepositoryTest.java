@@ -1,10 +1,13 @@
 package com.hjss.tests;
 
+import com.hjss.enums.BookingOutcome;
 import com.hjss.enums.Day;
 import com.hjss.enums.Gender;
 import com.hjss.enums.Grade;
+import com.hjss.enums.Operation;
 import com.hjss.enums.Time;
 import com.hjss.exceptions.*;
+import com.hjss.metrics.Metrics;
 import com.hjss.model.*;
 
 import com.hjss.repository.BookingRepository;
@@ -14,6 +17,11 @@ import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -193,6 +201,367 @@ class BookingRepositoryTest {
         }
     }
 
+    @Test
+    void testTryCreate() {
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", Grade.FIVE);
+        Lesson lesson = new Lesson(Grade.FIVE, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"));
+
+        Booking booking = new Booking(learner, lesson);
+
+        assertEquals(BookingOutcome.BOOKED, bookingRepository.tryCreate(booking));
+        assertTrue(bookingRepository.read().contains(booking));
+        assertEquals(3, lesson.getVacancy());
+
+        // Rejections are reported without throwing
+        assertEquals(BookingOutcome.DUPLICATE_BOOKING, bookingRepository.tryCreate(new Booking(learner, lesson)));
+
+        Lesson lowerLesson = new Lesson(Grade.ONE, new TimeSlot(Day.MONDAY, Time.FIVE), new Coach("Watkins"));
+        assertEquals(BookingOutcome.GRADE_MISMATCH, bookingRepository.tryCreate(new Booking(learner, lowerLesson)));
+
+        lesson.incrementBySize();
+        lesson.incrementBySize();
+        lesson.incrementBySize();
+
+        Learner other = new Learner("Other Learner", Gender.Male, 8, "9876543211", Grade.FIVE);
+        assertEquals(BookingOutcome.NO_VACANCY, bookingRepository.tryCreate(new Booking(other, lesson)));
+    }
+
+    @Test
+    void testCreateRejectionIsStackless() {
+        NoVacancyException e = assertThrows(NoVacancyException.class, () -> {
+            Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", Grade.FIVE);
+            Lesson lesson = new Lesson(Grade.FIVE, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"));
+
+            lesson.incrementBySize();
+            lesson.incrementBySize();
+            lesson.incrementBySize();
+            lesson.incrementBySize();
+
+            bookingRepository.create(new Booking(learner, lesson));
+        });
+
+        // The shared instance is thrown and carries no stack trace
+        assertSame(NoVacancyException.STACKLESS, e);
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals("No Vacancy", e.getMessage());
+    }
+
+    @Test
+    void testCreateAll() {
+        Lesson lesson1 = new Lesson(Grade.THREE, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"));
+        Lesson lesson2 = new Lesson(Grade.THREE, new TimeSlot(Day.MONDAY, Time.FIVE), new Coach("Watkins"));
+
+        Learner learner1 = new Learner("Learner 1", Gender.Female, 8, "9876543210", Grade.THREE);
+        Learner learner2 = new Learner("Learner 2", Gender.Male, 8, "9876543211", Grade.TWO);
+        Learner learner3 = new Learner("Learner 3", Gender.Female, 8, "9876543212", Grade.ONE);
+
+        List<BookingOutcome> outcomes = bookingRepository.createAll(List.of(
+                new Booking(learner1, lesson1),
+                new Booking(learner2, lesson1),
+                new Booking(learner1, lesson2),
+                new Booking(learner3, lesson2)
+        ));
+
+        // Lesson 1 is fully booked, lesson 2 is rolled back because learner 3 cannot take grade three
+        assertEquals(List.of(BookingOutcome.BOOKED, BookingOutcome.BOOKED,
+                BookingOutcome.GROUP_REJECTED, BookingOutcome.GRADE_MISMATCH), outcomes);
+
+        assertEquals(2, lesson1.getSize());
+        assertEquals(0, lesson2.getSize());
+        assertEquals(4, bookingRepository.read().size());
+    }
+
+    @Test
+    void testCreateAllNeedsSeatsForTheWholeLessonGroup() {
+        Lesson lesson = new Lesson(Grade.THREE, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"));
+        lesson.incrementBySize();
+        lesson.incrementBySize();
+
+        Learner learner1 = new Learner("Learner 1", Gender.Female, 8, "9876543210", Grade.THREE);
+        Learner learner2 = new Learner("Learner 2", Gender.Male, 8, "9876543211", Grade.THREE);
+        Learner learner3 = new Learner("Learner 3", Gender.Female, 8, "9876543212", Grade.THREE);
+
+        List<BookingOutcome> outcomes = bookingRepository.createAll(List.of(
+                new Booking(learner1, lesson),
+                new Booking(learner2, lesson),
+                new Booking(learner3, lesson)
+        ));
+
+        assertEquals(List.of(BookingOutcome.NO_VACANCY, BookingOutcome.NO_VACANCY, BookingOutcome.NO_VACANCY), outcomes);
+        assertEquals(2, lesson.getVacancy());
+
+        // The same learner twice in one lesson is a duplicate
+        outcomes = bookingRepository.createAll(List.of(new Booking(learner1, lesson), new Booking(learner1, lesson)));
+
+        assertEquals(List.of(BookingOutcome.GROUP_REJECTED, BookingOutcome.DUPLICATE_BOOKING), outcomes);
+    }
+
+    @Test
+    void testWaitlistPromotionOnCancel() throws Exception {
+        // Fill the seeded lesson
+        for (int i = 0; i < 3; i++) {
+            Learner learner = new Learner("Learner " + i, Gender.Female, 8, "9876543210", testLesson.getGrade());
+            bookingRepository.create(new Booking(learner, testLesson));
+        }
+
+        Learner first = new Learner("First", Gender.Female, 8, "9876543210", testLesson.getGrade());
+        Learner second = new Learner("Second", Gender.Male, 8, "9876543211", testLesson.getGrade());
+
+        Booking firstBooking = new Booking(first, testLesson);
+
+        assertEquals(BookingOutcome.WAITLISTED, bookingRepository.waitlist(firstBooking));
+        assertEquals(BookingOutcome.WAITLISTED, bookingRepository.waitlist(new Booking(second, testLesson)));
+
+        // Joining again keeps the original place
+        assertEquals(BookingOutcome.WAITLISTED, bookingRepository.waitlist(new Booking(first, testLesson)));
+        assertEquals(2, bookingRepository.readWaitlist(testLesson).size());
+
+        bookingRepository.cancel(testBooking1);
+
+        // The head of the waitlist takes the freed seat
+        assertEquals(0, testLesson.getVacancy());
+        assertTrue(bookingRepository.read().contains(firstBooking));
+        assertEquals(second, bookingRepository.readWaitlist(testLesson).getFirst().getLearner());
+    }
+
+    @Test
+    void testWaitlistPromotionSkipsLearnersWhoCannotTakeTheLesson() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Learner learner = new Learner("Learner " + i, Gender.Female, 8, "9876543210", testLesson.getGrade());
+            bookingRepository.create(new Booking(learner, testLesson));
+        }
+
+        Learner regraded = new Learner("Regraded", Gender.Female, 8, "9876543210", testLesson.getGrade());
+        Learner waiting = new Learner("Waiting", Gender.Male, 8, "9876543211", testLesson.getGrade());
+
+        bookingRepository.waitlist(new Booking(regraded, testLesson));
+        bookingRepository.waitlist(new Booking(waiting, testLesson));
+
+        // Learner's grade changed while waiting
+        regraded.setGrade(Grade.ONE);
+
+        Lesson otherLesson = new Lesson(testLesson.getGrade(), new TimeSlot(Day.SATURDAY, Time.TWO), new Coach("Watkins"));
+        bookingRepository.change(testBooking1, otherLesson);
+
+        assertEquals(1, bookingRepository.read(waiting).size());
+        assertTrue(bookingRepository.read(regraded).isEmpty());
+        assertTrue(bookingRepository.readWaitlist(testLesson).isEmpty());
+    }
+
+    @Test
+    void testWaitlistFollowsBookingRules() {
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", Grade.ONE);
+
+        assertEquals(BookingOutcome.GRADE_MISMATCH, bookingRepository.waitlist(new Booking(learner, testLesson)));
+        assertEquals(BookingOutcome.DUPLICATE_BOOKING, bookingRepository.waitlist(new Booking(testLearner, testLesson)));
+
+        // A lesson with a vacancy is booked straight away
+        learner.setGrade(testLesson.getGrade());
+        assertEquals(BookingOutcome.BOOKED, bookingRepository.waitlist(new Booking(learner, testLesson)));
+
+        assertFalse(bookingRepository.leaveWaitlist(learner, testLesson));
+    }
+
+    @Test
+    void testSeatHoldConfirm() throws Exception {
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", testLesson.getGrade());
+        int vacancy = testLesson.getVacancy();
+
+        SeatHold hold = bookingRepository.hold(new Booking(learner, testLesson), Duration.ofMinutes(5));
+
+        // The held seat is taken and cannot be held twice
+        assertEquals(vacancy - 1, testLesson.getVacancy());
+        assertThrows(DuplicateBookingException.class, () -> bookingRepository.hold(new Booking(learner, testLesson), Duration.ofMinutes(5)));
+
+        Booking booking = bookingRepository.confirm(hold);
+
+        assertTrue(bookingRepository.read().contains(booking));
+        assertEquals(vacancy - 1, testLesson.getVacancy());
+        assertEquals(0, bookingRepository.getHoldCount());
+        assertThrows(HoldExpiredException.class, () -> bookingRepository.confirm(hold));
+    }
+
+    @Test
+    void testSeatHoldExpires() throws Exception {
+        MutableClock clock = new MutableClock();
+        BookingRepository repository = new BookingRepository(new Metrics(), clock);
+
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", testLesson.getGrade());
+        Lesson lesson = new Lesson(testLesson.getGrade(), new TimeSlot(Day.MONDAY, Time.FIVE), new Coach("Watkins"));
+
+        SeatHold hold = repository.hold(new Booking(learner, lesson), Duration.ofSeconds(30));
+        assertEquals(3, lesson.getVacancy());
+
+        clock.millis += 29_000;
+        assertEquals(0, repository.expireHolds());
+
+        clock.millis += 1_100;
+        assertEquals(1, repository.expireHolds());
+
+        // The seat and the learner are free again
+        assertEquals(4, lesson.getVacancy());
+        assertFalse(hold.isActive());
+        assertThrows(HoldExpiredException.class, () -> repository.confirm(hold));
+        assertEquals(BookingOutcome.BOOKED, repository.tryCreate(new Booking(learner, lesson)));
+    }
+
+    @Test
+    void testSeatHoldRelease() throws Exception {
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", testLesson.getGrade());
+        int vacancy = testLesson.getVacancy();
+
+        SeatHold hold = bookingRepository.hold(new Booking(learner, testLesson), Duration.ofMinutes(5));
+
+        assertTrue(bookingRepository.release(hold));
+        assertFalse(bookingRepository.release(hold));
+        assertEquals(vacancy, testLesson.getVacancy());
+    }
+
+    @Test
+    void testCreateRetryReturnsOriginalBooking() throws Exception {
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", testLesson.getGrade());
+
+        Booking booking = bookingRepository.create(new Booking(learner, testLesson), "request-1");
+
+        // The client timed out and retries with a fresh booking object
+        assertSame(booking, bookingRepository.create(new Booking(learner, testLesson), "request-1"));
+        assertEquals(BookingOutcome.BOOKED, bookingRepository.tryCreate(new Booking(learner, testLesson), "request-1"));
+
+        // A new request is still rejected as a duplicate
+        assertThrows(DuplicateBookingException.class, () -> bookingRepository.create(new Booking(learner, testLesson), "request-2"));
+        assertThrows(DuplicateBookingException.class, () -> bookingRepository.create(new Booking(learner, testLesson), "request-2"));
+
+        assertEquals(3, bookingRepository.read().size());
+        assertEquals(3, bookingRepository.getReplayCount());
+    }
+
+    @Test
+    void testChangeRetryDoesNotTransferTwice() throws Exception {
+        Lesson lesson2 = new Lesson(testLesson.getGrade(), new TimeSlot(Day.SATURDAY, Time.TWO), new Coach("Watkins"));
+        Lesson lesson3 = new Lesson(testLesson.getGrade(), new TimeSlot(Day.FRIDAY, Time.SIX), new Coach("Watkins"));
+
+        bookingRepository.change(testBooking1, lesson2, "change-1");
+
+        // A late retry after the learner moved on is answered with the original result
+        bookingRepository.change(testBooking1, lesson3);
+        bookingRepository.change(testBooking1, lesson2, "change-1");
+
+        assertEquals(lesson3, testBooking1.getLesson());
+        assertEquals(0, lesson2.getSize());
+
+        bookingRepository.cancel(testBooking1, "cancel-1");
+        assertSame(testBooking1, bookingRepository.cancel(testBooking1, "cancel-1"));
+        assertThrows(BookingCancelledException.class, () -> bookingRepository.attend(testBooking1, "attend-1"));
+        assertThrows(BookingCancelledException.class, () -> bookingRepository.attend(testBooking1, "attend-1"));
+    }
+
+    @Test
+    void testReusedRequestIdForAnotherRequestIsRejected() throws Exception {
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", testLesson.getGrade());
+        Lesson lesson2 = new Lesson(testLesson.getGrade(), new TimeSlot(Day.SATURDAY, Time.TWO), new Coach("Watkins"));
+
+        bookingRepository.create(new Booking(learner, testLesson), "request-1");
+
+        // Same ID, another lesson: not a retry, so it is neither run nor answered with the first booking
+        assertThrows(IllegalArgumentException.class, () -> bookingRepository.create(new Booking(learner, lesson2), "request-1"));
+        assertEquals(0, lesson2.getSize());
+
+        // Same ID, another booking
+        Booking other = bookingRepository.read().get(1);
+        bookingRepository.cancel(testBooking1, "cancel-1");
+        assertThrows(IllegalArgumentException.class, () -> bookingRepository.cancel(other, "cancel-1"));
+        assertFalse(other.getCancellationStatus());
+
+        assertEquals(0, bookingRepository.getReplayCount());
+    }
+
+    @Test
+    void testTimeSlotClash() throws Exception {
+        Lesson sameSlot = new Lesson(testLearner.getGrade(), testLesson.getTimeSlot(), new Coach("Watkins"));
+        Lesson nextWeek = new Lesson(testLearner.getGrade(), testLesson.getTimeSlot(), new Coach("Watkins"), 2);
+
+        // The seeded learner already has a lesson at this week, day and time
+        assertThrows(TimeSlotClashException.class, () -> bookingRepository.create(new Booking(testLearner, sameSlot)));
+        assertEquals(BookingOutcome.TIME_CLASH, bookingRepository.tryCreate(new Booking(testLearner, sameSlot)));
+
+        // The same slot in another week is free
+        Booking booking = bookingRepository.create(new Booking(testLearner, nextWeek));
+
+        // Moving a booking within the same slot is allowed, moving onto a taken slot is not
+        Lesson otherNextWeek = new Lesson(testLearner.getGrade(), testLesson.getTimeSlot(), new Coach("Badoo"), 2);
+
+        bookingRepository.change(testBooking1, sameSlot);
+        assertThrows(TimeSlotClashException.class, () -> bookingRepository.change(testBooking1, otherNextWeek));
+
+        // Cancelling frees the slot
+        bookingRepository.cancel(booking);
+        bookingRepository.change(testBooking1, otherNextWeek);
+        assertEquals(otherNextWeek, testBooking1.getLesson());
+    }
+
+    @Test
+    void testSealPastWeeks() throws Exception {
+        Lesson nextWeek = new Lesson(Grade.FOUR, new TimeSlot(Day.WEDNESDAY, Time.FIVE), new Coach("Badoo"), 2);
+        Booking upcoming = bookingRepository.create(new Booking(testLearner, nextWeek));
+
+        assertEquals(1, bookingRepository.seal(1));
+
+        // Sealed bookings are history, only the upcoming booking can still be acted on
+        assertEquals(List.of(upcoming), bookingRepository.readCurrent(testLearner));
+        assertEquals(2, bookingRepository.read(testLearner).size());
+        assertEquals(List.of(upcoming), bookingRepository.read(2, 2));
+        assertEquals(3, bookingRepository.readMonth(1).size());
+
+        // Moving a booking to another week moves it to that week's partition
+        Lesson laterWeek = new Lesson(Grade.FOUR, new TimeSlot(Day.WEDNESDAY, Time.FIVE), new Coach("Badoo"), 3);
+        bookingRepository.change(upcoming, laterWeek);
+
+        assertTrue(bookingRepository.read(2, 2).isEmpty());
+        assertEquals(List.of(upcoming), bookingRepository.read(3, 3));
+        assertEquals(3, bookingRepository.read().size());
+    }
+
+    @Test
+    void testEventTimeIndex() throws Exception {
+        MutableClock clock = new MutableClock();
+        BookingRepository repository = new BookingRepository(new Metrics(), clock);
+        Instant monday = clock.instant();
+
+        Lesson first = new Lesson(Grade.FOUR, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Badoo"));
+        Lesson second = new Lesson(Grade.FOUR, new TimeSlot(Day.WEDNESDAY, Time.FIVE), new Coach("Badoo"));
+        Lesson third = new Lesson(Grade.FOUR, new TimeSlot(Day.SATURDAY, Time.TWO), new Coach("Badoo"));
+        Lesson fourth = new Lesson(Grade.FOUR, new TimeSlot(Day.SATURDAY, Time.THREE), new Coach("Badoo"));
+
+        Booking attended = repository.create(new Booking(testLearner, first));
+        Booking cancelled = repository.create(new Booking(testLearner, second));
+
+        // A week later
+        clock.millis += Duration.ofDays(7).toMillis();
+        Instant nextMonday = clock.instant();
+
+        repository.attend(attended);
+        repository.cancel(cancelled);
+        repository.change(repository.create(new Booking(testLearner, third)), fourth);
+
+        assertEquals(monday, attended.getCreatedAt());
+        assertEquals(nextMonday, attended.getAttendedAt());
+        assertEquals(nextMonday, cancelled.getCancelledAt());
+
+        LearnerSummary lastWeek = repository.readStats(testLearner, monday, nextMonday);
+        assertEquals(2, lastWeek.bookings());
+        assertEquals(0, lastWeek.attendances());
+        assertEquals(List.of(first.getId(), second.getId()), lastWeek.lessonIds());
+
+        LearnerSummary thisWeek = repository.readStats(testLearner, nextMonday, nextMonday.plusSeconds(1));
+        assertEquals(1, thisWeek.bookings());
+        assertEquals(1, thisWeek.attendances());
+        assertEquals(1, thisWeek.cancellations());
+        assertEquals(List.of(third.getId(), fourth.getId()), thisWeek.lessonIds());
+
+        assertEquals(4, repository.readEvents(nextMonday, nextMonday.plusSeconds(1)).size());
+        assertEquals(0, repository.readStats(testLearner, monday.minusSeconds(60), monday).bookings());
+    }
+
     @Test
     void testCreateOneGradeHigher() {
         // Create a new learner
@@ -242,7 +611,7 @@ class BookingRepositoryTest {
 
         // Create a lesson
         Lesson lesson1 = new Lesson(Grade.ONE, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"));
-        Lesson lesson2 = new Lesson(Grade.TWO, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"));
+        Lesson lesson2 = new Lesson(Grade.TWO, new TimeSlot(Day.MONDAY, Time.FIVE), new Coach("Watkins"));
 
         try {
             // Create a booking with grade one
@@ -413,6 +782,57 @@ class BookingRepositoryTest {
         }
     }
 
+    @Test
+    void testReadRoster() throws Exception {
+        assertEquals(List.of(testBooking1), bookingRepository.readRoster(testLesson));
+
+        Booking second = bookingRepository.create(new Booking(new Learner("Second", Gender.Male, 8, "1234567890", Grade.FOUR), testLesson));
+        Booking third = bookingRepository.create(new Booking(new Learner("Third", Gender.Female, 8, "1234567890", Grade.THREE), testLesson));
+
+        assertEquals(List.of(testBooking1, second, third), bookingRepository.readRoster(testLesson));
+
+        // Cancelled and moved bookings leave the roster
+        bookingRepository.cancel(second);
+        Lesson other = new Lesson(Grade.FOUR, new TimeSlot(Day.WEDNESDAY, Time.FIVE), new Coach("Watkins"));
+        bookingRepository.change(third, other);
+
+        assertEquals(List.of(testBooking1), bookingRepository.readRoster(testLesson));
+        assertEquals(List.of(third), bookingRepository.readRoster(other));
+
+        bookingRepository.removeAll();
+        assertTrue(bookingRepository.readRoster(testLesson).isEmpty());
+    }
+
+    @Test
+    void testAttendAll() throws Exception {
+        Metrics metrics = new Metrics();
+        BookingRepository repository = new BookingRepository(metrics);
+        Lesson lesson = new Lesson(Grade.FOUR, new TimeSlot(Day.FRIDAY, Time.FOUR), new Coach("Badoo"));
+
+        Booking same = repository.create(new Booking(new Learner("Same", Gender.Male, 8, "1234567890", Grade.FOUR), lesson));
+        Booking below = repository.create(new Booking(new Learner("Below", Gender.Female, 8, "1234567890", Grade.THREE), lesson));
+        Booking mismatch = repository.create(new Booking(new Learner("Mismatch", Gender.Male, 8, "1234567890", Grade.FOUR), lesson));
+
+        // The learner moved on since booking the lesson
+        mismatch.getLearner().setGrade(Grade.FIVE);
+
+        List<Booking> roster = repository.attendAll(lesson);
+
+        assertEquals(List.of(same, below, mismatch), roster);
+        assertTrue(same.getAttendanceStatus());
+        assertTrue(below.getAttendanceStatus());
+        assertEquals(Grade.FOUR, below.getLearner().getGrade());
+        assertTrue(mismatch.getCancellationStatus());
+        assertFalse(mismatch.getAttendanceStatus());
+
+        assertEquals(2, lesson.getSize());
+        assertEquals(List.of(same, below), repository.readRoster(lesson));
+        assertEquals(1, metrics.getRejected(Operation.BULK_ATTEND));
+
+        // Marking the lesson again leaves attended bookings as they are
+        assertEquals(List.of(same, below), repository.attendAll(lesson));
+    }
+
     @Test
     void testValidateGradeMatch() {
         try {
@@ -509,4 +929,31 @@ class BookingRepositoryTest {
             fail("Unexpected Error occurred when invoking validateVacancy method: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Clock moved by hand, so seat holds can expire without waiting.
+     */
+    private static class MutableClock extends Clock {
+        long millis = 1_000_000;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
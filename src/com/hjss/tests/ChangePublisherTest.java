@@ -0,0 +1,95 @@
+package com.hjss.tests;
+
+import com.hjss.changes.*;
+import com.hjss.enums.*;
+import com.hjss.model.*;
+import com.hjss.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangePublisherTest {
+    @Test
+    void testBookingChangesAreStreamed() throws Exception {
+        BookingRepository bookingRepository = new BookingRepository();
+        LinkedBlockingQueue<ChangeEvent> received = new LinkedBlockingQueue<>();
+
+        bookingRepository.getChanges().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(List<ChangeEvent> batch) {
+                received.addAll(batch);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        Lesson lesson = new Lesson(Grade.TWO, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"));
+        Learner learner = new Learner("Streamer", Gender.Male, 7, "1234567890", Grade.TWO);
+        Booking booking = bookingRepository.create(new Booking(learner, lesson));
+        bookingRepository.cancel(booking);
+
+        List<ChangeEvent> changes = new ArrayList<>();
+        while (changes.size() < 4) {
+            ChangeEvent change = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change);
+            changes.add(change);
+        }
+
+        assertEquals(new BookingChange(BookingEventType.CREATED, booking.getId(), learner.getId(), lesson.getId(),
+                booking.getCreatedAt()), changes.get(0));
+        assertEquals(3, ((VacancyChange) changes.get(1)).vacancy());
+        assertEquals(BookingEventType.CANCELLED, ((BookingChange) changes.get(2)).type());
+        assertEquals(4, ((VacancyChange) changes.get(3)).vacancy());
+
+        bookingRepository.getChanges().close();
+    }
+
+    @Test
+    void testSlowSubscriberIsDroppedNotWaitedFor() {
+        // Delivered on the calling thread, to a subscriber that never asks for anything
+        ChangePublisher publisher = new ChangePublisher(Runnable::run, 1, 2);
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+            }
+
+            @Override
+            public void onNext(List<ChangeEvent> batch) {
+                fail("Nothing was requested");
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        for (int i = 0; i < 3; i++) {
+            publisher.publish(new VacancyChange(1, i, Instant.EPOCH));
+        }
+
+        // The first batch fills the buffer, the next ones are dropped
+        assertEquals(2, publisher.getDropped());
+    }
+}
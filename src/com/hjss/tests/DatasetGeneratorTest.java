@@ -0,0 +1,154 @@
+package com.hjss.tests;
+
+import com.hjss.enums.Grade;
+import com.hjss.model.Booking;
+import com.hjss.model.Learner;
+import com.hjss.model.Lesson;
+import com.hjss.model.TimeSlot;
+import com.hjss.repository.*;
+import com.hjss.tools.DatasetGenerator;
+import com.hjss.tools.DatasetSpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetGeneratorTest {
+    private LearnerRepository learnerRepository;
+    private LessonRepository lessonRepository;
+    private BookingRepository bookingRepository;
+    private ReviewRepository reviewRepository;
+    private DatasetGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        CoachRepository coachRepository = new CoachRepository();
+        learnerRepository = new LearnerRepository();
+        lessonRepository = new LessonRepository(coachRepository);
+        bookingRepository = new BookingRepository();
+        reviewRepository = new ReviewRepository();
+
+        generator = new DatasetGenerator(learnerRepository, coachRepository, lessonRepository, bookingRepository, reviewRepository);
+    }
+
+    @Test
+    void testGenerateCounts() {
+        DatasetGenerator.Summary summary = generator.generate(DatasetSpec.of(7, 200, 6, 10));
+
+        // 11 lessons a week
+        assertEquals(110, summary.lessons());
+        assertEquals(110, lessonRepository.read().size());
+
+        // Seeded learners are replaced
+        assertEquals(200, learnerRepository.read().size());
+
+        assertEquals(summary.bookings(), bookingRepository.read().size());
+        assertEquals(summary.reviews(), reviewRepository.read().size());
+
+        // 75% of 440 seats are booked on average
+        assertTrue(summary.bookings() > 250 && summary.bookings() < 400);
+    }
+
+    @Test
+    void testGenerateKeepsBookingRules() {
+        generator.generate(DatasetSpec.of(11, 300, 4, 20));
+
+        Set<String> learnerLessons = new HashSet<>();
+
+        for (Booking booking : bookingRepository.read()) {
+            // No duplicate bookings
+            assertTrue(learnerLessons.add(booking.getLearner().getId() + ":" + booking.getLesson().getId()));
+
+            // Learner ages are valid
+            assertTrue(learnerRepository.isValidAge(booking.getLearner().getAge()));
+        }
+
+        // Lesson sizes match their active bookings
+        for (Lesson lesson : lessonRepository.read()) {
+            long active = bookingRepository.read().stream()
+                    .filter(bk -> bk.getLesson() == lesson && !bk.getCancellationStatus())
+                    .count();
+
+            assertEquals(active, lesson.getSize());
+            assertTrue(lesson.getVacancy() >= 0 && lesson.getVacancy() <= 4);
+        }
+    }
+
+    @Test
+    void testGeneratedBookingsCanBeAttended() {
+        generator.generate(DatasetSpec.of(5, 120, 4, 40));
+
+        Map<Learner, Grade> attendedGrades = new HashMap<>();
+        Set<String> learnerSlots = new HashSet<>();
+
+        // Bookings are read in timetable order
+        for (Booking booking : bookingRepository.read()) {
+            Learner learner = booking.getLearner();
+            Lesson lesson = booking.getLesson();
+
+            if (booking.getCancellationStatus()) continue;
+
+            // One active booking per learner in each week, day and time
+            TimeSlot slot = lesson.getTimeSlot();
+            assertTrue(learnerSlots.add(learner.getId() + ":" + lesson.getWeek() + ":" + slot.day() + ":" + slot.time()));
+
+            if (booking.getAttendanceStatus()) {
+                // Each attendance is the grade reached so far or the grade above
+                Grade previous = attendedGrades.put(learner, lesson.getGrade());
+                if (previous != null) {
+                    int step = lesson.getGrade().getValue() - previous.getValue();
+                    assertTrue(step == 0 || step == 1);
+                }
+            } else {
+                // Seats left booked are still open to the learner's final grade
+                int step = lesson.getGrade().getValue() - learner.getGrade().getValue();
+                assertTrue(step == 0 || step == 1, "Booked seat no longer matches the learner's grade");
+            }
+        }
+
+        // Learners end at the grade of their last attendance
+        attendedGrades.forEach((learner, grade) -> assertEquals(grade, learner.getGrade()));
+    }
+
+    @Test
+    void testGenerateIsDeterministic() {
+        DatasetSpec spec = DatasetSpec.of(99, 150, 5, 8);
+
+        generator.generate(spec);
+        List<String> first = describe();
+
+        generator.generate(spec);
+        List<String> second = describe();
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    void testInvalidSpec() {
+        assertThrows(IllegalArgumentException.class, () -> DatasetSpec.of(1, 0, 4, 4));
+        assertThrows(IllegalArgumentException.class, () -> new DatasetSpec(1, 10, 4, 4, 1.5, 0, 0, 0));
+    }
+
+    /**
+     * Describes the generated bookings independently of the global ID counters.
+     */
+    private List<String> describe() {
+        List<Lesson> lessons = lessonRepository.read();
+        List<String> rows = new ArrayList<>();
+
+        for (Booking booking : bookingRepository.read()) {
+            Learner learner = booking.getLearner();
+            rows.add(lessons.indexOf(booking.getLesson()) + ":" + learner.getName() + ":" + learner.getGrade()
+                    + ":" + booking.getAttendanceStatus() + ":" + booking.getCancellationStatus());
+        }
+
+        return rows;
+    }
+}
@@ -0,0 +1,38 @@
+package com.hjss.tests;
+
+import com.hjss.util.DedupCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DedupCacheTest {
+    @Test
+    void testResultsExpire() {
+        DedupCache<String, String> cache = new DedupCache<>(10, Duration.ofSeconds(1));
+
+        cache.put("a", "first", 0);
+        cache.put("a", "second", 500);
+
+        // The original result is kept
+        assertEquals("first", cache.get("a", 999));
+        assertNull(cache.get("a", 1_000));
+
+        cache.put("b", "other", 1_500);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testCapacityIsBounded() {
+        DedupCache<Integer, Integer> cache = new DedupCache<>(100, Duration.ofHours(1));
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i, i);
+        }
+
+        assertEquals(100, cache.size());
+        assertNull(cache.get(0, 10_000));
+        assertEquals(9_999, (int) cache.get(9_999, 10_000));
+    }
+}
@@ -0,0 +1,110 @@
+package com.hjss.tests;
+
+import com.hjss.enums.*;
+import com.hjss.eventlog.EventLog;
+import com.hjss.eventlog.Projection;
+import com.hjss.metrics.Metrics;
+import com.hjss.model.*;
+import com.hjss.repository.AdmissionControl;
+import com.hjss.repository.BookingRepository;
+import com.hjss.repository.CoachRepository;
+import com.hjss.repository.LearnerRepository;
+import com.hjss.repository.LessonRepository;
+import com.hjss.repository.ReviewRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogTest {
+    @Test
+    void testReplayRebuildsBookingState() throws Exception {
+        EventLog log = new EventLog(4);
+        BookingRepository bookingRepository = new BookingRepository(new Metrics(), Clock.systemUTC(), AdmissionControl.unlimited(), log);
+        ReviewRepository reviewRepository = new ReviewRepository(Clock.systemUTC(), log);
+
+        Coach coach = new Coach("Watkins");
+        List<Lesson> lessons = new ArrayList<>();
+        for (Time time : List.of(Time.FOUR, Time.FIVE, Time.SIX)) {
+            lessons.add(new Lesson(Grade.TWO, new TimeSlot(Day.MONDAY, time), coach));
+        }
+
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Learner learner = new Learner("Learner " + i, Gender.Male, 7, "1234567890", Grade.TWO);
+            bookings.add(bookingRepository.create(new Booking(learner, lessons.get(i % 2))));
+        }
+
+        bookingRepository.cancel(bookings.get(0));
+        bookingRepository.change(bookings.get(1), lessons.get(2));
+        bookingRepository.attend(bookings.get(2));
+        reviewRepository.create(new Review(Rating.Five, "Great", bookings.get(2)));
+
+        assertEquals(9, log.size());
+        assertEquals(8, log.getSnapshotSequence());
+
+        for (Projection state : List.of(log.recover(), log.replay(3))) {
+            assertEquals(9, state.getSequence());
+
+            for (Lesson lesson : lessons) {
+                assertEquals(lesson.getSize(), state.getLessonSize(lesson.getId()));
+            }
+
+            assertTrue(state.getBooking(bookings.get(0).getId()).cancelled());
+            assertEquals(lessons.get(2).getId(), state.getBooking(bookings.get(1).getId()).lessonId());
+            assertTrue(state.getBooking(bookings.get(2).getId()).attended());
+            assertEquals(Grade.TWO, state.getLearnerGrade(bookings.get(2).getLearner().getId()));
+            assertEquals(5.0f, state.getCoach(coach.getId()).getAvgRating());
+            assertEquals(5, state.getBookings().size());
+        }
+    }
+
+    @Test
+    void testRestoreRebuildsRepository() throws Exception {
+        EventLog log = new EventLog(4);
+        BookingRepository bookingRepository = new BookingRepository(new Metrics(), Clock.systemUTC(), AdmissionControl.unlimited(), log);
+        LessonRepository lessonRepository = new LessonRepository(new CoachRepository());
+        LearnerRepository learnerRepository = new LearnerRepository();
+
+        List<Learner> learners = learnerRepository.read();
+        List<Lesson> lessons = lessonRepository.read(Grade.TWO);
+
+        Booking cancelled = bookingRepository.create(new Booking(learners.get(1), lessons.get(0)));
+        Booking changed = bookingRepository.create(new Booking(learners.get(1), lessons.get(1)));
+        Booking attended = bookingRepository.create(new Booking(learners.get(6), lessons.get(0)));
+        bookingRepository.cancel(cancelled);
+        bookingRepository.change(changed, lessons.get(2));
+        bookingRepository.attend(attended);
+
+        long logged = log.size();
+        int[] sizes = lessons.stream().mapToInt(Lesson::getSize).toArray();
+
+        // Lose the live sizes, the restore takes them from the log
+        for (Lesson lesson : lessons) {
+            lesson.incrementBySize();
+        }
+
+        BookingRepository restored = BookingRepository.restore(new Metrics(), Clock.systemUTC(), AdmissionControl.unlimited(),
+                log, lessonRepository, learnerRepository);
+
+        assertEquals(logged, log.size());
+        assertEquals(3, restored.read().size());
+        assertEquals(bookingRepository.getBookedSeats(), restored.getBookedSeats());
+        assertTrue(restored.readById(cancelled.getId()).getCancellationStatus());
+        assertEquals(lessons.get(2), restored.readById(changed.getId()).getLesson());
+        assertTrue(restored.readById(attended.getId()).getAttendanceStatus());
+        for (int i = 0; i < lessons.size(); i++) {
+            assertEquals(sizes[i], lessons.get(i).getSize());
+        }
+
+        // The restored bookings are checked for duplicates, and new changes go to the same log with fresh IDs
+        assertEquals(BookingOutcome.DUPLICATE_BOOKING, restored.tryCreate(new Booking(learners.get(1), lessons.get(2))));
+
+        Booking booking = restored.create(new Booking(learners.get(1), lessons.get(3)));
+        assertTrue(booking.getId() > attended.getId());
+        assertEquals(logged + 1, log.size());
+    }
+}
@@ -0,0 +1,95 @@
+package com.hjss.tests;
+
+import com.hjss.enums.*;
+import com.hjss.exceptions.GradeMisMatchException;
+import com.hjss.jfr.ReportEvent;
+import com.hjss.model.*;
+import com.hjss.repository.BookingRepository;
+import com.hjss.repository.ReviewRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEventsTest {
+
+    @Test
+    void testBookingAndReviewEventsAreRecorded() throws Exception {
+        BookingRepository bookingRepository = new BookingRepository();
+        ReviewRepository reviewRepository = new ReviewRepository();
+
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", Grade.FIVE);
+        Lesson lesson = new Lesson(Grade.FIVE, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"));
+        Lesson lowerLesson = new Lesson(Grade.ONE, new TimeSlot(Day.MONDAY, Time.FIVE), new Coach("Watkins"));
+
+        Path file = Files.createTempFile("hjss", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            // Record everything regardless of the production thresholds
+            recording.enable("com.hjss.BookingOperation").withThreshold(Duration.ZERO);
+            recording.enable("com.hjss.Review").withThreshold(Duration.ZERO);
+            recording.start();
+
+            Booking booking = bookingRepository.create(new Booking(learner, lesson));
+            assertThrows(GradeMisMatchException.class, () -> bookingRepository.create(new Booking(learner, lowerLesson)));
+            reviewRepository.create(new Review(Rating.Five, "Great", bookingRepository.attend(booking)));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.deleteIfExists(file);
+
+        List<RecordedEvent> bookings = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.hjss.BookingOperation"))
+                .toList();
+
+        assertEquals(3, bookings.size());
+
+        RecordedEvent created = bookings.stream().filter(e -> e.getInt("lessonId") == lesson.getId()
+                && e.getString("operation").equals("CREATE")).findFirst().orElseThrow();
+        assertEquals(learner.getId(), created.getInt("learnerId"));
+        assertEquals("SUCCESS", created.getString("outcome"));
+
+        assertTrue(bookings.stream().anyMatch(e -> e.getString("outcome").equals("GradeMisMatchException")));
+
+        RecordedEvent review = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.hjss.Review"))
+                .findFirst().orElseThrow();
+        assertEquals(5, review.getInt("rating"));
+    }
+
+    @Test
+    void testReportEventsCarryMonthAndRows() throws Exception {
+        Path file = Files.createTempFile("hjss", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.hjss.Report").withThreshold(Duration.ZERO);
+            recording.start();
+
+            ReportEvent.start().complete(Operation.COACH_REPORT, 2, 4);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.deleteIfExists(file);
+
+        RecordedEvent report = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.hjss.Report"))
+                .findFirst().orElseThrow();
+        assertEquals("COACH_REPORT", report.getString("report"));
+        assertEquals(2, report.getInt("month"));
+        assertEquals(4, report.getInt("rows"));
+        assertFalse(report.hasField("learnerId"));
+    }
+}
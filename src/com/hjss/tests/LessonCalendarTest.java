@@ -0,0 +1,101 @@
+package com.hjss.tests;
+
+import com.hjss.enums.Day;
+import com.hjss.enums.Gender;
+import com.hjss.enums.Grade;
+import com.hjss.enums.Time;
+import com.hjss.model.*;
+import com.hjss.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LessonCalendarTest {
+    private static final LocalDate TERM_START = LocalDate.of(2026, 1, 5); // A Monday
+
+    private LessonRepository lessonRepository;
+    private LessonCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        lessonRepository = new LessonRepository(new CoachRepository());
+        calendar = new LessonCalendar(lessonRepository, TERM_START);
+
+        calendar.addRule(new LessonRule(new TimeSlot(Day.MONDAY, Time.FOUR), Grade.ONE, new Coach("Watkins"), TERM_START, null));
+        calendar.addRule(new LessonRule(new TimeSlot(Day.SATURDAY, Time.TWO), Grade.TWO, new Coach("Badoo"),
+                TERM_START, TERM_START.plusWeeks(4)));
+    }
+
+    @Test
+    void testReadExpandsOnlyRequestedWeeks() {
+        int before = lessonRepository.read().size();
+
+        List<Lesson> lessons = calendar.read(TERM_START.plusWeeks(1), TERM_START.plusWeeks(1).plusDays(6));
+
+        assertEquals(2, lessons.size());
+        assertEquals(1, calendar.getExpandedWeeks());
+        assertEquals(before + 2, lessonRepository.read().size());
+
+        Lesson monday = lessons.get(0);
+        assertEquals(TERM_START.plusWeeks(1), monday.getDate());
+        // Numbered after the 4 seeded weeks
+        assertEquals(6, monday.getWeek());
+        assertEquals(DayOfWeek.SATURDAY, lessons.get(1).getDate().getDayOfWeek());
+        assertSame(monday, lessonRepository.readById(monday.getId()));
+
+        // Reading the week again reuses the same lessons
+        assertSame(monday, calendar.read(TERM_START.plusWeeks(1), TERM_START.plusWeeks(1)).get(0));
+        assertEquals(before + 2, lessonRepository.read().size());
+    }
+
+    @Test
+    void testReadCoversAWholeYear() {
+        List<Lesson> lessons = calendar.read(TERM_START, TERM_START.plusWeeks(52).minusDays(1));
+
+        // 52 Monday lessons, and the Saturday rule ends after 4 weeks
+        assertEquals(56, lessons.size());
+        assertEquals(52, calendar.getExpandedWeeks());
+        assertEquals(56, lessons.get(lessons.size() - 1).getWeek());
+
+        for (int i = 1; i < lessons.size(); i++) {
+            assertFalse(lessons.get(i).getDate().isBefore(lessons.get(i - 1).getDate()));
+        }
+    }
+
+    @Test
+    void testAddRuleExtendsExpandedWeeks() {
+        calendar.read(TERM_START, TERM_START.plusDays(6));
+
+        calendar.addRule(new LessonRule(new TimeSlot(Day.WEDNESDAY, Time.FIVE), Grade.THREE, new Coach("Kemi"), TERM_START, null));
+
+        List<Lesson> lessons = calendar.read(TERM_START, TERM_START.plusDays(6));
+        assertEquals(3, lessons.size());
+        assertEquals(DayOfWeek.WEDNESDAY, lessons.get(1).getDate().getDayOfWeek());
+
+        // Dates before the term have no lessons
+        assertTrue(calendar.read(TERM_START.minusWeeks(2), TERM_START.minusDays(1)).isEmpty());
+    }
+
+    @Test
+    void testCalendarWeeksDoNotClashWithSeededWeeks() throws Exception {
+        Lesson seeded = lessonRepository.search(LessonQuery.all().inWeek(1).forGrade(Grade.ONE)).getFirst();
+        Coach coach = new Coach("Paul");
+        calendar.addRule(new LessonRule(seeded.getTimeSlot(), Grade.ONE, coach, TERM_START, null));
+
+        Lesson dated = calendar.read(TERM_START, TERM_START.plusDays(6)).stream()
+                .filter(lesson -> lesson.getCoach() == coach).findFirst().orElseThrow();
+        Learner learner = new Learner("Both Mondays", Gender.Female, 6, "1234567890", Grade.ONE);
+
+        BookingRepository bookingRepository = new BookingRepository();
+        bookingRepository.create(new Booking(learner, seeded));
+
+        // Same day and time, but a different week
+        assertNotEquals(seeded.getWeek(), dated.getWeek());
+        assertNotNull(bookingRepository.create(new Booking(learner, dated)));
+    }
+}
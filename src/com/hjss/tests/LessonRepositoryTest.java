@@ -1,12 +1,15 @@
 package com.hjss.tests;
 
 import com.hjss.enums.Day;
+import com.hjss.enums.Gender;
 import com.hjss.enums.Grade;
 import com.hjss.enums.Time;
 import com.hjss.model.Coach;
+import com.hjss.model.Learner;
 import com.hjss.model.Lesson;
 import com.hjss.model.TimeSlot;
 import com.hjss.repository.CoachRepository;
+import com.hjss.repository.LessonQuery;
 import com.hjss.repository.LessonRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -209,6 +212,101 @@ class LessonRepositoryTest {
         }
     }
 
+    @Test
+    void testSealHidesPastWeeks() {
+        int mondays = lessonRepository.read(Day.MONDAY).size();
+
+        lessonRepository.seal(2);
+
+        // Two of the four seeded weeks are left
+        assertEquals(mondays / 2, lessonRepository.read(Day.MONDAY).size());
+        assertTrue(lessonRepository.read(Day.MONDAY).stream().allMatch(lesson -> lesson.getWeek() > 2));
+        assertEquals(44, lessonRepository.read().size());
+        assertEquals(11, lessonRepository.search(LessonQuery.all().inWeek(1)).size());
+    }
+
+    @Test
+    void testReadEligible() {
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", Grade.TWO);
+
+        List<Lesson> eligible = lessonRepository.readEligible(learner);
+
+        // Grade two and grade three lessons of the seeded timetable
+        assertEquals(lessonRepository.read(Grade.TWO).size() + lessonRepository.read(Grade.THREE).size(), eligible.size());
+        for (Lesson lesson : eligible) {
+            assertTrue(lesson.getGrade() == Grade.TWO || lesson.getGrade() == Grade.THREE);
+        }
+
+        // A full lesson drops out and comes back when a seat is freed
+        Lesson lesson = eligible.getFirst();
+        for (int i = 0; i < 4; i++) {
+            lesson.incrementBySize();
+        }
+        assertFalse(lessonRepository.readEligible(learner).contains(lesson));
+
+        lesson.decrementBySize();
+        assertEquals(lesson, lessonRepository.readEligible(learner).getFirst());
+
+        // Grade five learners have no higher grade
+        Learner top = new Learner("Top Learner", Gender.Male, 8, "9876543211", Grade.FIVE);
+        assertEquals(lessonRepository.read(Grade.FIVE).size(), lessonRepository.readEligible(top).size());
+    }
+
+    @Test
+    void testSearch() {
+        Lesson first = lessonRepository.read().getFirst();
+        Coach coach = first.getCoach();
+
+        List<Lesson> lessons = lessonRepository.search(LessonQuery.all()
+                .on(first.getTimeSlot().day()).forGrade(first.getGrade()).by(coach).withVacancy());
+
+        assertTrue(lessons.contains(first));
+        for (Lesson lesson : lessons) {
+            assertEquals(first.getTimeSlot().day(), lesson.getTimeSlot().day());
+            assertEquals(first.getGrade(), lesson.getGrade());
+            assertEquals(coach, lesson.getCoach());
+        }
+
+        // Weeks of the seeded timetable
+        assertEquals(11, lessonRepository.search(LessonQuery.all().inWeek(4)).size());
+        assertEquals(4, lessonRepository.search(LessonQuery.all().inWeek(4)).getFirst().getWeek());
+        assertEquals(44, lessonRepository.search(LessonQuery.all()).size());
+
+        // Full lessons no longer match
+        for (int i = 0; i < 4; i++) {
+            first.incrementBySize();
+        }
+        assertFalse(lessonRepository.search(LessonQuery.all().by(coach).withVacancy()).contains(first));
+        assertTrue(lessonRepository.search(LessonQuery.all().by(coach)).contains(first));
+    }
+
+    @Test
+    void testSearchAcrossManyWeeks() {
+        // Enough weeks for the coach and week bitsets to span many words
+        lessonRepository.createLessons(20);
+        List<Lesson> all = lessonRepository.read();
+        Coach coach = all.get(100).getCoach();
+
+        for (int week = 1; week <= 24; week++) {
+            int inWeek = week;
+            List<Lesson> expected = all.stream()
+                    .filter(lesson -> lesson.getWeek() == inWeek && lesson.getCoach() == coach
+                            && lesson.getTimeSlot().day() == Day.SATURDAY)
+                    .toList();
+
+            assertEquals(expected, lessonRepository.search(LessonQuery.all().on(Day.SATURDAY).by(coach).inWeek(week)));
+        }
+
+        assertEquals(all.stream().filter(lesson -> lesson.getCoach() == coach).toList(),
+                lessonRepository.search(LessonQuery.all().by(coach)));
+        assertTrue(lessonRepository.search(LessonQuery.all().inWeek(25)).isEmpty());
+
+        // Sealed weeks drop out of the coach's open lessons
+        lessonRepository.seal(10);
+        assertEquals(all.stream().filter(lesson -> lesson.getCoach() == coach && lesson.getWeek() > 10).toList(),
+                lessonRepository.read(coach));
+    }
+
     @Test
     void testShowTimeTable() {
         lessonRepository.removeAll();
@@ -0,0 +1,78 @@
+package com.hjss.tests;
+
+import com.hjss.enums.*;
+import com.hjss.exceptions.NoVacancyException;
+import com.hjss.metrics.HistogramSnapshot;
+import com.hjss.metrics.LatencyHistogram;
+import com.hjss.metrics.Metrics;
+import com.hjss.model.*;
+import com.hjss.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+    private Metrics metrics;
+    private BookingRepository bookingRepository;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new Metrics();
+        bookingRepository = new BookingRepository(metrics);
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+
+        // Buckets are within about 6% of the recorded value
+        assertEquals(500_000, snapshot.getPercentile(0.5), 500_000 * 0.07);
+        assertEquals(990_000, snapshot.getPercentile(0.99), 990_000 * 0.07);
+        assertEquals(1_000_000, snapshot.getMax(), 1_000_000 * 0.07);
+    }
+
+    @Test
+    void testHistogramSmallAndEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.snapshot().getPercentile(0.99));
+
+        histogram.record(3);
+        histogram.record(-5);
+
+        // Small values are exact and negative values count as zero
+        assertEquals(3, histogram.snapshot().getMax());
+        assertEquals(0, histogram.snapshot().getPercentile(0.5));
+    }
+
+    @Test
+    void testBookingOperationsAreRecorded() throws Exception {
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", Grade.FIVE);
+        Lesson lesson = new Lesson(Grade.FIVE, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"));
+
+        Booking booking = bookingRepository.create(new Booking(learner, lesson));
+        bookingRepository.cancel(booking);
+
+        lesson.incrementBySize();
+        lesson.incrementBySize();
+        lesson.incrementBySize();
+        lesson.incrementBySize();
+
+        Learner other = new Learner("Other Learner", Gender.Male, 8, "9876543211", Grade.FIVE);
+        assertThrows(NoVacancyException.class, () -> bookingRepository.create(new Booking(other, lesson)));
+
+        assertEquals(2, metrics.snapshot(Operation.CREATE).getCount());
+        assertEquals(1, metrics.snapshot(Operation.CANCEL).getCount());
+        assertEquals(1, metrics.getRejected(Operation.CREATE));
+        assertEquals(1, (long) metrics.getRejections().get("NoVacancyException"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.hjss.tests;
+
+import com.hjss.enums.Day;
+import com.hjss.enums.Gender;
+import com.hjss.enums.Rating;
+import com.hjss.model.*;
+import com.hjss.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonthlyReportsTest {
+    private LessonRepository lessonRepository;
+    private BookingRepository bookingRepository;
+    private ReviewRepository reviewRepository;
+    private MonthlyReports reports;
+
+    @BeforeEach
+    void setUp() {
+        lessonRepository = new LessonRepository(new CoachRepository());
+        bookingRepository = new BookingRepository();
+        reviewRepository = new ReviewRepository();
+        reports = new MonthlyReports(lessonRepository, bookingRepository, reviewRepository);
+    }
+
+    @Test
+    void testCloseFoldsMonthIntoSummaries() throws Exception {
+        Lesson first = lessonRepository.search(LessonQuery.all().inWeek(1)).getFirst();
+        Lesson second = lessonRepository.search(LessonQuery.all().inWeek(2).forGrade(first.getGrade())).getFirst();
+        Learner learner = new Learner("Reporter", Gender.Female, 7, "1234567890", first.getGrade());
+
+        Booking attended = bookingRepository.create(new Booking(learner, first));
+        Booking cancelled = bookingRepository.create(new Booking(learner, second));
+
+        bookingRepository.attend(attended);
+        bookingRepository.cancel(cancelled);
+        reviewRepository.create(new Review(Rating.Four, "Great", attended));
+
+        // The open month is folded from its partitions
+        assertEquals(2, reports.readLearner(learner, 1).bookings());
+        assertEquals(4, reports.readCoach(first.getCoach(), 1).getAvgRating());
+
+        assertTrue(reports.close(1));
+        assertFalse(reports.close(1));
+        assertTrue(reports.isClosed(1));
+
+        LearnerSummary summary = reports.readLearner(learner, 1);
+        assertEquals(2, summary.bookings());
+        assertEquals(1, summary.attendances());
+        assertEquals(1, summary.cancellations());
+        assertEquals(List.of(first.getId(), second.getId()), summary.lessonIds());
+
+        CoachSummary coach = reports.readCoach(first.getCoach(), 1);
+        assertEquals(1, coach.reviews());
+        assertEquals(4, coach.ratingTotal());
+
+        // The raw records of the month are archived out of the hot paths
+        assertTrue(bookingRepository.readCurrent(learner).isEmpty());
+        assertTrue(lessonRepository.read(Day.MONDAY).isEmpty());
+        assertEquals(2, bookingRepository.read(learner).size());
+
+        // Nothing happened in the next month
+        assertEquals(0, reports.readLearner(learner, 2).bookings());
+        assertEquals(0, reports.readCoach(first.getCoach(), 2).getAvgRating());
+    }
+
+    @Test
+    void testWritesToClosedMonthRefreshSummaries() throws Exception {
+        Lesson lesson = lessonRepository.search(LessonQuery.all().inWeek(3)).getFirst();
+        Learner learner = new Learner("Latecomer", Gender.Male, 8, "1234567890", lesson.getGrade());
+
+        Booking booking = bookingRepository.create(new Booking(learner, lesson));
+        assertTrue(reports.close(1));
+        assertEquals(0, reports.readLearner(learner, 1).attendances());
+
+        // Attending and reviewing a booking of the closed month reopens its week
+        bookingRepository.attend(booking);
+        reviewRepository.create(new Review(Rating.Two, "Cold water", booking));
+
+        assertEquals(1, reports.readLearner(learner, 1).attendances());
+        assertEquals(1, reports.readCoach(lesson.getCoach(), 1).reviews());
+        assertTrue(reports.isClosed(1));
+    }
+
+    @Test
+    void testCloseBeforeClosesPastMonthsOnly() {
+        lessonRepository.createLessons(8);
+
+        assertEquals(2, reports.closeBefore(3));
+        assertTrue(reports.isClosed(1));
+        assertTrue(reports.isClosed(2));
+        assertFalse(reports.isClosed(3));
+
+        // Months already closed are left alone
+        assertEquals(0, reports.closeBefore(3));
+    }
+}
@@ -0,0 +1,57 @@
+package com.hjss.tests;
+
+import com.hjss.enums.*;
+import com.hjss.model.*;
+import com.hjss.readmodel.ReadModels;
+import com.hjss.readmodel.TimetableRow;
+import com.hjss.repository.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadModelsTest {
+    @Test
+    void testViewsFollowBookingChanges() throws Exception {
+        LessonRepository lessonRepository = new LessonRepository(new CoachRepository());
+        BookingRepository bookingRepository = new BookingRepository();
+        ReviewRepository reviewRepository = new ReviewRepository();
+
+        Lesson first = lessonRepository.read().getFirst();
+        Lesson other = lessonRepository.search(LessonQuery.all().inWeek(2).forGrade(first.getGrade())).getFirst();
+        Learner learner = new Learner("Reader", Gender.Female, 7, "1234567890", first.getGrade());
+
+        // A booking made before the views are built is part of them
+        Booking attended = bookingRepository.create(new Booking(learner, first));
+
+        try (ReadModels readModels = new ReadModels(lessonRepository, bookingRepository, reviewRepository)) {
+            assertEquals(44, readModels.readTimetable().size());
+            assertEquals(3, rowOf(readModels.readTimetable(), first).vacancy());
+
+            Booking moved = bookingRepository.create(new Booking(learner, lessonRepository.search(
+                    LessonQuery.all().inWeek(3).forGrade(first.getGrade())).getFirst()));
+            bookingRepository.change(moved, other);
+            bookingRepository.attend(attended);
+            reviewRepository.create(new Review(Rating.Four, "Good", attended));
+
+            readModels.sync();
+
+            LearnerSummary row = readModels.readLearner(learner);
+            assertEquals(2, row.bookings());
+            assertEquals(1, row.attendances());
+            assertEquals(List.of(first.getId(), other.getId()), row.lessonIds());
+
+            assertEquals(3, rowOf(readModels.readTimetable(), other).vacancy());
+            assertEquals(4.0f, readModels.readCoach(first.getCoach()).getAvgRating());
+            assertTrue(readModels.readTimetable(first.getTimeSlot().day()).contains(rowOf(readModels.readTimetable(), first)));
+        }
+    }
+
+    /**
+     * Finds the timetable row of a lesson.
+     */
+    private static TimetableRow rowOf(List<TimetableRow> rows, Lesson lesson) {
+        return rows.stream().filter(row -> row.lessonId() == lesson.getId()).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,80 @@
+package com.hjss.tests;
+
+import com.hjss.enums.*;
+import com.hjss.model.*;
+import com.hjss.repository.BookingRepository;
+import com.hjss.repository.ReleaseWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReleaseWindowTest {
+    private Lesson popular;
+    private Lesson other;
+    private List<Learner> learners;
+
+    @BeforeEach
+    void setUp() {
+        popular = new Lesson(Grade.TWO, new TimeSlot(Day.SATURDAY, Time.TWO), new Coach("Watkins"));
+        other = new Lesson(Grade.TWO, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Badoo"));
+
+        learners = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            learners.add(new Learner("Learner " + i, Gender.Female, 8, "9876543210", Grade.TWO));
+        }
+    }
+
+    @Test
+    void testLotteryRespectsLimitsAndVacancy() {
+        BookingRepository bookingRepository = new BookingRepository();
+        ReleaseWindow window = new ReleaseWindow(bookingRepository, 42, 1);
+
+        // Every learner wants the popular lesson first, then the other one
+        List<CompletableFuture<BookingOutcome>> first = new ArrayList<>();
+        for (Learner learner : learners) {
+            first.add(window.submit(new Booking(learner, popular)));
+            window.submit(new Booking(learner, other));
+        }
+
+        Learner ineligible = new Learner("Ineligible", Gender.Male, 8, "9876543211", Grade.FOUR);
+        CompletableFuture<BookingOutcome> rejected = window.submit(new Booking(ineligible, popular));
+
+        List<BookingOutcome> outcomes = window.close();
+
+        assertEquals(13, outcomes.size());
+        assertEquals(0, popular.getVacancy());
+        assertEquals(BookingOutcome.GRADE_MISMATCH, rejected.join());
+
+        // The two learners who lost the draw for the popular lesson get their second choice
+        assertEquals(4, first.stream().filter(outcome -> outcome.join().isBooked()).count());
+        assertEquals(2, other.getSize());
+
+        for (Learner learner : learners) {
+            assertEquals(1, bookingRepository.read(learner).size());
+        }
+
+        assertThrows(IllegalStateException.class, () -> window.submit(new Booking(learners.getFirst(), other)));
+    }
+
+    @Test
+    void testSameSeedGivesSameAllocation() {
+        List<BookingOutcome> allocation = allocate(7);
+
+        setUp();
+        assertEquals(allocation, allocate(7));
+    }
+
+    private List<BookingOutcome> allocate(long seed) {
+        List<Booking> requests = new ArrayList<>();
+        for (Learner learner : learners) {
+            requests.add(new Booking(learner, popular));
+        }
+
+        return new BookingRepository().allocate(requests, seed, 1);
+    }
+}
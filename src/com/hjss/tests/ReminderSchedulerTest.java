@@ -0,0 +1,188 @@
+package com.hjss.tests;
+
+import com.hjss.enums.*;
+import com.hjss.model.*;
+import com.hjss.reminder.LogReminderSender;
+import com.hjss.reminder.Reminder;
+import com.hjss.reminder.ReminderScheduler;
+import com.hjss.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReminderSchedulerTest {
+    private static final LocalDate TERM_START = LocalDate.of(2026, 1, 5); // A Monday
+    private static final LocalDate SATURDAY = TERM_START.plusDays(5);
+
+    private MutableClock clock;
+    private BookingRepository bookingRepository;
+    private LessonCalendar calendar;
+    private List<List<Reminder>> batches;
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(SATURDAY.minusDays(1).atTime(18, 0));
+        bookingRepository = new BookingRepository();
+        calendar = new LessonCalendar(new LessonRepository(new CoachRepository()), TERM_START);
+        batches = new ArrayList<>();
+
+        calendar.addRule(new LessonRule(new TimeSlot(Day.SATURDAY, Time.TWO), Grade.ONE, new Coach("Watkins"), TERM_START, null));
+        calendar.addRule(new LessonRule(new TimeSlot(Day.SATURDAY, Time.TWO), Grade.TWO, new Coach("Badoo"), TERM_START, null));
+        calendar.addRule(new LessonRule(new TimeSlot(Day.SATURDAY, Time.THREE), Grade.THREE, new Coach("Paul"), TERM_START, null));
+
+        scheduler = new ReminderScheduler(bookingRepository, batch -> batches.add(List.copyOf(batch)), Duration.ofHours(2), clock, 3);
+    }
+
+    @Test
+    void testLessonsStartingTogetherShareOneSlot() {
+        assertEquals(3, scheduler.schedule(calendar, SATURDAY, SATURDAY));
+        assertEquals(2, scheduler.getPendingSlots());
+
+        // Scheduling the same lessons again adds nothing
+        assertEquals(0, scheduler.schedule(calendar, SATURDAY, SATURDAY));
+        assertEquals(2, scheduler.getPendingSlots());
+    }
+
+    @Test
+    void testDueRemindersAreSentInBatches() throws Exception {
+        List<Lesson> lessons = calendar.read(SATURDAY, SATURDAY);
+        scheduler.schedule(calendar, SATURDAY, SATURDAY);
+
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            bookings.add(book("Early " + i, lessons.get(0)));
+        }
+        bookings.add(book("Other", lessons.get(1)));
+        bookings.add(book("Later", lessons.get(2)));
+
+        // Bookings made or cancelled after scheduling are taken into account
+        bookings.add(book("Late booker", lessons.get(1)));
+        bookingRepository.cancel(bookings.get(0));
+
+        assertEquals(0, scheduler.dispatchDue());
+
+        clock.set(SATURDAY.atTime(12, 0));
+
+        assertEquals(4, scheduler.dispatchDue());
+        assertEquals(2, batches.size());
+        assertEquals(3, batches.get(0).size());
+        assertEquals(1, batches.get(1).size());
+        assertEquals(1, scheduler.getPendingSlots());
+
+        Reminder reminder = batches.get(0).getFirst();
+        assertEquals(SATURDAY.atTime(14, 0), reminder.startsAt());
+        assertEquals("1234567890", reminder.contactNumber());
+        assertTrue(batches.stream().flatMap(List::stream).noneMatch(r -> r.bookingId() == bookings.get(0).getId()));
+
+        // Each slot is reminded only once
+        assertEquals(0, scheduler.dispatchDue());
+
+        clock.set(SATURDAY.atTime(13, 1));
+
+        assertEquals(1, scheduler.dispatchDue());
+        assertEquals("Later", batches.get(2).getFirst().learnerName());
+        assertEquals(0, scheduler.getPendingSlots());
+    }
+
+    @Test
+    void testFailedSlotsAreSentAgain() throws Exception {
+        List<Lesson> lessons = calendar.read(SATURDAY, SATURDAY);
+        book("Early", lessons.get(0));
+        book("Later", lessons.get(2));
+
+        List<List<Reminder>> sent = new ArrayList<>();
+        boolean[] failing = {true};
+        ReminderScheduler flaky = new ReminderScheduler(bookingRepository, batch -> {
+            if (failing[0]) throw new IllegalStateException("Sender is down");
+            sent.add(List.copyOf(batch));
+        }, Duration.ofHours(2), clock, 3);
+
+        flaky.schedule(calendar, SATURDAY, SATURDAY);
+        clock.set(SATURDAY.atTime(13, 1));
+
+        assertThrows(IllegalStateException.class, flaky::dispatchDue);
+        assertEquals(2, flaky.getPendingSlots());
+
+        // Both slots are retried on the next tick
+        failing[0] = false;
+        clock.set(SATURDAY.atTime(13, 2));
+
+        assertEquals(2, flaky.dispatchDue());
+        assertEquals(2, sent.size());
+        assertEquals(0, flaky.getPendingSlots());
+    }
+
+    @Test
+    void testPastAndUndatedLessonsAreIgnored() {
+        clock.set(SATURDAY.atTime(14, 30));
+
+        assertEquals(1, scheduler.schedule(calendar, SATURDAY, SATURDAY));
+        assertFalse(scheduler.schedule(new Lesson(Grade.ONE, new TimeSlot(Day.MONDAY, Time.FOUR), new Coach("Watkins"))));
+    }
+
+    @Test
+    void testLogSenderAppendsLines() throws Exception {
+        Path file = Files.createTempFile("reminders", ".log");
+        try {
+            LogReminderSender sender = new LogReminderSender(file);
+            LocalDateTime startsAt = SATURDAY.atTime(14, 0);
+
+            sender.send(List.of(new Reminder("111", "Ann", 1, 10, startsAt), new Reminder("222", "Bob", 2, 10, startsAt)));
+            sender.send(List.of(new Reminder("333", "Cy", 3, 11, startsAt)));
+
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(3, lines.size());
+            assertTrue(lines.get(0).startsWith("111 | Ann"));
+            assertTrue(lines.get(2).contains("lesson 11"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Booking book(String name, Lesson lesson) throws Exception {
+        return bookingRepository.create(new Booking(new Learner(name, Gender.Female, 7, "1234567890", lesson.getGrade()), lesson));
+    }
+
+    /**
+     * Clock moved by hand, so reminders can fall due without waiting.
+     */
+    private static class MutableClock extends Clock {
+        private long millis;
+
+        MutableClock(LocalDateTime now) {
+            set(now);
+        }
+
+        void set(LocalDateTime now) {
+            millis = now.toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -8,6 +8,9 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -106,4 +109,20 @@ class ReviewRepositoryTest {
         assertEquals(3.0f, avgRating);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testReadCoachInWindow() {
+        Instant start = Instant.parse("2026-01-05T09:00:00Z");
+        ReviewRepository repository = new ReviewRepository(Clock.fixed(start, ZoneOffset.UTC));
+
+        repository.create(testReview);
+
+        Review later = new Review(Rating.Two, "Too cold", testReview.getBooking());
+        later.setSubmittedAt(start.plusSeconds(3600));
+        repository.create(later);
+
+        assertEquals(start, testReview.getSubmittedAt());
+        assertEquals(3.0f, repository.readCoach(testCoach, start, start.plusSeconds(7200)).getAvgRating());
+        assertEquals(4, repository.readCoach(testCoach, start, start.plusSeconds(3600)).ratingTotal());
+        assertEquals(0, repository.readCoach(new Coach("Kemi"), start, start.plusSeconds(7200)).reviews());
+    }
+}
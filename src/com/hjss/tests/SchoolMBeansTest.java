@@ -0,0 +1,65 @@
+package com.hjss.tests;
+
+import com.hjss.App;
+import com.hjss.enums.*;
+import com.hjss.management.BookingEngineStats;
+import com.hjss.model.*;
+import com.hjss.repository.BookingRepository;
+import com.hjss.repository.CoachRepository;
+import com.hjss.repository.LessonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchoolMBeansTest {
+    private LessonRepository lessonRepository;
+    private BookingRepository bookingRepository;
+    private BookingEngineStats stats;
+
+    @BeforeEach
+    void setUp() {
+        lessonRepository = new LessonRepository(new CoachRepository());
+        bookingRepository = new BookingRepository();
+        stats = new BookingEngineStats(lessonRepository, bookingRepository);
+    }
+
+    @Test
+    void testFillRatios() throws Exception {
+        Lesson lesson = lessonRepository.read().getFirst();
+        Learner learner = new Learner("New Learner", Gender.Female, 8, "9876543210", lesson.getGrade());
+
+        Booking booking = bookingRepository.create(new Booking(learner, lesson));
+
+        assertEquals(1, stats.getBookedSeats());
+        assertEquals(176, stats.getCapacity());
+        assertEquals(0.25, stats.getLessonFillRatio(lesson.getId()));
+        assertEquals(1.0 / 176, stats.getFillRatio());
+
+        bookingRepository.cancel(booking);
+
+        assertEquals(0, stats.getBookedSeats());
+        assertEquals(0.0, stats.getLessonFillRatio(lesson.getId()));
+
+        // Unknown lesson
+        assertEquals(-1.0, stats.getLessonFillRatio(-1));
+
+        assertEquals(1, (long) stats.getOperationCounts().get("CREATE"));
+    }
+
+    @Test
+    void testRegisteredWithPlatformServer() throws Exception {
+        App app = App.getInstance();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        assertEquals(app.getName(), server.getAttribute(new ObjectName("com.hjss:type=App"), "Name"));
+        assertEquals(15, server.getAttribute(new ObjectName("com.hjss:type=Repository,name=Learners"), "Size"));
+        assertEquals(44, server.getAttribute(new ObjectName("com.hjss:type=Repository,name=Lessons"), "Size"));
+        assertNotNull(server.getAttribute(new ObjectName("com.hjss:type=BookingEngine"), "FillRatio"));
+        assertEquals(0L, server.getAttribute(new ObjectName("com.hjss:type=Admission"), "ShedCount"));
+    }
+}
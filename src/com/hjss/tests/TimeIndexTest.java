@@ -0,0 +1,29 @@
+package com.hjss.tests;
+
+import com.hjss.util.TimeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeIndexTest {
+    @Test
+    void testRangeScan() {
+        TimeIndex<String> index = new TimeIndex<>();
+        Instant start = Instant.parse("2026-01-05T09:00:00Z");
+
+        index.add(start.plusSeconds(20), "c");
+        index.add(start, "a");
+        index.add(start.plusSeconds(10), "b1");
+        index.add(start.plusSeconds(10), "b2");
+
+        assertEquals(List.of("a", "b1", "b2", "c"), index.range(start, start.plusSeconds(60)));
+
+        // The end of the window is exclusive
+        assertEquals(List.of("b1", "b2"), index.range(start.plusSeconds(1), start.plusSeconds(20)));
+        assertTrue(index.range(start.plusSeconds(20), start).isEmpty());
+        assertEquals(4, index.size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.hjss.tests;
+
+import com.hjss.util.TimingWheel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+    private TimingWheel<String> wheel;
+    private List<String> expired;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel<>(10, 0);
+        expired = new ArrayList<>();
+    }
+
+    @Test
+    void testExpiresInDeadlineOrder() {
+        wheel.schedule("late", 50_000);
+        wheel.schedule("soon", 25);
+        wheel.schedule("later", 700);
+
+        wheel.advance(20, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(30, expired::add);
+        assertEquals(List.of("soon"), expired);
+
+        // Items on the higher levels are moved down and expired on time
+        wheel.advance(699, expired::add);
+        assertEquals(List.of("soon"), expired);
+
+        wheel.advance(60_000, expired::add);
+        assertEquals(List.of("soon", "later", "late"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCancel() {
+        TimingWheel.Timeout<String> timeout = wheel.schedule("cancelled", 100);
+        wheel.schedule("kept", 100);
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertFalse(timeout.isPending());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(100, expired::add);
+        assertEquals(List.of("kept"), expired);
+    }
+
+    @Test
+    void testPastAndFarDeadlines() {
+        wheel.advance(1_000, expired::add);
+
+        // A deadline in the past expires on the next tick
+        wheel.schedule("past", 500);
+
+        // Beyond the range of the wheel, about 46 hours with 10ms ticks
+        long far = 10L * (1 << 24) * 3;
+        wheel.schedule("far", far);
+
+        wheel.advance(1_010, expired::add);
+        assertEquals(List.of("past"), expired);
+
+        wheel.advance(far - 10, expired::add);
+        assertEquals(List.of("past"), expired);
+
+        wheel.advance(far, expired::add);
+        assertEquals(List.of("past", "far"), expired);
+    }
+
+    @Test
+    void testJumpsOverEmptyTicksLikeSteppingThroughThem() {
+        Random random = new Random(42);
+        Map<String, Long> due = new HashMap<>();
+        long now = 0;
+
+        for (int i = 0; i < 2_000; i++) {
+            // Deadlines from the past to beyond the range of the wheel, expiring on the next tick at the earliest
+            long deadline = now + random.nextLong(-1_000, 400_000_000L);
+            String item = "item " + i;
+            wheel.schedule(item, deadline);
+            due.put(item, Math.max(Math.floorDiv(deadline + 9, 10), now / 10 + 1));
+
+            if (random.nextInt(4) == 0) {
+                now += random.nextInt(3) == 0 ? random.nextLong(100_000_000L) : random.nextInt(2_000);
+                long tick = now / 10;
+
+                expired.clear();
+                wheel.advance(now, expired::add);
+
+                Set<String> expected = new HashSet<>();
+                due.forEach((key, value) -> {
+                    if (value <= tick) expected.add(key);
+                });
+
+                assertEquals(expected, new HashSet<>(expired));
+                for (int j = 1; j < expired.size(); j++) {
+                    assertTrue(due.get(expired.get(j - 1)) <= due.get(expired.get(j)));
+                }
+                expected.forEach(due::remove);
+            }
+        }
+
+        assertEquals(due.size(), wheel.size());
+    }
+}
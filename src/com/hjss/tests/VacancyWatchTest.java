@@ -0,0 +1,83 @@
+package com.hjss.tests;
+
+import com.hjss.enums.*;
+import com.hjss.model.*;
+import com.hjss.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VacancyWatchTest {
+    private LessonRepository lessonRepository;
+    private BookingRepository bookingRepository;
+    private List<Runnable> pending;
+    private List<String> notices;
+    private VacancyWatch watch;
+    private Lesson full;
+    private List<Booking> bookings;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lessonRepository = new LessonRepository(new CoachRepository());
+        bookingRepository = new BookingRepository();
+        pending = new ArrayList<>();
+        notices = new ArrayList<>();
+
+        // Notifications are delivered when the test runs them
+        watch = new VacancyWatch(lessonRepository, (learner, lesson, vacancy) -> notices.add(learner.getName() + "@" + lesson.getId() + "/" + vacancy), pending::add);
+
+        full = lessonRepository.read().getFirst();
+        bookings = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Learner learner = new Learner("Booked " + i, Gender.Male, 7, "1234567890", full.getGrade());
+            bookings.add(bookingRepository.create(new Booking(learner, full)));
+        }
+    }
+
+    @Test
+    void testWatchersAreNotifiedOnce() throws Exception {
+        Learner first = new Learner("First", Gender.Female, 7, "1234567890", full.getGrade());
+        Learner second = new Learner("Second", Gender.Female, 7, "1234567890", full.getGrade());
+        Lesson other = lessonRepository.read().get(1);
+
+        assertTrue(watch.watch(first, full));
+        assertFalse(watch.watch(first, full));
+        watch.watch(second, full);
+        watch.watch(second, other);
+
+        bookingRepository.cancel(bookings.get(0));
+        bookingRepository.cancel(bookings.get(1));
+        pending.forEach(Runnable::run);
+
+        // Only the watchers of the cancelled lesson, and only once
+        assertEquals(List.of("First@" + full.getId() + "/1", "Second@" + full.getId() + "/1"), notices);
+        assertTrue(watch.readWatchers(full).isEmpty());
+        assertEquals(List.of(second), watch.readWatchers(other));
+    }
+
+    @Test
+    void testSeatTakenBeforeDeliveryKeepsWatching() throws Exception {
+        Learner watcher = new Learner("Watcher", Gender.Female, 7, "1234567890", full.getGrade());
+        Learner waiting = new Learner("Waiting", Gender.Male, 7, "1234567890", full.getGrade());
+
+        watch.watch(watcher, full);
+        bookingRepository.waitlist(new Booking(waiting, full));
+
+        // The freed seat goes straight to the waitlist
+        bookingRepository.cancel(bookings.get(0));
+        pending.forEach(Runnable::run);
+        pending.clear();
+
+        assertTrue(notices.isEmpty());
+        assertEquals(List.of(watcher), watch.readWatchers(full));
+
+        bookingRepository.cancel(bookings.get(1));
+        pending.forEach(Runnable::run);
+
+        assertEquals(List.of("Watcher@" + full.getId() + "/1"), notices);
+    }
+}
@@ -0,0 +1,71 @@
+package com.hjss.tests;
+
+import com.hjss.util.WeekPartitions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeekPartitionsTest {
+    @Test
+    void testSealKeepsHistoryOutOfOpenReads() {
+        // Records are week numbers themselves
+        WeekPartitions<Integer> weeks = new WeekPartitions<>(week -> week);
+
+        weeks.addAll(List.of(3, 1, 2, 5, 1));
+
+        assertEquals(List.of(1, 1, 2, 3, 5), weeks.readAll());
+        assertEquals(2, weeks.seal(2));
+        assertTrue(weeks.isSealed(1));
+
+        assertEquals(List.of(3, 5), weeks.readOpen());
+        assertEquals(List.of(1, 1, 2, 3), weeks.readMonth(1));
+        assertEquals(List.of(2, 3), weeks.read(2, 4));
+        assertEquals(5, weeks.size());
+
+        // Writing to a sealed week reopens it
+        weeks.add(2);
+        assertFalse(weeks.isSealed(2));
+        assertEquals(List.of(2, 2, 3, 5), weeks.readOpen());
+
+        assertTrue(weeks.remove(1));
+        assertFalse(weeks.remove(4));
+        assertEquals(List.of(1, 2, 2, 3, 5), weeks.readAll());
+    }
+
+    @Test
+    void testReopenedWeekCompactsOnNextSeal() {
+        WeekPartitions<String> weeks = new WeekPartitions<>(record -> record.charAt(0) - '0');
+
+        weeks.addAll(List.of("1a", "1b", "1c", "2a"));
+        weeks.seal(2);
+
+        // Writes to a sealed week are kept beside its segment
+        assertTrue(weeks.remove("1b"));
+        assertFalse(weeks.remove("1b"));
+        weeks.add("1d");
+
+        assertFalse(weeks.isSealed(1));
+        assertEquals(1, weeks.getSealedWeeks());
+        assertEquals(List.of("1a", "1c", "1d"), weeks.readOpen());
+        assertEquals(4, weeks.size());
+
+        List<String> iterated = new ArrayList<>();
+        weeks.forEach(iterated::add);
+        assertEquals(weeks.readAll(), iterated);
+
+        assertEquals(1, weeks.seal(2));
+        assertTrue(weeks.isSealed(1));
+        assertEquals(List.of("1a", "1c", "1d", "2a"), weeks.readAll());
+        assertTrue(weeks.readOpen().isEmpty());
+    }
+
+    @Test
+    void testMonths() {
+        assertEquals(1, WeekPartitions.monthOf(4));
+        assertEquals(2, WeekPartitions.monthOf(5));
+        assertEquals(5, WeekPartitions.firstWeekOf(2));
+    }
+}
@@ -0,0 +1,412 @@
+package com.hjss.tools;
+
+import com.hjss.enums.Gender;
+import com.hjss.enums.Grade;
+import com.hjss.enums.Rating;
+import com.hjss.exceptions.InvalidAgeException;
+import com.hjss.model.*;
+import com.hjss.repository.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * The DatasetGenerator class populates the application repositories with a synthetic, reproducible data set
+ * described by a {@link DatasetSpec}. It is used to size the application and to seed load tests.
+ *
+ * <p>
+ * Every random decision is derived from the spec seed and the index of the learner or lesson being generated,
+ * so the expensive planning work runs in parallel and still produces the same data set on every run.
+ * Model objects are then created in a single ordered pass, because their IDs come from sequential counters.
+ * </p>
+ */
+public class DatasetGenerator {
+    /**
+     * Maximum number of learners in a lesson.
+     */
+    private static final int SEATS = 4;
+
+    /**
+     * Seat states planned for each lesson seat.
+     */
+    private static final byte EMPTY = 0, BOOKED = 1, CANCELLED = 2, ATTENDED = 3;
+
+    /**
+     * Salts keeping the learner and lesson random streams independent.
+     */
+    private static final long LEARNER_STREAM = 0x4c4541524e4552L, LESSON_STREAM = 0x4c4553534f4eL;
+
+    /**
+     * Rating weights, skewed towards satisfied learners.
+     */
+    private static final int[] RATINGS = {1, 2, 3, 3, 4, 4, 4, 5, 5, 5};
+
+    private static final String[] FEEDBACK = {"Great lesson!", "Learnt a lot", "Too crowded", "Fun session", "Ok"};
+
+    private final LearnerRepository learnerRepository;
+    private final CoachRepository coachRepository;
+    private final LessonRepository lessonRepository;
+    private final BookingRepository bookingRepository;
+    private final ReviewRepository reviewRepository;
+
+    /**
+     * Constructs a DatasetGenerator writing into the given repositories.
+     *
+     * @param learnerRepository The repository receiving the generated learners.
+     * @param coachRepository   The repository receiving the generated coaches.
+     * @param lessonRepository  The repository receiving the generated lessons.
+     * @param bookingRepository The repository receiving the generated bookings.
+     * @param reviewRepository  The repository receiving the generated reviews.
+     */
+    public DatasetGenerator(LearnerRepository learnerRepository, CoachRepository coachRepository,
+                            LessonRepository lessonRepository, BookingRepository bookingRepository,
+                            ReviewRepository reviewRepository) {
+        this.learnerRepository = learnerRepository;
+        this.coachRepository = coachRepository;
+        this.lessonRepository = lessonRepository;
+        this.bookingRepository = bookingRepository;
+        this.reviewRepository = reviewRepository;
+    }
+
+    /**
+     * Replaces the content of every repository with the data set described by the spec.
+     *
+     * @param spec The data set to generate.
+     * @return A summary of the generated data set.
+     */
+    public Summary generate(DatasetSpec spec) {
+        long start = System.nanoTime();
+
+        bookingRepository.removeAll();
+        reviewRepository.removeAll();
+
+        List<Learner> learners = createLearners(spec);
+
+        createCoaches(spec);
+
+        // Lessons follow the same time slot, grade and coach rotation as the seed data
+        lessonRepository.removeAll();
+        lessonRepository.createLessons(spec.weeks());
+        List<Lesson> lessons = lessonRepository.read();
+
+        int[] seatLearners = new int[lessons.size() * SEATS];
+        byte[] seatStates = new byte[seatLearners.length];
+        byte[] seatRatings = new byte[seatLearners.length];
+
+        planSeats(spec, learners, lessons, seatLearners, seatStates, seatRatings);
+        settleGrades(learners, lessons, seatLearners, seatStates);
+
+        int[] counts = createBookings(learners, lessons, seatLearners, seatStates, seatRatings);
+
+        return new Summary(learners.size(), spec.coaches(), lessons.size(), counts[0], counts[1],
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Creates the learners. Ages are spread evenly between 4 and 11 and grades follow age,
+     * with one learner in five placed a grade above or below their age group.
+     *
+     * @param spec The data set to generate.
+     * @return The created learners, in ID order.
+     */
+    private List<Learner> createLearners(DatasetSpec spec) {
+        int n = spec.learners();
+        int[] ages = new int[n];
+        Grade[] grades = new Grade[n];
+        Gender[] genders = new Gender[n];
+
+        IntStream.range(0, n).parallel().forEach(i -> {
+            SplittableRandom random = random(spec.seed(), LEARNER_STREAM, i);
+
+            ages[i] = 4 + random.nextInt(8);
+            genders[i] = random.nextBoolean() ? Gender.Male : Gender.Female;
+
+            // Ages 4 to 11 map onto grades 1 to 5
+            int grade = (ages[i] - 4) * 5 / 8;
+            if (random.nextInt(5) == 0) {
+                grade += random.nextBoolean() ? 1 : -1;
+            }
+            grades[i] = Grade.values()[Math.max(0, Math.min(4, grade))];
+        });
+
+        learnerRepository.removeAll();
+
+        for (int i = 0; i < n; i++) {
+            String contactNumber = String.format("07%09d", i);
+
+            try {
+                learnerRepository.create(new Learner("Learner " + (i + 1), genders[i], ages[i], contactNumber, grades[i]));
+            } catch (InvalidAgeException e) {
+                // It should never run but just being safe!
+                throw new IllegalStateException("Generated an invalid learner age: " + ages[i], e);
+            }
+        }
+
+        return learnerRepository.read();
+    }
+
+    /**
+     * Replaces the coaches with the number of coaches in the spec.
+     *
+     * @param spec The data set to generate.
+     */
+    private void createCoaches(DatasetSpec spec) {
+        coachRepository.removeAll();
+
+        for (int i = 0; i < spec.coaches(); i++) {
+            coachRepository.create(new Coach("Coach " + (i + 1)));
+        }
+    }
+
+    /**
+     * Plans who sits in every lesson seat, in parallel per lesson.
+     * Only learners of the lesson grade or one grade below are picked, and no learner is picked twice for a lesson.
+     *
+     * @param spec         The data set to generate.
+     * @param learners     The generated learners.
+     * @param lessons      The generated lessons.
+     * @param seatLearners Output: index of the learner in each seat, or -1 for an empty seat.
+     * @param seatStates   Output: state of each seat.
+     * @param seatRatings  Output: review rating of each seat, or 0 when no review is given.
+     */
+    private void planSeats(DatasetSpec spec, List<Learner> learners, List<Lesson> lessons,
+                           int[] seatLearners, byte[] seatStates, byte[] seatRatings) {
+        int[][] pools = groupByGrade(learners);
+
+        IntStream.range(0, lessons.size()).parallel().forEach(l -> {
+            SplittableRandom random = random(spec.seed(), LESSON_STREAM, l);
+
+            // A lesson can be booked by learners of the same grade or one grade below
+            int gradeIndex = lessons.get(l).getGrade().getValue() - 1;
+            int[] same = pools[gradeIndex];
+            int[] below = gradeIndex > 0 ? pools[gradeIndex - 1] : new int[0];
+            int eligible = same.length + below.length;
+
+            int base = l * SEATS;
+            for (int s = 0; s < SEATS; s++) {
+                seatLearners[base + s] = -1;
+
+                if (s >= eligible || random.nextDouble() >= spec.fillRatio()) continue;
+
+                // Pick a learner not already seated in this lesson
+                int learner;
+                do {
+                    int pick = random.nextInt(eligible);
+                    learner = pick < same.length ? same[pick] : below[pick - same.length];
+                } while (isSeated(seatLearners, base, s, learner));
+
+                seatLearners[base + s] = learner;
+
+                if (random.nextDouble() < spec.cancellationRatio()) {
+                    seatStates[base + s] = CANCELLED;
+                } else if (random.nextDouble() < spec.attendanceRatio()) {
+                    seatStates[base + s] = ATTENDED;
+
+                    if (random.nextDouble() < spec.reviewRatio()) {
+                        seatRatings[base + s] = (byte) RATINGS[random.nextInt(RATINGS.length)];
+                    }
+                } else {
+                    seatStates[base + s] = BOOKED;
+                }
+            }
+        });
+    }
+
+    /**
+     * Settles the planned seats against the grade changes attendance causes, walking the lessons in timetable order.
+     * Attending a lesson promotes the learner, so an attendance planned for a learner who has since moved past the
+     * lesson grade is cancelled instead, as {@link BookingRepository#attend(Booking)} would do. Once every promotion
+     * is known, a seat left booked in a lesson the learner's final grade no longer allows is cancelled too, so no
+     * booking is left that could not be attended.
+     *
+     * @param learners     The generated learners.
+     * @param lessons      The generated lessons.
+     * @param seatLearners The planned seat learners.
+     * @param seatStates   The planned seat states, updated in place.
+     */
+    private static void settleGrades(List<Learner> learners, List<Lesson> lessons, int[] seatLearners, byte[] seatStates) {
+        int[] grades = new int[learners.size()];
+        for (int i = 0; i < grades.length; i++) {
+            grades[i] = learners.get(i).getGrade().getValue();
+        }
+
+        for (int l = 0; l < lessons.size(); l++) {
+            int grade = lessons.get(l).getGrade().getValue();
+
+            for (int seat = l * SEATS; seat < (l + 1) * SEATS; seat++) {
+                if (seatLearners[seat] < 0 || seatStates[seat] != ATTENDED) continue;
+
+                if (canAttend(grades[seatLearners[seat]], grade)) {
+                    grades[seatLearners[seat]] = grade;
+                } else {
+                    seatStates[seat] = CANCELLED;
+                }
+            }
+        }
+
+        for (int l = 0; l < lessons.size(); l++) {
+            int grade = lessons.get(l).getGrade().getValue();
+
+            for (int seat = l * SEATS; seat < (l + 1) * SEATS; seat++) {
+                if (seatLearners[seat] >= 0 && seatStates[seat] == BOOKED && !canAttend(grades[seatLearners[seat]], grade)) {
+                    seatStates[seat] = CANCELLED;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the settled bookings and reviews in lesson order and loads them into the repositories.
+     *
+     * @param learners     The generated learners.
+     * @param lessons      The generated lessons.
+     * @param seatLearners The planned seat learners.
+     * @param seatStates   The settled seat states.
+     * @param seatRatings  The planned review ratings.
+     * @return The number of bookings and reviews created.
+     */
+    private int[] createBookings(List<Learner> learners, List<Lesson> lessons,
+                                 int[] seatLearners, byte[] seatStates, byte[] seatRatings) {
+        List<Booking> bookings = new ArrayList<>();
+        int reviews = 0;
+
+        for (int l = 0; l < lessons.size(); l++) {
+            Lesson lesson = lessons.get(l);
+
+            for (int seat = l * SEATS; seat < (l + 1) * SEATS; seat++) {
+                if (seatLearners[seat] < 0) continue;
+
+                Learner learner = learners.get(seatLearners[seat]);
+                Booking booking = new Booking(learner, lesson);
+                lesson.incrementBySize();
+
+                byte state = seatStates[seat];
+                if (state == CANCELLED) {
+                    booking.setCancellationStatus();
+                } else if (state == ATTENDED) {
+                    booking.setAttendanceStatus();
+
+                    if (seatRatings[seat] > 0) {
+                        Rating rating = Rating.values()[seatRatings[seat] - 1];
+                        reviewRepository.create(new Review(rating, FEEDBACK[seat % FEEDBACK.length], booking));
+                        reviews++;
+                    }
+                }
+
+                bookings.add(booking);
+            }
+        }
+
+        bookingRepository.load(bookings);
+
+        return new int[]{bookings.size(), reviews};
+    }
+
+    /**
+     * Checks if a learner's grade allows them into a lesson.
+     *
+     * @param learnerGrade The value of the learner's grade.
+     * @param lessonGrade  The value of the lesson grade.
+     * @return True if the learner is the lesson grade or one grade below it, otherwise false.
+     */
+    private static boolean canAttend(int learnerGrade, int lessonGrade) {
+        int difference = lessonGrade - learnerGrade;
+        return difference == 0 || difference == 1;
+    }
+
+    /**
+     * Groups learner indices by grade.
+     *
+     * @param learners The learners to group.
+     * @return The learner indices for each grade, indexed by grade value - 1.
+     */
+    private static int[][] groupByGrade(List<Learner> learners) {
+        Grade[] grades = Grade.values();
+        int[] sizes = new int[grades.length];
+
+        for (Learner learner : learners) {
+            sizes[learner.getGrade().ordinal()]++;
+        }
+
+        int[][] pools = new int[grades.length][];
+        for (int g = 0; g < grades.length; g++) {
+            pools[g] = new int[sizes[g]];
+            sizes[g] = 0;
+        }
+
+        for (int i = 0; i < learners.size(); i++) {
+            int g = learners.get(i).getGrade().ordinal();
+            pools[g][sizes[g]++] = i;
+        }
+
+        return pools;
+    }
+
+    /**
+     * Checks if a learner already sits in one of the earlier seats of a lesson.
+     *
+     * @param seatLearners The planned seat learners.
+     * @param base         The index of the lesson's first seat.
+     * @param seats        The number of seats already planned for the lesson.
+     * @param learner      The learner index to look for.
+     * @return True if the learner is already seated, otherwise false.
+     */
+    private static boolean isSeated(int[] seatLearners, int base, int seats, int learner) {
+        for (int s = 0; s < seats; s++) {
+            if (seatLearners[base + s] == learner) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the random generator for one item of a stream, independent of the order items are visited in.
+     *
+     * @param seed   The data set seed.
+     * @param stream The stream salt.
+     * @param index  The index of the item in the stream.
+     * @return The random generator for the item.
+     */
+    private static SplittableRandom random(long seed, long stream, long index) {
+        // MurmurHash3 finalizer spreads neighbouring indices over the whole seed space
+        long z = seed ^ (stream * 0x9E3779B97F4A7C15L) ^ (index * 0xC2B2AE3D27D4EB4FL);
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return new SplittableRandom(z ^ (z >>> 33));
+    }
+
+    /**
+     * Summary of a generated data set.
+     *
+     * @param learners      The number of learners created.
+     * @param coaches       The number of coaches created.
+     * @param lessons       The number of lessons created.
+     * @param bookings      The number of bookings created, including cancelled ones.
+     * @param reviews       The number of reviews created.
+     * @param elapsedMillis The time taken to generate the data set, in milliseconds.
+     */
+    public record Summary(int learners, int coaches, int lessons, int bookings, int reviews, long elapsedMillis) {
+    }
+
+    /**
+     * Generates a data set into fresh repositories and prints its summary.
+     * Arguments: seed, learners, coaches, weeks - e.g. {@code 42 200000 50 300000} for roughly 10 million bookings.
+     *
+     * @param args The command-line arguments.
+     */
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        int learners = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int coaches = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int weeks = args.length > 3 ? Integer.parseInt(args[3]) : 52;
+
+        CoachRepository coachRepository = new CoachRepository();
+        DatasetGenerator generator = new DatasetGenerator(new LearnerRepository(), coachRepository,
+                new LessonRepository(coachRepository), new BookingRepository(), new ReviewRepository());
+
+        System.out.println(generator.generate(DatasetSpec.of(seed, learners, coaches, weeks)));
+    }
+}
@@ -0,0 +1,58 @@
+package com.hjss.tools;
+
+/**
+ * The DatasetSpec record describes the shape of a synthetic data set built by the {@link DatasetGenerator}.
+ * The same spec and seed always produce the same learners, lessons, bookings and reviews.
+ *
+ * @param seed              The random seed the data set is derived from.
+ * @param learners          The number of learners to register.
+ * @param coaches           The number of coaches to register.
+ * @param weeks             The number of weeks of lessons to create (11 lessons a week).
+ * @param fillRatio         The fraction of lesson seats that get booked, between 0 and 1.
+ * @param cancellationRatio The fraction of bookings that are cancelled, between 0 and 1.
+ * @param attendanceRatio   The fraction of the remaining bookings that are attended, between 0 and 1.
+ * @param reviewRatio       The fraction of attended bookings that receive a review, between 0 and 1.
+ */
+public record DatasetSpec(long seed, int learners, int coaches, int weeks,
+                          double fillRatio, double cancellationRatio, double attendanceRatio, double reviewRatio) {
+
+    /**
+     * Validates the spec.
+     *
+     * @throws IllegalArgumentException If a count is not positive or a ratio is outside 0 to 1.
+     */
+    public DatasetSpec {
+        if (learners < 1 || coaches < 1 || weeks < 1) {
+            throw new IllegalArgumentException("Learners, coaches and weeks must be positive");
+        }
+
+        if (isInvalidRatio(fillRatio) || isInvalidRatio(cancellationRatio)
+                || isInvalidRatio(attendanceRatio) || isInvalidRatio(reviewRatio)) {
+            throw new IllegalArgumentException("Ratios must be between 0 and 1");
+        }
+    }
+
+    /**
+     * Creates a spec with the default booking mix: 75% of seats booked, 10% of bookings cancelled,
+     * 60% of the rest attended and 50% of attendances reviewed.
+     *
+     * @param seed     The random seed the data set is derived from.
+     * @param learners The number of learners to register.
+     * @param coaches  The number of coaches to register.
+     * @param weeks    The number of weeks of lessons to create.
+     * @return The spec.
+     */
+    public static DatasetSpec of(long seed, int learners, int coaches, int weeks) {
+        return new DatasetSpec(seed, learners, coaches, weeks, 0.75, 0.10, 0.60, 0.50);
+    }
+
+    /**
+     * Checks if a ratio falls outside the 0 to 1 range.
+     *
+     * @param ratio The ratio to check.
+     * @return True if the ratio is invalid, otherwise false.
+     */
+    private static boolean isInvalidRatio(double ratio) {
+        return !(ratio >= 0 && ratio <= 1);
+    }
+}
@@ -0,0 +1,448 @@
+package com.hjss.tools;
+
+import com.hjss.enums.Grade;
+import com.hjss.metrics.HistogramSnapshot;
+import com.hjss.metrics.LatencyHistogram;
+import com.hjss.model.Booking;
+import com.hjss.model.Learner;
+import com.hjss.model.Lesson;
+import com.hjss.repository.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LoadGenerator class runs a closed-loop load test against the {@link BookingRepository}.
+ * Each simulated learner runs on its own virtual thread and keeps searching, booking, changing, cancelling
+ * and attending lessons, as learners do when a new term opens.
+ *
+ * <p>
+ * The run reports throughput, latency percentiles per action, rejection counts per exception type,
+ * and any broken booking invariant, such as a lesson vacancy outside 0 to 4 or a lesson size that does not match
+ * its active bookings.
+ * </p>
+ */
+public class LoadGenerator {
+    /**
+     * Actions a simulated learner can perform.
+     */
+    public enum Action {SEARCH, CREATE, CHANGE, CANCEL, ATTEND}
+
+    /**
+     * Maximum number of invariant violations kept for the report.
+     */
+    private static final int MAX_VIOLATIONS = 20;
+
+    private final LearnerRepository learnerRepository;
+    private final LessonRepository lessonRepository;
+    private final BookingRepository bookingRepository;
+
+    /**
+     * Constructs a LoadGenerator running against the given repositories.
+     *
+     * @param learnerRepository The repository providing the learners to simulate.
+     * @param lessonRepository  The repository providing the lessons to book.
+     * @param bookingRepository The repository under test.
+     */
+    public LoadGenerator(LearnerRepository learnerRepository, LessonRepository lessonRepository,
+                         BookingRepository bookingRepository) {
+        this.learnerRepository = learnerRepository;
+        this.lessonRepository = lessonRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Runs the load test described by the spec. Simulated learners are bound to the registered learners, and once
+     * every registered learner is taken, the rest are newcomers modelled on them, so no two threads share a learner.
+     * A learner who has booked every lesson of their grades is replaced by a newcomer of the same grade.
+     *
+     * @param spec The load test to run.
+     * @return The load test report.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the test to finish.
+     */
+    public Report run(LoadSpec spec) throws InterruptedException {
+        List<Learner> learners = learnerRepository.read();
+        List<Lesson> lessons = lessonRepository.read();
+
+        if (learners.isEmpty() || lessons.isEmpty()) {
+            throw new IllegalStateException("Load test needs learners and lessons");
+        }
+
+        Map<String, LongAdder> rejections = new ConcurrentHashMap<>();
+        List<String> violations = Collections.synchronizedList(new ArrayList<>());
+        LatencyHistogram[] latencies = new LatencyHistogram[Action.values().length];
+        for (Action action : Action.values()) {
+            latencies[action.ordinal()] = new LatencyHistogram();
+        }
+
+        CountDownLatch ready = new CountDownLatch(spec.learners());
+        CountDownLatch go = new CountDownLatch(1);
+        long[] deadline = new long[1];
+
+        long started;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < spec.learners(); i++) {
+                Learner registered = learners.get(i % learners.size());
+                Learner learner = i < learners.size() ? registered : newcomer(registered);
+                SplittableRandom random = new SplittableRandom(spec.seed() + i);
+
+                executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    simulate(spec, learner, random, latencies, rejections, deadline[0]);
+                    return null;
+                });
+            }
+
+            // Release every learner at the same instant, like a term opening
+            ready.await();
+            started = System.nanoTime();
+            deadline[0] = started + spec.duration().toNanos();
+            go.countDown();
+
+            // Watch lesson vacancies while the test runs
+            while (System.nanoTime() < deadline[0]) {
+                checkVacancies(lessons, violations);
+                Thread.sleep(50);
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        checkVacancies(lessons, violations);
+        checkLessonSizes(lessons, violations);
+
+        return report(latencies, rejections, violations, elapsed);
+    }
+
+    /**
+     * Runs one simulated learner until the deadline.
+     *
+     * @param spec       The load test being run.
+     * @param learner    The learner being simulated.
+     * @param random     The learner's random generator.
+     * @param latencies  The shared latency histograms per action.
+     * @param rejections The shared rejection counts per exception type.
+     * @param deadline   The {@link System#nanoTime()} at which the test ends.
+     * @throws InterruptedException If the thread is interrupted during its think time.
+     */
+    private void simulate(LoadSpec spec, Learner learner, SplittableRandom random, LatencyHistogram[] latencies,
+                          Map<String, LongAdder> rejections, long deadline) throws InterruptedException {
+        List<Booking> bookings = new ArrayList<>();
+        Lesson candidate = null;
+
+        // Lessons the learner has booked, even if cancelled since, booking them again is a duplicate
+        Set<Lesson> taken = new HashSet<>();
+
+        while (System.nanoTime() < deadline) {
+            Action action = pick(spec, random);
+
+            // Learners without an open booking can only search or book
+            Booking booking = openBooking(bookings, random);
+            if (booking == null && action != Action.SEARCH) {
+                action = Action.CREATE;
+            }
+
+            long start = System.nanoTime();
+            try {
+                switch (action) {
+                    case SEARCH -> candidate = search(learner, taken, random);
+                    case CREATE -> {
+                        Lesson lesson = candidate != null ? candidate : search(learner, taken, random);
+                        candidate = null;
+                        if (lesson != null) {
+                            bookings.add(bookingRepository.create(new Booking(learner, lesson)));
+                            taken.add(lesson);
+                        } else {
+                            // Nothing to book, so the learner only searched
+                            action = Action.SEARCH;
+
+                            if (bookedAll(learner, taken)) {
+                                // A newcomer of the same grade takes the learner's place
+                                learner = newcomer(learner);
+                                bookings.clear();
+                                taken.clear();
+                            }
+                        }
+                    }
+                    case CHANGE -> {
+                        Lesson lesson = search(learner, taken, random);
+                        if (lesson != null) {
+                            bookingRepository.change(booking, lesson);
+                            taken.add(lesson);
+                        } else {
+                            // Nowhere to move to, so the learner only searched
+                            action = Action.SEARCH;
+                        }
+                    }
+                    case CANCEL -> bookingRepository.cancel(booking);
+                    case ATTEND -> bookingRepository.attend(booking);
+                }
+            } catch (Exception e) {
+                rejections.computeIfAbsent(e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+            }
+            latencies[action.ordinal()].recordSince(start);
+
+            if (!spec.thinkTime().isZero()) {
+                Thread.sleep(spec.thinkTime());
+            } else {
+                // Virtual threads are not preempted, without a pause the first learners would keep every carrier
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Searches the timetable for the learner's grade or the grade above and picks a lesson with vacancy that the
+     * learner has not booked before.
+     *
+     * @param learner The learner searching.
+     * @param taken   The lessons the learner has booked before.
+     * @param random  The learner's random generator.
+     * @return A lesson with vacancy, or null when every lesson of both grades is full or was booked before.
+     */
+    private Lesson search(Learner learner, Set<Lesson> taken, SplittableRandom random) {
+        Grade grade = learner.getGrade();
+        if (next(grade) != null && random.nextBoolean()) {
+            grade = next(grade);
+        }
+
+        Lesson lesson = search(lessonRepository.read(grade), taken, random);
+
+        // Try the other grade before giving up
+        Grade other = grade == learner.getGrade() ? next(grade) : learner.getGrade();
+        if (lesson == null && other != null) {
+            lesson = search(lessonRepository.read(other), taken, random);
+        }
+
+        return lesson;
+    }
+
+    /**
+     * Picks a lesson with vacancy not booked before from a list.
+     *
+     * @param lessons The lessons to pick from.
+     * @param taken   The lessons booked before.
+     * @param random  The learner's random generator.
+     * @return A lesson with vacancy, or null when every lesson is full or was booked before.
+     */
+    private static Lesson search(List<Lesson> lessons, Set<Lesson> taken, SplittableRandom random) {
+        if (lessons.isEmpty()) return null;
+
+        // Start from a random lesson so learners do not all pile onto the first one
+        int offset = random.nextInt(lessons.size());
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get((offset + i) % lessons.size());
+            if (lesson.getVacancy() > 0 && !taken.contains(lesson)) {
+                return lesson;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates a new learner with the details and grade of another, who starts with no bookings.
+     *
+     * @param learner The learner to model the newcomer on.
+     * @return The newcomer.
+     */
+    private static Learner newcomer(Learner learner) {
+        return new Learner(learner.getName(), learner.getGender(), learner.getAge(),
+                learner.getEmergencyContactNumber(), learner.getGrade());
+    }
+
+    /**
+     * Checks if a learner has booked every lesson of their grade and the grade above.
+     *
+     * @param learner The learner.
+     * @param taken   The lessons the learner has booked before.
+     * @return True if nothing is left for the learner to book, otherwise false.
+     */
+    private boolean bookedAll(Learner learner, Set<Lesson> taken) {
+        for (Grade grade = learner.getGrade(); grade != null && grade.ordinal() <= learner.getGrade().ordinal() + 1; grade = next(grade)) {
+            if (!taken.containsAll(lessonRepository.read(grade))) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Finds the grade above a grade.
+     *
+     * @param grade The grade.
+     * @return The next grade, or null for the highest grade.
+     */
+    private static Grade next(Grade grade) {
+        return grade.ordinal() + 1 < Grade.values().length ? Grade.values()[grade.ordinal() + 1] : null;
+    }
+
+    /**
+     * Picks one of the learner's bookings that is neither cancelled nor attended.
+     *
+     * @param bookings The learner's bookings.
+     * @param random   The learner's random generator.
+     * @return An open booking, or null when there are none.
+     */
+    private static Booking openBooking(List<Booking> bookings, SplittableRandom random) {
+        bookings.removeIf(bk -> bk.getCancellationStatus() || bk.getAttendanceStatus());
+
+        return bookings.isEmpty() ? null : bookings.get(random.nextInt(bookings.size()));
+    }
+
+    /**
+     * Picks the next action according to the spec weights.
+     *
+     * @param spec   The load test being run.
+     * @param random The learner's random generator.
+     * @return The next action.
+     */
+    private static Action pick(LoadSpec spec, SplittableRandom random) {
+        int[] weights = {spec.searchWeight(), spec.createWeight(), spec.changeWeight(), spec.cancelWeight(), spec.attendWeight()};
+
+        int total = 0;
+        for (int weight : weights) total += weight;
+
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) return Action.values()[i];
+        }
+
+        return Action.SEARCH;
+    }
+
+    /**
+     * Records every lesson whose vacancy is outside 0 to 4.
+     *
+     * @param lessons    The lessons to check.
+     * @param violations The violations found so far.
+     */
+    private static void checkVacancies(List<Lesson> lessons, List<String> violations) {
+        for (Lesson lesson : lessons) {
+            int vacancy = lesson.getVacancy();
+            if (vacancy < 0 || vacancy > 4) {
+                addViolation(violations, "Lesson " + lesson.getId() + " has vacancy " + vacancy);
+            }
+        }
+    }
+
+    /**
+     * Records every lesson whose size does not match its number of active bookings.
+     *
+     * @param lessons    The lessons to check.
+     * @param violations The violations found so far.
+     */
+    private void checkLessonSizes(List<Lesson> lessons, List<String> violations) {
+        Map<Lesson, Integer> active = new HashMap<>();
+        for (Booking booking : bookingRepository.read()) {
+            if (!booking.getCancellationStatus()) {
+                active.merge(booking.getLesson(), 1, Integer::sum);
+            }
+        }
+
+        for (Lesson lesson : lessons) {
+            int booked = active.getOrDefault(lesson, 0);
+            if (booked != lesson.getSize()) {
+                addViolation(violations, "Lesson " + lesson.getId() + " has size " + lesson.getSize()
+                        + " but " + booked + " active bookings");
+            }
+        }
+    }
+
+    /**
+     * Adds a violation to the report, keeping at most {@link #MAX_VIOLATIONS}.
+     *
+     * @param violations The violations found so far.
+     * @param violation  The violation to add.
+     */
+    private static void addViolation(List<String> violations, String violation) {
+        if (violations.size() < MAX_VIOLATIONS) {
+            violations.add(violation);
+        }
+    }
+
+    /**
+     * Builds the report from the latency histograms.
+     *
+     * @param latencies  The latency histograms per action.
+     * @param rejections The rejection counts per exception type.
+     * @param violations The invariant violations found.
+     * @param elapsed    The test duration in nanoseconds.
+     * @return The load test report.
+     */
+    private static Report report(LatencyHistogram[] latencies, Map<String, LongAdder> rejections,
+                                 List<String> violations, long elapsed) {
+        Map<Action, HistogramSnapshot> snapshots = new EnumMap<>(Action.class);
+        long total = 0;
+
+        for (Action action : Action.values()) {
+            HistogramSnapshot snapshot = latencies[action.ordinal()].snapshot();
+            total += snapshot.getCount();
+            snapshots.put(action, snapshot);
+        }
+
+        Map<String, Long> rejected = new TreeMap<>();
+        rejections.forEach((type, count) -> rejected.put(type, count.sum()));
+
+        return new Report(total, total * 1e9 / elapsed, snapshots, rejected, List.copyOf(violations));
+    }
+
+    /**
+     * Result of a load test run.
+     *
+     * @param operations The total number of actions performed.
+     * @param throughput The number of actions performed per second.
+     * @param latencies  The latency snapshot per action, in nanoseconds.
+     * @param rejections The number of rejected actions per exception type.
+     * @param violations The broken booking invariants found.
+     */
+    public record Report(long operations, double throughput, Map<Action, HistogramSnapshot> latencies,
+                         Map<String, Long> rejections, List<String> violations) {
+
+        /**
+         * Returns a printable table of the report.
+         *
+         * @return A string representation of the report.
+         */
+        @Override
+        public String toString() {
+            StringBuilder s = new StringBuilder();
+            s.append(String.format("Operations: %d | Throughput: %.0f ops/s%n", operations, throughput));
+            latencies.forEach((action, latency) -> s.append(String.format("%-7s | %s%n", action, latency)));
+
+            s.append("Rejections: ").append(rejections).append(System.lineSeparator());
+            s.append("Invariant violations: ").append(violations.isEmpty() ? "none" : violations);
+
+            return s.toString();
+        }
+    }
+
+    /**
+     * Generates a data set with empty lessons and runs a term-opening rush against it.
+     * Arguments: learners to simulate, duration in seconds, weeks of lessons - e.g. {@code 10000 10 8}.
+     *
+     * @param args The command-line arguments.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int learners = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int weeks = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        CoachRepository coachRepository = new CoachRepository();
+        LearnerRepository learnerRepository = new LearnerRepository();
+        LessonRepository lessonRepository = new LessonRepository(coachRepository);
+        BookingRepository bookingRepository = new BookingRepository();
+
+        new DatasetGenerator(learnerRepository, coachRepository, lessonRepository, bookingRepository, new ReviewRepository())
+                .generate(new DatasetSpec(42, learners, 4, weeks, 0, 0, 0, 0));
+
+        LoadGenerator generator = new LoadGenerator(learnerRepository, lessonRepository, bookingRepository);
+        System.out.println(generator.run(LoadSpec.rush(learners, Duration.ofSeconds(seconds), 42)));
+    }
+}
@@ -0,0 +1,51 @@
+package com.hjss.tools;
+
+import java.time.Duration;
+
+/**
+ * The LoadSpec record describes a closed-loop load test run by the {@link LoadGenerator}.
+ * Each simulated learner repeatedly picks an action by weight, performs it, waits for the think time and goes again
+ * until the test duration has elapsed.
+ *
+ * @param learners      The number of concurrent simulated learners.
+ * @param duration      How long the test runs for.
+ * @param thinkTime     The pause between two actions of the same learner, or zero for none.
+ * @param seed          The random seed the action choices are derived from.
+ * @param searchWeight  The relative weight of timetable searches.
+ * @param createWeight  The relative weight of new bookings.
+ * @param changeWeight  The relative weight of booking changes.
+ * @param cancelWeight  The relative weight of booking cancellations.
+ * @param attendWeight  The relative weight of lesson attendances.
+ */
+public record LoadSpec(int learners, Duration duration, Duration thinkTime, long seed,
+                       int searchWeight, int createWeight, int changeWeight, int cancelWeight, int attendWeight) {
+
+    /**
+     * Validates the spec.
+     *
+     * @throws IllegalArgumentException If there are no learners, the duration is not positive or no action has weight.
+     */
+    public LoadSpec {
+        if (learners < 1 || duration.isNegative() || duration.isZero() || thinkTime.isNegative()) {
+            throw new IllegalArgumentException("Learners and duration must be positive");
+        }
+
+        if (searchWeight < 0 || createWeight < 0 || changeWeight < 0 || cancelWeight < 0 || attendWeight < 0
+                || searchWeight + createWeight + changeWeight + cancelWeight + attendWeight == 0) {
+            throw new IllegalArgumentException("Action weights must be positive");
+        }
+    }
+
+    /**
+     * Creates a spec with the mix seen when a new term opens: mostly searching and booking,
+     * with some changes, cancellations and attendances.
+     *
+     * @param learners The number of concurrent simulated learners.
+     * @param duration How long the test runs for.
+     * @param seed     The random seed the action choices are derived from.
+     * @return The spec.
+     */
+    public static LoadSpec rush(int learners, Duration duration, long seed) {
+        return new LoadSpec(learners, duration, Duration.ZERO, seed, 40, 35, 10, 10, 5);
+    }
+}
@@ -0,0 +1,129 @@
+package com.hjss.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The DedupCache class remembers the results of recent requests, so a retried request can be answered with the
+ * original result instead of running again.
+ *
+ * <p>
+ * Every entry lives for the same time to live, so entries expire in the order they were added.
+ * Expired entries are dropped from the oldest end whenever an entry is added, and the oldest entries are dropped
+ * early when the cache is full. Memory stays capped at the capacity however many requests arrive.
+ * </p>
+ *
+ * <p>
+ * The cache is not thread safe, callers must hold their own lock.
+ * </p>
+ *
+ * @param <K> The type of request keys.
+ * @param <V> The type of remembered results.
+ */
+public class DedupCache<K, V> {
+    private final Map<K, Entry<V>> entries = new LinkedHashMap<>();
+
+    private final int capacity;
+
+    private final long ttlMillis;
+
+    /**
+     * Constructs an empty DedupCache.
+     *
+     * @param capacity The largest number of results remembered at once.
+     * @param ttl      How long a result is remembered for.
+     */
+    public DedupCache(int capacity, Duration ttl) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        this.capacity = capacity;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Retrieves the result remembered for a request.
+     *
+     * @param key       The request key.
+     * @param nowMillis The current time in milliseconds.
+     * @return The remembered result, or null if the request is unknown or its result has expired.
+     */
+    public V get(K key, long nowMillis) {
+        Entry<V> entry = entries.get(key);
+        return entry == null || entry.expiresAt <= nowMillis ? null : entry.value;
+    }
+
+    /**
+     * Remembers the result of a request.
+     * A request that is already remembered keeps its original result and expiry.
+     *
+     * @param key       The request key.
+     * @param value     The result of the request.
+     * @param nowMillis The current time in milliseconds.
+     */
+    public void put(K key, V value, long nowMillis) {
+        evictExpired(nowMillis);
+
+        if (entries.containsKey(key)) return;
+
+        if (entries.size() >= capacity) {
+            // Full of live entries, forget the oldest
+            Iterator<Entry<V>> oldest = entries.values().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+
+        entries.put(key, new Entry<>(value, nowMillis + ttlMillis));
+    }
+
+    /**
+     * Forgets the result of a request, so the request runs again when retried.
+     *
+     * @param key The request key.
+     */
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drops every expired result.
+     *
+     * @param nowMillis The current time in milliseconds.
+     */
+    public void evictExpired(long nowMillis) {
+        Iterator<Entry<V>> oldest = entries.values().iterator();
+
+        while (oldest.hasNext() && oldest.next().expiresAt <= nowMillis) {
+            oldest.remove();
+        }
+    }
+
+    /**
+     * Forgets every result.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Retrieves the number of remembered results, including expired ones not dropped yet.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * A remembered result and the time it expires.
+     *
+     * @param value     The result.
+     * @param expiresAt The expiry time in milliseconds.
+     * @param <V>       The type of the result.
+     */
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
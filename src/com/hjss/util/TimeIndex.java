@@ -0,0 +1,78 @@
+package com.hjss.util;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The TimeIndex class keeps entries sorted by the time they happened, so the entries of a time window are found by a
+ * range scan of the window instead of a scan of every entry.
+ *
+ * <p>
+ * Entries are kept in a skip list keyed by time, with a sequence number breaking ties between entries of the same
+ * instant, so entries of the same time are returned in the order they were added. Adding an entry is O(log n) and
+ * reading a window is O(log n) plus the size of the window. The index is thread safe and reads never block.
+ * </p>
+ *
+ * @param <T> The type of indexed entries.
+ */
+public class TimeIndex<T> {
+    private final ConcurrentSkipListMap<Key, T> entries = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Adds an entry at a time.
+     *
+     * @param time  The time of the entry.
+     * @param entry The entry.
+     */
+    public void add(Instant time, T entry) {
+        entries.put(new Key(time, sequence.incrementAndGet()), entry);
+    }
+
+    /**
+     * Retrieves the entries of a time window.
+     *
+     * @param from The start of the window, inclusive.
+     * @param to   The end of the window, exclusive.
+     * @return The entries in time order.
+     */
+    public List<T> range(Instant from, Instant to) {
+        if (!from.isBefore(to)) return new ArrayList<>();
+
+        return new ArrayList<>(entries.subMap(new Key(from, Long.MIN_VALUE), new Key(to, Long.MIN_VALUE)).values());
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Retrieves the number of entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * The position of an entry in the index.
+     *
+     * @param time     The time of the entry.
+     * @param sequence The order the entry was added in.
+     */
+    private record Key(Instant time, long sequence) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byTime = time.compareTo(other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.hjss.util;
+
+import java.util.function.Consumer;
+
+/**
+ * The TimingWheel class schedules items to expire at a deadline, such as seat holds that are released after a while.
+ *
+ * <p>
+ * Time is cut into ticks and the wheel has {@value #LEVELS} levels of {@value #SLOTS} slots. Level 0 holds the
+ * items expiring within the next {@value #SLOTS} ticks, one slot per tick, and every level above covers
+ * {@value #SLOTS} times the range of the level below. When the lower levels wrap around, the items of the next
+ * higher slot are moved down. Scheduling, cancelling and expiring an item are O(1), however many items are waiting.
+ * Deadlines beyond the range of the top level are parked in it and moved down again until they are due.
+ * Each level keeps a bitmask of its occupied slots, so advancing over a long pause jumps straight from one occupied
+ * slot to the next instead of stepping through every empty tick.
+ * </p>
+ *
+ * <p>
+ * The wheel has no thread of its own: it moves when {@link #advance(long, Consumer)} is called.
+ * It is not thread safe, callers must hold their own lock.
+ * </p>
+ *
+ * @param <T> The type of scheduled items.
+ */
+public class TimingWheel<T> {
+    private static final int BITS = 6;
+
+    private static final int SLOTS = 1 << BITS;
+
+    private static final int MASK = SLOTS - 1;
+
+    private static final int LEVELS = 4;
+
+    /**
+     * Number of ticks covered by the whole wheel.
+     */
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    /**
+     * Sentinel of every slot list, indexed by level then slot.
+     */
+    private final Timeout<T>[][] slots;
+
+    /**
+     * Occupied slots of each level, one bit per slot.
+     */
+    private final long[] occupied = new long[LEVELS];
+
+    private final long tickMillis;
+
+    /**
+     * The last tick that was expired.
+     */
+    private long now;
+
+    private int size;
+
+    /**
+     * Constructs an empty TimingWheel.
+     *
+     * @param tickMillis  The length of a tick in milliseconds. Items expire up to one tick late.
+     * @param startMillis The current time in milliseconds.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+
+        this.tickMillis = tickMillis;
+        this.now = startMillis / tickMillis;
+
+        slots = new Timeout[LEVELS][SLOTS];
+        for (Timeout<T>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Timeout<>(null, 0);
+                level[i].prev = level[i].next = level[i];
+            }
+        }
+    }
+
+    /**
+     * Schedules an item to expire at a deadline.
+     *
+     * @param item           The item to expire.
+     * @param deadlineMillis The time in milliseconds at which the item expires.
+     * @return The timeout of the item, which can be cancelled.
+     */
+    public Timeout<T> schedule(T item, long deadlineMillis) {
+        // Round up, so items never expire early
+        long deadline = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+
+        Timeout<T> timeout = new Timeout<>(item, deadline);
+        place(timeout, now + 1);
+        size++;
+
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel to the given time and expires every item due by then.
+     *
+     * @param nowMillis The current time in milliseconds.
+     * @param expired   Receives every expired item, earliest deadline first.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+
+        if (size == 0) {
+            // Nothing to expire, jump straight to the target
+            now = Math.max(now, target);
+            return;
+        }
+
+        while (now < target) {
+            now = Math.min(nextTick(), target);
+
+            // Move the items of the higher levels down when the lower levels wrap around
+            for (int level = 1; level < LEVELS && (now & ((1L << (BITS * level)) - 1)) == 0; level++) {
+                cascade(level, (int) ((now >>> (BITS * level)) & MASK));
+            }
+
+            Timeout<T> head = slots[0][(int) (now & MASK)];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                unlink(timeout);
+
+                if (timeout.deadline > now) {
+                    // Parked beyond the range of the wheel
+                    place(timeout, now + 1);
+                    continue;
+                }
+
+                size--;
+                expired.accept(timeout.item);
+            }
+
+            if (size == 0) {
+                now = target;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of scheduled items.
+     *
+     * @return The number of items that have neither expired nor been cancelled.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the next tick on which an occupied slot expires or moves its items down a level.
+     *
+     * @return The next tick with work to do, or {@link Long#MAX_VALUE} if the wheel is empty.
+     */
+    private long nextTick() {
+        long next = Long.MAX_VALUE;
+
+        for (int level = 0; level < LEVELS; level++) {
+            if (occupied[level] == 0) continue;
+
+            // A slot of this level is visited every SLOTS^level ticks, find the first occupied one after the current
+            int shift = BITS * level;
+            long base = now >>> shift;
+            long ahead = Long.rotateRight(occupied[level], (int) ((base + 1) & MASK));
+
+            next = Math.min(next, (base + Long.numberOfTrailingZeros(ahead) + 1) << shift);
+        }
+
+        return next;
+    }
+
+    /**
+     * Moves every item of a slot to the level its deadline now falls in.
+     *
+     * @param level The level of the slot.
+     * @param slot  The slot index.
+     */
+    private void cascade(int level, int slot) {
+        Timeout<T> head = slots[level][slot];
+
+        while (head.next != head) {
+            Timeout<T> timeout = head.next;
+            unlink(timeout);
+            place(timeout, now);
+        }
+    }
+
+    /**
+     * Links a timeout into the slot matching its deadline.
+     *
+     * @param timeout  The timeout to place.
+     * @param earliest The earliest tick the timeout can still expire on.
+     */
+    private void place(Timeout<T> timeout, long earliest) {
+        // Past deadlines expire on the earliest tick, far deadlines are parked at the edge of the wheel
+        long tick = Math.min(Math.max(timeout.deadline, earliest), now + SPAN - 1);
+        long delta = tick - now;
+
+        int level = 0;
+        while (delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+
+        int slot = (int) ((tick >>> (BITS * level)) & MASK);
+        Timeout<T> head = slots[level][slot];
+        occupied[level] |= 1L << slot;
+
+        timeout.wheel = this;
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    /**
+     * Unlinks a timeout from its slot.
+     *
+     * @param timeout The timeout to unlink.
+     */
+    private void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = timeout.next = null;
+        timeout.wheel = null;
+
+        Timeout<T> head = slots[timeout.level][timeout.slot];
+        if (head.next == head) {
+            occupied[timeout.level] &= ~(1L << timeout.slot);
+        }
+    }
+
+    /**
+     * The Timeout class is the handle of an item scheduled on a {@link TimingWheel}.
+     *
+     * @param <T> The type of the scheduled item.
+     */
+    public static final class Timeout<T> {
+        private final T item;
+
+        private final long deadline;
+
+        private Timeout<T> prev;
+
+        private Timeout<T> next;
+
+        private TimingWheel<T> wheel;
+
+        /**
+         * The level and slot the timeout is linked into.
+         */
+        private int level;
+
+        private int slot;
+
+        /**
+         * Constructs a Timeout.
+         *
+         * @param item     The scheduled item.
+         * @param deadline The tick at which the item expires.
+         */
+        private Timeout(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Retrieves the scheduled item.
+         *
+         * @return The scheduled item.
+         */
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * Checks if the item is still waiting to expire.
+         *
+         * @return True if the item has neither expired nor been cancelled, otherwise false.
+         */
+        public boolean isPending() {
+            return wheel != null;
+        }
+
+        /**
+         * Removes the item from the wheel so it never expires.
+         *
+         * @return True if the item was waiting to expire, otherwise false.
+         */
+        public boolean cancel() {
+            if (wheel == null) return false;
+
+            TimingWheel<T> owner = wheel;
+            owner.unlink(this);
+            owner.size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.hjss.util;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * The WeekPartitions class stores records partitioned by the week they belong to, so queries over a few weeks only
+ * touch those weeks instead of the whole history.
+ *
+ * <p>
+ * Weeks are open while records are still being added to them. Once a week is over it can be sealed: its records are
+ * copied into a compact read-only segment and the growable index is dropped. Sealed weeks are still returned by range
+ * queries, but are skipped by {@link #readOpen()}, which is what the hot paths use. Adding or removing a record of a
+ * sealed week reopens the week, so sealing never loses a write. A reopened week keeps its segment: added records are
+ * kept beside it and removed ones are marked, so a write never copies the segment. The next seal compacts the week.
+ * </p>
+ *
+ * <p>
+ * Records of an open week are kept in insertion order with a count, so removing a record is O(1), and iterating walks
+ * the partitions in place instead of copying the records.
+ * </p>
+ *
+ * <p>
+ * A school month is {@value #WEEKS_PER_MONTH} weeks, see {@link #firstWeekOf(int)} and {@link #monthOf(int)}.
+ * The class is not thread safe, callers must hold their own lock, except to read {@link #size()}.
+ * </p>
+ *
+ * @param <T> The type of stored records.
+ */
+public class WeekPartitions<T> implements Iterable<T> {
+    /**
+     * Number of weeks in a school month.
+     */
+    public static final int WEEKS_PER_MONTH = 4;
+
+    private final ToIntFunction<T> weekOf;
+
+    /**
+     * Records added to each week since it was last sealed, keyed by week, each with the number of times it was added,
+     * in the order they were first added.
+     */
+    private final NavigableMap<Integer, Map<T, Integer>> open = new TreeMap<>();
+
+    /**
+     * Read-only segments of the sealed weeks, keyed by week.
+     */
+    private final NavigableMap<Integer, List<T>> sealed = new TreeMap<>();
+
+    /**
+     * Records removed from the segments of reopened weeks, keyed by week, each with the number of times it was removed.
+     */
+    private final NavigableMap<Integer, Map<T, Integer>> removed = new TreeMap<>();
+
+    /**
+     * Number of records, volatile so it can be read without the owner's lock, such as by management beans.
+     */
+    private volatile int size;
+
+    /**
+     * Constructs an empty WeekPartitions.
+     *
+     * @param weekOf Gives the week a record belongs to.
+     */
+    public WeekPartitions(ToIntFunction<T> weekOf) {
+        this.weekOf = weekOf;
+    }
+
+    /**
+     * Adds a record to the partition of its week.
+     *
+     * @param record The record to add.
+     */
+    public void add(T record) {
+        open.computeIfAbsent(weekOf.applyAsInt(record), w -> new LinkedHashMap<>()).merge(record, 1, Integer::sum);
+        size++;
+    }
+
+    /**
+     * Adds records to the partitions of their weeks.
+     *
+     * @param records The records to add.
+     */
+    public void addAll(Collection<? extends T> records) {
+        for (T record : records) {
+            add(record);
+        }
+    }
+
+    /**
+     * Removes a record from the partition of its week.
+     * Must be called before anything the week of the record depends on changes.
+     *
+     * @param record The record to remove.
+     * @return True if the record was stored, otherwise false.
+     */
+    public boolean remove(T record) {
+        int week = weekOf.applyAsInt(record);
+
+        Map<T, Integer> added = open.get(week);
+        if (added != null && decrement(added, record)) {
+            if (added.isEmpty()) {
+                open.remove(week);
+            }
+
+            size--;
+            return true;
+        }
+
+        // The segment is only scanned, never copied
+        List<T> segment = sealed.get(week);
+        if (segment == null) return false;
+
+        Map<T, Integer> gone = removed.get(week);
+        int stored = -(gone == null ? 0 : gone.getOrDefault(record, 0));
+        for (T candidate : segment) {
+            if (candidate.equals(record)) stored++;
+        }
+
+        if (stored <= 0) return false;
+
+        removed.computeIfAbsent(week, w -> new HashMap<>()).merge(record, 1, Integer::sum);
+        size--;
+        return true;
+    }
+
+    /**
+     * Retrieves the records of a range of weeks, sealed or open.
+     *
+     * @param fromWeek The first week, inclusive.
+     * @param toWeek   The last week, inclusive.
+     * @return The records in week order, then in the order they were added.
+     */
+    public List<T> read(int fromWeek, int toWeek) {
+        List<T> records = new ArrayList<>();
+
+        if (fromWeek > toWeek) return records;
+
+        Iterator<Integer> weeks = union(sealed.subMap(fromWeek, true, toWeek, true).navigableKeySet(),
+                open.subMap(fromWeek, true, toWeek, true).navigableKeySet());
+
+        while (weeks.hasNext()) {
+            collect(weeks.next(), records);
+        }
+
+        return records;
+    }
+
+    /**
+     * Retrieves the records of a school month.
+     *
+     * @param month The month, starting from 1.
+     * @return The records of the weeks of the month.
+     */
+    public List<T> readMonth(int month) {
+        return read(firstWeekOf(month), firstWeekOf(month + 1) - 1);
+    }
+
+    /**
+     * Retrieves the records of the open and reopened weeks only.
+     *
+     * @return The records in week order, then in the order they were added.
+     */
+    public List<T> readOpen() {
+        List<T> records = new ArrayList<>();
+
+        Iterator<Integer> weeks = union(open.navigableKeySet(), removed.navigableKeySet());
+        while (weeks.hasNext()) {
+            collect(weeks.next(), records);
+        }
+
+        return records;
+    }
+
+    /**
+     * Retrieves every record.
+     *
+     * @return The records in week order, then in the order they were added.
+     */
+    public List<T> readAll() {
+        return read(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Seals every open or reopened week up to a week into read-only segments.
+     *
+     * @param throughWeek The last week to seal, inclusive.
+     * @return The number of weeks sealed.
+     */
+    public int seal(int throughWeek) {
+        List<Integer> closing = new ArrayList<>();
+        union(open.headMap(throughWeek, true).navigableKeySet(), removed.headMap(throughWeek, true).navigableKeySet())
+                .forEachRemaining(closing::add);
+
+        for (int week : closing) {
+            List<T> records = new ArrayList<>();
+            collect(week, records);
+
+            if (records.isEmpty()) {
+                sealed.remove(week);
+            } else {
+                sealed.put(week, List.copyOf(records));
+            }
+        }
+
+        open.headMap(throughWeek, true).clear();
+        removed.headMap(throughWeek, true).clear();
+        return closing.size();
+    }
+
+    /**
+     * Checks if a week is sealed.
+     *
+     * @param week The week.
+     * @return True if the week has a sealed segment and was not written since, otherwise false.
+     */
+    public boolean isSealed(int week) {
+        return sealed.containsKey(week) && !open.containsKey(week) && !removed.containsKey(week);
+    }
+
+    /**
+     * Retrieves the number of sealed weeks.
+     *
+     * @return The number of sealed segments that were not written since.
+     */
+    public int getSealedWeeks() {
+        int reopened = 0;
+
+        Iterator<Integer> weeks = union(open.navigableKeySet(), removed.navigableKeySet());
+        while (weeks.hasNext()) {
+            if (sealed.containsKey(weeks.next())) reopened++;
+        }
+
+        return sealed.size() - reopened;
+    }
+
+    /**
+     * Removes every record.
+     */
+    public void clear() {
+        open.clear();
+        sealed.clear();
+        removed.clear();
+        size = 0;
+    }
+
+    /**
+     * Retrieves the number of records in every week. Safe to call without the owner's lock.
+     *
+     * @return The number of records.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterates over every record in week order, walking the partitions in place.
+     * The partitions must not be changed while iterating.
+     *
+     * @return An iterator over the records.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<Integer> weeks = union(sealed.navigableKeySet(), open.navigableKeySet());
+
+        return new Iterator<>() {
+            private List<T> week = List.of();
+
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == week.size() && weeks.hasNext()) {
+                    int w = weeks.next();
+                    List<T> segment = sealed.get(w);
+
+                    if (segment != null && !open.containsKey(w) && !removed.containsKey(w)) {
+                        // A sealed week is walked in place
+                        week = segment;
+                    } else {
+                        week = new ArrayList<>();
+                        collect(w, week);
+                    }
+
+                    next = 0;
+                }
+
+                return next < week.size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return week.get(next++);
+            }
+        };
+    }
+
+    /**
+     * Finds the school month a week is in.
+     *
+     * @param week The week, starting from 1.
+     * @return The month, starting from 1.
+     */
+    public static int monthOf(int week) {
+        return Math.floorDiv(week - 1, WEEKS_PER_MONTH) + 1;
+    }
+
+    /**
+     * Finds the first week of a school month.
+     *
+     * @param month The month, starting from 1.
+     * @return The first week of the month.
+     */
+    public static int firstWeekOf(int month) {
+        return (month - 1) * WEEKS_PER_MONTH + 1;
+    }
+
+    /**
+     * Appends the records of a week: its segment without the removed records, then the records added since it was
+     * sealed.
+     *
+     * @param week    The week.
+     * @param records The list the records are appended to.
+     */
+    private void collect(int week, List<T> records) {
+        List<T> segment = sealed.get(week);
+
+        if (segment != null) {
+            Map<T, Integer> gone = removed.get(week);
+
+            if (gone == null) {
+                records.addAll(segment);
+            } else {
+                Map<T, Integer> skip = new HashMap<>(gone);
+                for (T record : segment) {
+                    if (!decrement(skip, record)) records.add(record);
+                }
+            }
+        }
+
+        Map<T, Integer> added = open.get(week);
+
+        if (added != null) {
+            for (Map.Entry<T, Integer> record : added.entrySet()) {
+                for (int i = 0; i < record.getValue(); i++) {
+                    records.add(record.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes one off the count of a record, dropping the record when its count reaches zero.
+     *
+     * @param counts The records and their counts.
+     * @param record The record.
+     * @return True if the record was counted, otherwise false.
+     */
+    private static <T> boolean decrement(Map<T, Integer> counts, T record) {
+        Integer count = counts.get(record);
+
+        if (count == null) return false;
+
+        if (count == 1) {
+            counts.remove(record);
+        } else {
+            counts.put(record, count - 1);
+        }
+
+        return true;
+    }
+
+    /**
+     * Merges two sorted sets of weeks into one ascending sequence without duplicates.
+     *
+     * @param a The first weeks.
+     * @param b The second weeks.
+     * @return An iterator over the weeks in either set.
+     */
+    private static Iterator<Integer> union(NavigableSet<Integer> a, NavigableSet<Integer> b) {
+        Iterator<Integer> left = a.iterator();
+        Iterator<Integer> right = b.iterator();
+
+        return new Iterator<>() {
+            private Integer nextLeft = left.hasNext() ? left.next() : null;
+
+            private Integer nextRight = right.hasNext() ? right.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextLeft != null || nextRight != null;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) throw new NoSuchElementException();
+
+                Integer week;
+                if (nextRight == null || (nextLeft != null && nextLeft < nextRight)) {
+                    week = nextLeft;
+                } else {
+                    week = nextRight;
+                }
+
+                if (week.equals(nextLeft)) nextLeft = left.hasNext() ? left.next() : null;
+                if (week.equals(nextRight)) nextRight = right.hasNext() ? right.next() : null;
+
+                return week;
+            }
+        };
+    }
+}